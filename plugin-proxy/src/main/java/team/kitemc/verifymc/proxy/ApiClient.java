@@ -1,140 +1,406 @@
 package team.kitemc.verifymc.proxy;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.net.URI;
 import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
 /**
  * HTTP API client for communicating with VerifyMC backend
+ * <p>
+ * Requests are spread over the configured backends by a {@link BackendPool},
+ * which handles failover, circuit breaking and hedging.
+ * <p>
+ * All requests share one {@link HttpClient}, so connections are kept alive
+ * (and multiplexed when the backend speaks HTTP/2). Lookups are asynchronous
+ * and coalesced: while a request for a username is in flight, further lookups
+ * for the same name (single or batch) wait for that request instead of
+ * sending their own.
+ * <p>
+ * Cached statuses are fresh for {@code cache.expire_seconds}; after that they
+ * are served stale for up to {@code cache.stale_seconds} while a background
+ * request refreshes them, and used as the answer whenever the backend cannot
+ * be reached. "Not registered" answers are cached for
+ * {@code cache.negative_expire_seconds} and never served stale, so a player
+ * who just registered is not turned away. The cache is saved to
+ * {@code whitelist-cache.json} and loaded (as stale) on startup. Statuses
+ * pushed by the backend ({@link #applyPushedStatus}) replace cached entries
+ * as fresh, and a lookup that was already running when a status was pushed
+ * does not overwrite it.
  */
 public class ApiClient {
+    private static final int BATCH_SIZE = 500;
+    private static final String SNAPSHOT_FILE = "whitelist-cache.json";
+    private static final String PROBE_USERNAME = "verifymc_probe";
+    
     private final ProxyConfig config;
     private final Logger logger;
     private final Gson gson = new Gson();
+    private final HttpClient http;
+    private final BackendPool backends;
+    private final Path snapshotPath;
     
-    // Simple cache for whitelist status
+    // Whitelist status cache, by lower-cased username
     private final Map<String, CachedStatus> statusCache = new ConcurrentHashMap<>();
+    // Requests currently waiting on the backend, by lower-cased username
+    private final Map<String, CompletableFuture<WhitelistStatus>> inFlight = new ConcurrentHashMap<>();
+    // Orders lookup starts against pushes
+    private final AtomicLong clock = new AtomicLong();
+    private volatile boolean cacheDirty;
     
-    public ApiClient(ProxyConfig config, Logger logger) {
+    public ApiClient(ProxyConfig config, Logger logger, File dataFolder) {
         this.config = config;
         this.logger = logger;
+        this.snapshotPath = new File(dataFolder, SNAPSHOT_FILE).toPath();
+        this.http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofMillis(config.getTimeout()))
+            .build();
+        // A real lookup, so the probe only passes (200) when the backend accepts our API key
+        this.backends = new BackendPool(http, config, logger,
+            base -> newRequest(base + "/api/check-whitelist?username=" + PROBE_USERNAME).GET().build());
         
         // Start cache cleanup thread
         if (config.isCacheEnabled()) {
+            if (config.isCachePersist()) {
+                loadSnapshot();
+            }
             startCacheCleanup();
         }
     }
     
     /**
-     * Check if a player is on the whitelist
+     * Check if a player is on the whitelist, blocking the calling thread
      * @param username Player's username
      * @return WhitelistStatus or null if error
      */
     public WhitelistStatus checkWhitelist(String username) {
-        // Check cache first
-        if (config.isCacheEnabled()) {
-            CachedStatus cached = statusCache.get(username.toLowerCase());
-            if (cached != null && !cached.isExpired()) {
-                if (config.isDebug()) {
-                    logger.info("[DEBUG] Cache hit for: " + username);
-                }
-                return cached.status;
+        return checkWhitelistAsync(username).join();
+    }
+    
+    /**
+     * Check if a player is on the whitelist
+     * @param username Player's username
+     * @return Future completing with the WhitelistStatus, or with null on error
+     *         when nothing usable is cached (never exceptionally)
+     */
+    public CompletableFuture<WhitelistStatus> checkWhitelistAsync(String username) {
+        String key = username.toLowerCase();
+        CachedStatus cached = config.isCacheEnabled() ? statusCache.get(key) : null;
+        long now = System.currentTimeMillis();
+        if (cached != null && cached.isFresh(now)) {
+            if (config.isDebug()) {
+                logger.info("[DEBUG] Cache hit for: " + username);
             }
+            return CompletableFuture.completedFuture(cached.status);
         }
-        
-        try {
-            String encodedUsername = URLEncoder.encode(username, StandardCharsets.UTF_8);
-            String url = config.getBackendUrl() + "/api/check-whitelist?username=" + encodedUsername;
-            
+        if (cached != null && cached.isServableStale(now)) {
             if (config.isDebug()) {
-                logger.info("[DEBUG] API Request: " + url);
+                logger.info("[DEBUG] Serving stale status for: " + username + ", refreshing");
             }
-            
-            HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
-            conn.setRequestMethod("GET");
-            conn.setConnectTimeout(config.getTimeout());
-            conn.setReadTimeout(config.getTimeout());
-            conn.setRequestProperty("Accept", "application/json");
-            
-            // Add API key header if configured
-            String apiKey = config.getApiKey();
-            if (apiKey != null && !apiKey.isEmpty()) {
-                conn.setRequestProperty("X-API-Key", apiKey);
+            fetch(username, key);
+            return CompletableFuture.completedFuture(cached.status);
+        }
+        return fetch(username, key);
+    }
+    
+    /**
+     * Returns the in-flight request for a username, starting one if none is running.
+     */
+    private CompletableFuture<WhitelistStatus> fetch(String username, String key) {
+        CompletableFuture<WhitelistStatus> mine = new CompletableFuture<>();
+        CompletableFuture<WhitelistStatus> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            if (config.isDebug()) {
+                logger.info("[DEBUG] Joining in-flight request for: " + username);
             }
-            
-            int responseCode = conn.getResponseCode();
-            
-            if (responseCode == 200) {
-                BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8)
-                );
-                StringBuilder response = new StringBuilder();
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    response.append(line);
+            return running;
+        }
+        
+        String path = "/api/check-whitelist?username=" + URLEncoder.encode(username, StandardCharsets.UTF_8);
+        if (config.isDebug()) {
+            logger.info("[DEBUG] API Request: " + path);
+        }
+        long startedAt = clock.incrementAndGet();
+        backends.send(base -> newRequest(base + path).GET().build())
+            .thenApply(response -> parseSingle(response))
+            .whenComplete((status, error) -> {
+                if (error != null) {
+                    logger.warning("Failed to check whitelist: " + error.getMessage());
                 }
-                reader.close();
-                
+                complete(key, mine, error == null ? status : null, startedAt);
+            });
+        return mine;
+    }
+    
+    /**
+     * Check many players at once, blocking the calling thread
+     * @see #checkWhitelistAsync(Collection)
+     */
+    public Map<String, WhitelistStatus> checkWhitelist(Collection<String> usernames) {
+        return checkWhitelistAsync(usernames).join();
+    }
+    
+    /**
+     * Check many players in as few requests as possible, e.g. when a backend
+     * restarts and everyone reconnects. Fresh (or servable stale) cached
+     * players are answered locally, players already being looked up join that
+     * request, and the rest are sent in chunks of {@code BATCH_SIZE}.
+     * @param usernames Player usernames
+     * @return Future of status per requested username (as given); players whose lookup failed are missing
+     */
+    public CompletableFuture<Map<String, WhitelistStatus>> checkWhitelistAsync(Collection<String> usernames) {
+        Map<String, CompletableFuture<WhitelistStatus>> pending = new LinkedHashMap<>();
+        Map<String, CompletableFuture<WhitelistStatus>> owned = new LinkedHashMap<>();
+        long now = System.currentTimeMillis();
+        for (String username : usernames) {
+            String key = username.toLowerCase();
+            CachedStatus cached = config.isCacheEnabled() ? statusCache.get(key) : null;
+            if (cached != null && cached.isFresh(now)) {
+                pending.put(username, CompletableFuture.completedFuture(cached.status));
+                continue;
+            }
+            boolean stale = cached != null && cached.isServableStale(now);
+            CompletableFuture<WhitelistStatus> mine = new CompletableFuture<>();
+            CompletableFuture<WhitelistStatus> running = inFlight.putIfAbsent(key, mine);
+            if (running == null) {
+                owned.put(username, mine);
+            }
+            pending.put(username, stale ? CompletableFuture.completedFuture(cached.status)
+                : running != null ? running : mine);
+        }
+        
+        List<String> names = new ArrayList<>(owned.keySet());
+        for (int from = 0; from < names.size(); from += BATCH_SIZE) {
+            List<String> chunk = names.subList(from, Math.min(names.size(), from + BATCH_SIZE));
+            long startedAt = clock.incrementAndGet();
+            fetchBatch(chunk).whenComplete((statuses, error) -> {
+                if (error != null) {
+                    logger.warning("Failed to batch check whitelist: " + error.getMessage());
+                }
+                for (String username : chunk) {
+                    WhitelistStatus status = statuses != null ? statuses.get(username) : null;
+                    complete(username.toLowerCase(), owned.get(username), status, startedAt);
+                }
+            });
+        }
+        
+        return CompletableFuture.allOf(pending.values().toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            Map<String, WhitelistStatus> result = new LinkedHashMap<>();
+            pending.forEach((username, future) -> {
+                WhitelistStatus status = future.join();
+                if (status != null) {
+                    result.put(username, status);
+                }
+            });
+            return result;
+        });
+    }
+    
+    /**
+     * Caches a fetched status, or falls back to the last known one when the
+     * request failed, then releases the in-flight slot. A status pushed after
+     * the request started wins over its answer.
+     */
+    private void complete(String key, CompletableFuture<WhitelistStatus> mine, WhitelistStatus status, long startedAt) {
+        if (status != null) {
+            status = rememberFetched(key, status, startedAt);
+        } else if (config.isCacheEnabled()) {
+            CachedStatus cached = statusCache.get(key);
+            if (cached != null && cached.isUsable(System.currentTimeMillis())) {
                 if (config.isDebug()) {
-                    logger.info("[DEBUG] API Response: " + response);
+                    logger.info("[DEBUG] Backend unavailable, using last known status for: " + key);
                 }
-                
-                // Parse response
-                JsonObject json = JsonParser.parseString(response.toString()).getAsJsonObject();
-                WhitelistStatus status = new WhitelistStatus();
-                
-                if (json.has("status") && !json.get("status").isJsonNull()) {
-                    status.setStatus(json.get("status").getAsString());
+                status = cached.status;
+            }
+        }
+        inFlight.remove(key, mine);
+        mine.complete(status);
+    }
+    
+    private CompletableFuture<Map<String, WhitelistStatus>> fetchBatch(List<String> chunk) {
+        JsonObject body = new JsonObject();
+        JsonArray names = new JsonArray();
+        chunk.forEach(names::add);
+        body.add("usernames", names);
+        String payload = gson.toJson(body);
+        return backends.send(base -> newRequest(base + "/api/check-whitelist")
+                .header("Content-Type", "application/json; charset=utf-8")
+                .POST(HttpRequest.BodyPublishers.ofString(payload, StandardCharsets.UTF_8))
+                .build())
+            .thenApply(response -> {
+                if (response.statusCode() != 200) {
+                    logger.warning("Batch whitelist check returned status code: " + response.statusCode());
+                    return null;
                 }
-                if (json.has("username") && !json.get("username").isJsonNull()) {
-                    status.setUsername(json.get("username").getAsString());
+                JsonObject json = JsonParser.parseString(response.body()).getAsJsonObject();
+                if (!json.has("success") || !json.get("success").getAsBoolean() || !json.has("statuses")) {
+                    return null;
                 }
-
-                if (json.has("success") && json.get("success").getAsBoolean()) {
-                    // New protocol: backend returns explicit found field.
-                    if (json.has("found") && !json.get("found").isJsonNull()) {
-                        status.setFound(json.get("found").getAsBoolean());
-                    } else {
-                        // Backward compatibility with old protocol.
-                        // If status is present and not "not_registered", conservatively infer found=true.
-                        // Otherwise, explicitly mark as not found.
-                        String responseStatus = status.getStatus();
-                        status.setFound(responseStatus != null && !"not_registered".equalsIgnoreCase(responseStatus));
-                    }
-                } else {
-                    // success=false (or missing) should always be treated as not found.
-                    status.setFound(false);
+                JsonObject statuses = json.getAsJsonObject("statuses");
+                Map<String, WhitelistStatus> result = new LinkedHashMap<>();
+                for (String username : chunk) {
+                    WhitelistStatus status = new WhitelistStatus();
+                    status.setUsername(username);
+                    String value = statuses.has(username) && !statuses.get(username).isJsonNull()
+                        ? statuses.get(username).getAsString() : "not_registered";
+                    status.setStatus(value);
+                    status.setFound(!"not_registered".equalsIgnoreCase(value));
+                    result.put(username, status);
                 }
-                
-                // Cache the result
-                if (config.isCacheEnabled()) {
-                    statusCache.put(username.toLowerCase(), new CachedStatus(status, config.getCacheExpireSeconds()));
+                return result;
+            });
+    }
+    
+    /**
+     * GET a backend path (e.g. {@code /api/whitelist/snapshot}) and parse the JSON body;
+     * consecutive calls go to the same backend while it stays healthy
+     * @return Future of the body, or of null for a non-200 response; completes exceptionally on I/O errors
+     */
+    CompletableFuture<JsonObject> getJson(String pathAndQuery) {
+        return backends.sendPinned(base -> newRequest(base + pathAndQuery).GET().build())
+            .thenApply(response -> {
+                if (response.statusCode() != 200) {
+                    logger.warning("API returned status code: " + response.statusCode() + " for " + pathAndQuery);
+                    return null;
                 }
-                
-                return status;
+                return JsonParser.parseString(response.body()).getAsJsonObject();
+            });
+    }
+    
+    /**
+     * Open a WebSocket to the backend over the shared client, sending the API key
+     * @return Future of the socket; completes exceptionally if the connection fails
+     */
+    CompletableFuture<WebSocket> openWebSocket(String url, WebSocket.Listener listener) {
+        WebSocket.Builder builder = http.newWebSocketBuilder()
+            .connectTimeout(Duration.ofMillis(config.getTimeout()));
+        String apiKey = config.getApiKey();
+        if (apiKey != null && !apiKey.isEmpty()) {
+            builder.header("X-API-Key", apiKey);
+        }
+        return builder.buildAsync(URI.create(url), listener);
+    }
+    
+    /**
+     * Replace the cached status of a player with one pushed by the backend
+     * @param username Player's username
+     * @param status New status, or null if the player was deleted
+     */
+    public void applyPushedStatus(String username, String status) {
+        WhitelistStatus pushed = new WhitelistStatus();
+        pushed.setUsername(username);
+        pushed.setStatus(status != null ? status : "not_registered");
+        pushed.setFound(status != null);
+        if (config.isCacheEnabled()) {
+            statusCache.put(username.toLowerCase(),
+                new CachedStatus(pushed, System.currentTimeMillis(), clock.incrementAndGet(), config));
+            cacheDirty = true;
+        }
+        if (config.isDebug()) {
+            logger.info("[DEBUG] Pushed status for " + username + ": " + pushed.getStatus());
+        }
+    }
+    
+    private HttpRequest.Builder newRequest(String url) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+            .timeout(Duration.ofMillis(config.getTimeout()))
+            .header("Accept", "application/json");
+        
+        // Add API key header if configured
+        String apiKey = config.getApiKey();
+        if (apiKey != null && !apiKey.isEmpty()) {
+            builder.header("X-API-Key", apiKey);
+        }
+        return builder;
+    }
+    
+    private WhitelistStatus parseSingle(HttpResponse<String> response) {
+        if (response.statusCode() != 200) {
+            logger.warning("API returned status code: " + response.statusCode());
+            return null;
+        }
+        
+        if (config.isDebug()) {
+            logger.info("[DEBUG] API Response: " + response.body());
+        }
+        
+        // Parse response
+        JsonObject json = JsonParser.parseString(response.body()).getAsJsonObject();
+        WhitelistStatus status = new WhitelistStatus();
+        
+        if (json.has("status") && !json.get("status").isJsonNull()) {
+            status.setStatus(json.get("status").getAsString());
+        }
+        if (json.has("username") && !json.get("username").isJsonNull()) {
+            status.setUsername(json.get("username").getAsString());
+        }
+        
+        if (json.has("success") && json.get("success").getAsBoolean()) {
+            // New protocol: backend returns explicit found field.
+            if (json.has("found") && !json.get("found").isJsonNull()) {
+                status.setFound(json.get("found").getAsBoolean());
             } else {
-                logger.warning("API returned status code: " + responseCode);
-                return null;
+                // Backward compatibility with old protocol.
+                // If status is present and not "not_registered", conservatively infer found=true.
+                // Otherwise, explicitly mark as not found.
+                String responseStatus = status.getStatus();
+                status.setFound(responseStatus != null && !"not_registered".equalsIgnoreCase(responseStatus));
             }
-            
-        } catch (Exception e) {
-            logger.warning("Failed to check whitelist: " + e.getMessage());
-            return null;
+        } else {
+            // success=false (or missing) should always be treated as not found.
+            status.setFound(false);
+        }
+        return status;
+    }
+    
+    /**
+     * Caches the answer of a lookup started at {@code startedAt}, unless a
+     * status was pushed since then.
+     * @return the status now cached for the player (the fetched one when caching is off)
+     */
+    private WhitelistStatus rememberFetched(String key, WhitelistStatus status, long startedAt) {
+        if (!config.isCacheEnabled()) {
+            return status;
+        }
+        CachedStatus current = statusCache.compute(key, (k, cached) -> cached != null && cached.pushedAt > startedAt
+            ? cached
+            : new CachedStatus(status, System.currentTimeMillis(), 0L, config));
+        cacheDirty = true;
+        if (current.status != status && config.isDebug()) {
+            logger.info("[DEBUG] Keeping status pushed during lookup for: " + key);
         }
+        return current.status;
     }
     
     /**
-     * Start background thread to clean up expired cache entries
+     * Start background thread to clean up expired cache entries and save the snapshot
      */
     private void startCacheCleanup() {
         Thread cleanupThread = new Thread(() -> {
@@ -143,7 +409,12 @@ public class ApiClient {
                     Thread.sleep(60000); // Clean every minute
                     
                     long now = System.currentTimeMillis();
-                    statusCache.entrySet().removeIf(entry -> entry.getValue().isExpired());
+                    if (statusCache.entrySet().removeIf(entry -> !entry.getValue().isUsable(now))) {
+                        cacheDirty = true;
+                    }
+                    if (config.isCachePersist() && cacheDirty) {
+                        saveSnapshot();
+                    }
                     
                     if (config.isDebug()) {
                         logger.info("[DEBUG] Cache cleanup completed. Cache size: " + statusCache.size());
@@ -158,11 +429,75 @@ public class ApiClient {
         cleanupThread.start();
     }
     
+    /**
+     * Save the cache snapshot; call on proxy shutdown
+     */
+    public void shutdown() {
+        backends.shutdown();
+        if (config.isCacheEnabled() && config.isCachePersist() && cacheDirty) {
+            saveSnapshot();
+        }
+    }
+    
+    private synchronized void saveSnapshot() {
+        cacheDirty = false;
+        JsonObject root = new JsonObject();
+        statusCache.forEach((key, cached) -> {
+            JsonObject entry = new JsonObject();
+            entry.addProperty("username", cached.status.getUsername());
+            entry.addProperty("status", cached.status.getStatus());
+            entry.addProperty("found", cached.status.isFound());
+            entry.addProperty("fetchedAt", cached.fetchedAt);
+            root.add(key, entry);
+        });
+        try {
+            Path temp = snapshotPath.resolveSibling(SNAPSHOT_FILE + ".tmp");
+            Files.writeString(temp, gson.toJson(root), StandardCharsets.UTF_8);
+            try {
+                Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            cacheDirty = true;
+            logger.warning("Failed to save whitelist cache: " + e.getMessage());
+        }
+    }
+    
+    private void loadSnapshot() {
+        if (!Files.exists(snapshotPath)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        try (Reader reader = Files.newBufferedReader(snapshotPath, StandardCharsets.UTF_8)) {
+            JsonObject root = JsonParser.parseReader(reader).getAsJsonObject();
+            for (Map.Entry<String, JsonElement> entry : root.entrySet()) {
+                JsonObject json = entry.getValue().getAsJsonObject();
+                WhitelistStatus status = new WhitelistStatus();
+                if (json.has("username") && !json.get("username").isJsonNull()) {
+                    status.setUsername(json.get("username").getAsString());
+                }
+                if (json.has("status") && !json.get("status").isJsonNull()) {
+                    status.setStatus(json.get("status").getAsString());
+                }
+                status.setFound(json.has("found") && json.get("found").getAsBoolean());
+                CachedStatus cached = new CachedStatus(status, json.get("fetchedAt").getAsLong(), 0L, config);
+                if (cached.isUsable(now)) {
+                    statusCache.put(entry.getKey(), cached);
+                }
+            }
+            logger.info("[VerifyMC-Proxy] Loaded " + statusCache.size() + " cached whitelist statuses.");
+        } catch (Exception e) {
+            logger.warning("Failed to load whitelist cache: " + e.getMessage());
+        }
+    }
+    
     /**
      * Clear the cache
      */
     public void clearCache() {
         statusCache.clear();
+        cacheDirty = true;
     }
     
     /**
@@ -206,19 +541,41 @@ public class ApiClient {
     }
     
     /**
-     * Cache entry with expiration
+     * Cache entry with fresh and stale deadlines
      */
     private static class CachedStatus {
         final WhitelistStatus status;
-        final long expireTime;
+        final long fetchedAt;
+        // Clock value when the status was pushed, 0 for fetched or loaded entries
+        final long pushedAt;
+        final long freshUntil;
+        final long staleUntil;
         
-        CachedStatus(WhitelistStatus status, int expireSeconds) {
+        CachedStatus(WhitelistStatus status, long fetchedAt, long pushedAt, ProxyConfig config) {
             this.status = status;
-            this.expireTime = System.currentTimeMillis() + (expireSeconds * 1000L);
+            this.fetchedAt = fetchedAt;
+            this.pushedAt = pushedAt;
+            int expireSeconds = status.isFound() ? config.getCacheExpireSeconds() : config.getCacheNegativeExpireSeconds();
+            this.freshUntil = fetchedAt + expireSeconds * 1000L;
+            this.staleUntil = freshUntil + config.getCacheStaleSeconds() * 1000L;
         }
         
-        boolean isExpired() {
-            return System.currentTimeMillis() > expireTime;
+        boolean isFresh(long now) {
+            return now <= freshUntil;
+        }
+        
+        /**
+         * Stale but may still be answered while a refresh runs
+         */
+        boolean isServableStale(long now) {
+            return status.isFound() && now <= staleUntil;
+        }
+        
+        /**
+         * May still be used when the backend cannot be reached
+         */
+        boolean isUsable(long now) {
+            return now <= staleUntil;
         }
     }
 }
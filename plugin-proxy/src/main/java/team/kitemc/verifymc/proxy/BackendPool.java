@@ -0,0 +1,326 @@
+package team.kitemc.verifymc.proxy;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * The VerifyMC backends requests are spread over ({@code backends}, or just
+ * {@code backend_url})
+ * <p>
+ * Each request goes to the better of two randomly picked backends, scored by
+ * latency (EWMA) times requests in flight. A backend that fails
+ * {@code backend_pool.failure_threshold} requests in a row is left out for
+ * {@code backend_pool.open_seconds}, then let back in after one successful
+ * trial request or health probe. A failed request is retried on another
+ * backend, and a request still unanswered after
+ * {@code backend_pool.hedge_after_ms} is also sent to a second backend;
+ * the first answer wins. Every backend is probed every
+ * {@code backend_pool.health_interval_ms}, so an idle backend's health and
+ * latency are known before logins depend on it.
+ * <p>
+ * Only a 2xx answer counts as a success. 5xx answers, I/O errors and
+ * 401/403/429 (a backend rejecting this proxy's API key, or throttling it)
+ * count as failures and are retried on another backend. Other 4xx answers
+ * mean the request itself is wrong, so they are returned as they are and
+ * leave the backend's health unchanged.
+ * <p>
+ * Only idempotent lookups go through the pool, so retries and hedges are safe.
+ */
+public class BackendPool {
+    private static final double EWMA_ALPHA = 0.3;
+    private static final int MAX_ATTEMPTS = 3;
+
+    private enum Outcome { SUCCESS, FAILURE, CLIENT_ERROR }
+
+    private final HttpClient http;
+    private final ProxyConfig config;
+    private final Logger logger;
+    private final Function<String, HttpRequest> probe;
+    private final List<Backend> backends = new ArrayList<>();
+    private final ScheduledExecutorService scheduler;
+    // Backend the replica follows, kept while it stays healthy
+    private volatile Backend pinned;
+
+    /**
+     * @param probe Builds the health probe request for a backend base URL
+     */
+    public BackendPool(HttpClient http, ProxyConfig config, Logger logger, Function<String, HttpRequest> probe) {
+        this.http = http;
+        this.config = config;
+        this.logger = logger;
+        this.probe = probe;
+        for (String url : config.getBackendUrls()) {
+            backends.add(new Backend(url));
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "VerifyMC-Backends");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(500, config.getBackendHealthIntervalMs());
+        scheduler.scheduleWithFixedDelay(this::probeAll, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Send a request with failover and hedging
+     * @param requestFor Builds the request for a backend base URL
+     * @return Future of the first 2xx (or non-retryable 4xx) response; if every
+     *         attempt fails, of the last failed response, or completes exceptionally
+     */
+    public CompletableFuture<HttpResponse<String>> send(Function<String, HttpRequest> requestFor) {
+        Call call = new Call(requestFor);
+        if (!call.launch()) {
+            return CompletableFuture.failedFuture(new IOException("No backend available"));
+        }
+        long hedgeAfter = config.getBackendHedgeAfterMs();
+        if (hedgeAfter > 0 && backends.size() > 1) {
+            scheduler.schedule(call::launch, hedgeAfter, TimeUnit.MILLISECONDS);
+        }
+        return call.result;
+    }
+
+    /**
+     * Send a request to the same backend as the previous pinned request while
+     * it stays healthy, for state that differs between backends (the
+     * replica's epoch and sequence). No retries or hedging.
+     */
+    public CompletableFuture<HttpResponse<String>> sendPinned(Function<String, HttpRequest> requestFor) {
+        Backend backend = pinned;
+        if (backend == null || !backend.isClosed()) {
+            backend = choose(List.of());
+            pinned = backend;
+        }
+        if (backend == null) {
+            return CompletableFuture.failedFuture(new IOException("No backend available"));
+        }
+        return execute(backend, requestFor);
+    }
+
+    private Backend choose(List<Backend> exclude) {
+        long now = System.currentTimeMillis();
+        List<Backend> healthy = new ArrayList<>(backends.size());
+        for (Backend backend : backends) {
+            if (exclude.contains(backend)) {
+                continue;
+            }
+            if (backend.isClosed()) {
+                healthy.add(backend);
+            } else if (backend.tryTrial(now)) {
+                return backend;
+            }
+        }
+        if (healthy.size() <= 1) {
+            return healthy.isEmpty() ? null : healthy.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int i = random.nextInt(healthy.size());
+        int j = random.nextInt(healthy.size() - 1);
+        if (j >= i) {
+            j++;
+        }
+        Backend a = healthy.get(i);
+        Backend b = healthy.get(j);
+        return a.score() <= b.score() ? a : b;
+    }
+
+    private CompletableFuture<HttpResponse<String>> execute(Backend backend, Function<String, HttpRequest> requestFor) {
+        long start = System.nanoTime();
+        backend.inFlight.incrementAndGet();
+        CompletableFuture<HttpResponse<String>> sent;
+        try {
+            sent = http.sendAsync(requestFor.apply(backend.url), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            sent = CompletableFuture.failedFuture(e);
+        }
+        return sent.whenComplete((response, error) -> {
+            backend.inFlight.decrementAndGet();
+            long latencyMs = (System.nanoTime() - start) / 1_000_000L;
+            switch (outcome(response, error)) {
+                case SUCCESS -> backend.succeeded(latencyMs);
+                case FAILURE -> backend.failed(latencyMs, error != null ? error.getMessage() : "HTTP " + response.statusCode());
+                case CLIENT_ERROR -> backend.answered(latencyMs);
+            }
+        });
+    }
+
+    private static Outcome outcome(HttpResponse<String> response, Throwable error) {
+        if (error != null) {
+            return Outcome.FAILURE;
+        }
+        int status = response.statusCode();
+        if (status >= 200 && status < 300) {
+            return Outcome.SUCCESS;
+        }
+        if (status >= 500 || status == 401 || status == 403 || status == 429 || status < 200) {
+            return Outcome.FAILURE;
+        }
+        return Outcome.CLIENT_ERROR;
+    }
+
+    private void probeAll() {
+        for (Backend backend : backends) {
+            execute(backend, probe);
+        }
+    }
+
+    /**
+     * One logical request and its attempts on different backends
+     */
+    private final class Call {
+        private final Function<String, HttpRequest> requestFor;
+        private final CompletableFuture<HttpResponse<String>> result = new CompletableFuture<>();
+        private final List<Backend> tried = new ArrayList<>();
+        private int outstanding;
+        private HttpResponse<String> lastResponse;
+        private Throwable lastError;
+
+        Call(Function<String, HttpRequest> requestFor) {
+            this.requestFor = requestFor;
+        }
+
+        /**
+         * Start an attempt on a backend not tried yet
+         * @return false if the call is done or no backend is left
+         */
+        boolean launch() {
+            Backend backend;
+            synchronized (this) {
+                if (result.isDone() || tried.size() >= MAX_ATTEMPTS) {
+                    return false;
+                }
+                backend = choose(tried);
+                if (backend == null) {
+                    return false;
+                }
+                tried.add(backend);
+                outstanding++;
+            }
+            execute(backend, requestFor).whenComplete((response, error) -> {
+                if (outcome(response, error) != Outcome.FAILURE) {
+                    result.complete(response);
+                } else {
+                    attemptFailed(response, error);
+                }
+            });
+            return true;
+        }
+
+        private void attemptFailed(HttpResponse<String> response, Throwable error) {
+            synchronized (this) {
+                outstanding--;
+                if (response != null) {
+                    lastResponse = response;
+                }
+                if (error != null) {
+                    lastError = error;
+                }
+            }
+            if (result.isDone() || launch()) {
+                return;
+            }
+            synchronized (this) {
+                if (outstanding > 0) {
+                    return;
+                }
+            }
+            if (lastResponse != null) {
+                result.complete(lastResponse);
+            } else {
+                result.completeExceptionally(lastError != null ? lastError : new IOException("No backend available"));
+            }
+        }
+    }
+
+    /**
+     * A backend with its latency estimate and circuit state
+     */
+    private final class Backend {
+        private final String url;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicBoolean trial = new AtomicBoolean();
+        private volatile double ewmaMs = -1;
+        private int failures;
+        // 0 while closed; otherwise when a trial request may be let through
+        private volatile long openUntil;
+
+        Backend(String url) {
+            this.url = url;
+        }
+
+        boolean isClosed() {
+            return openUntil == 0;
+        }
+
+        boolean tryTrial(long now) {
+            return openUntil != 0 && now >= openUntil && trial.compareAndSet(false, true);
+        }
+
+        double score() {
+            return Math.max(1, ewmaMs) * (inFlight.get() + 1);
+        }
+
+        void succeeded(long latencyMs) {
+            observe(latencyMs);
+            boolean recovered;
+            synchronized (this) {
+                failures = 0;
+                recovered = openUntil != 0;
+                openUntil = 0;
+                trial.set(false);
+            }
+            if (recovered) {
+                logger.info("[VerifyMC-Proxy] Backend " + url + " is available again");
+            }
+        }
+
+        /**
+         * A 4xx answer to a bad request: neither healthy nor failing, but a trial is over
+         */
+        void answered(long latencyMs) {
+            observe(latencyMs);
+            trial.set(false);
+        }
+
+        void failed(long latencyMs, String reason) {
+            observe(latencyMs);
+            boolean opened;
+            synchronized (this) {
+                failures++;
+                opened = openUntil == 0 && failures >= Math.max(1, config.getBackendFailureThreshold());
+                if (opened || openUntil != 0) {
+                    openUntil = System.currentTimeMillis() + config.getBackendOpenSeconds() * 1000L;
+                }
+                trial.set(false);
+            }
+            if (opened) {
+                logger.warning("Backend " + url + " failed " + failures + " times, skipping it for "
+                    + config.getBackendOpenSeconds() + "s: " + reason);
+            } else if (config.isDebug()) {
+                logger.info("[DEBUG] Backend " + url + " request failed: " + reason);
+            }
+        }
+
+        private void observe(long latencyMs) {
+            double current = ewmaMs;
+            ewmaMs = current < 0 ? latencyMs : current + EWMA_ALPHA * (latencyMs - current);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package team.kitemc.verifymc.proxy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Decides whether a joining player may log in, without blocking the caller
+ * <p>
+ * Answers from the {@link WhitelistReplica} when it has loaded, otherwise
+ * from an asynchronous {@link ApiClient} lookup. A lookup that fails or does
+ * not finish within {@code login.deadline_ms} is decided by
+ * {@code login.fail_policy}.
+ */
+public class LoginGate {
+    /**
+     * @param allowed whether the login may proceed
+     * @param reason status the decision is based on, "replica", or "timeout"/"error" for the fail policy
+     */
+    public record Decision(boolean allowed, String reason) {
+    }
+
+    private static final Decision TIMED_OUT = new Decision(false, "timeout");
+
+    private final ApiClient apiClient;
+    private final WhitelistReplica replica;
+    private final ProxyConfig config;
+    private final Logger logger;
+
+    /**
+     * @param replica Replica to answer from, or null if the replica is disabled
+     */
+    public LoginGate(ApiClient apiClient, WhitelistReplica replica, ProxyConfig config, Logger logger) {
+        this.apiClient = apiClient;
+        this.replica = replica;
+        this.config = config;
+        this.logger = logger;
+    }
+
+    /**
+     * @param username Player's username
+     * @return Future of the decision; never completes exceptionally
+     */
+    public CompletableFuture<Decision> check(String username) {
+        Boolean replicated = replica != null ? replica.isApproved(username) : null;
+        if (replicated != null) {
+            return CompletableFuture.completedFuture(new Decision(replicated, "replica"));
+        }
+        // handle() gives this login its own future, so the deadline does not complete a shared lookup
+        return apiClient.checkWhitelistAsync(username)
+            .handle((status, e) -> status != null ? new Decision(status.isApproved(), status.getStatus()) : null)
+            .completeOnTimeout(TIMED_OUT, Math.max(1, config.getLoginDeadlineMs()), TimeUnit.MILLISECONDS)
+            .thenApply(decision -> decision == null ? failed(username, "error")
+                : decision == TIMED_OUT ? failed(username, "timeout") : decision);
+    }
+
+    private Decision failed(String username, String reason) {
+        boolean open = config.isLoginFailOpen();
+        logger.warning("Whitelist check " + (reason.equals("timeout") ? "timed out" : "failed") + " for "
+            + username + ", " + (open ? "allowing" : "denying") + " login (fail_policy: " + (open ? "open" : "closed") + ")");
+        return new Decision(open, reason);
+    }
+}
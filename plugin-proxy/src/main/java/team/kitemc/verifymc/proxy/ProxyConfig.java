@@ -3,6 +3,8 @@ package team.kitemc.verifymc.proxy;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 import org.yaml.snakeyaml.Yaml;
 import java.util.Map;
@@ -16,6 +18,11 @@ public class ProxyConfig {
     
     // Configuration values
     private String backendUrl = "http://localhost:8080";
+    private List<String> backendUrls = new ArrayList<>();
+    private int backendHealthIntervalMs = 5000;
+    private int backendFailureThreshold = 3;
+    private int backendOpenSeconds = 10;
+    private int backendHedgeAfterMs = 250;
     private String apiKey = "";
     private String kickMessage = "&c[ VerifyMC ]\\n&7Please visit &a{url} &7to register";
     private String registerUrl = "https://yourdomain.com/";
@@ -23,6 +30,15 @@ public class ProxyConfig {
     private int timeout = 5000;
     private boolean cacheEnabled = true;
     private int cacheExpireSeconds = 60;
+    private int cacheStaleSeconds = 3600;
+    private int cacheNegativeExpireSeconds = 10;
+    private boolean cachePersist = true;
+    private boolean replicaEnabled = true;
+    private int replicaPollIntervalMs = 2000;
+    private boolean pushEnabled = true;
+    private String pushWsUrl = "ws://localhost:8081";
+    private int loginDeadlineMs = 3000;
+    private String loginFailPolicy = "closed";
     private boolean autoUpdateConfig = true;
     private boolean autoUpdateI18n = true;
     private boolean backupOnUpdate = true;
@@ -63,6 +79,82 @@ public class ProxyConfig {
                     if (expireObj instanceof Number) {
                         cacheExpireSeconds = ((Number) expireObj).intValue();
                     }
+                    Object staleObj = cacheMap.get("stale_seconds");
+                    if (staleObj instanceof Number) {
+                        cacheStaleSeconds = ((Number) staleObj).intValue();
+                    }
+                    Object negativeObj = cacheMap.get("negative_expire_seconds");
+                    if (negativeObj instanceof Number) {
+                        cacheNegativeExpireSeconds = ((Number) negativeObj).intValue();
+                    }
+                    if (cacheMap.get("persist") instanceof Boolean) {
+                        cachePersist = (Boolean) cacheMap.get("persist");
+                    }
+                }
+                
+                // Load backend list and pool settings
+                Object backendsObj = config.get("backends");
+                if (backendsObj instanceof List) {
+                    backendUrls = new ArrayList<>();
+                    for (Object url : (List<Object>) backendsObj) {
+                        if (url != null && !url.toString().isBlank()) {
+                            backendUrls.add(url.toString());
+                        }
+                    }
+                }
+                Object poolObj = config.get("backend_pool");
+                if (poolObj instanceof Map) {
+                    Map<String, Object> poolMap = (Map<String, Object>) poolObj;
+                    if (poolMap.get("health_interval_ms") instanceof Number) {
+                        backendHealthIntervalMs = ((Number) poolMap.get("health_interval_ms")).intValue();
+                    }
+                    if (poolMap.get("failure_threshold") instanceof Number) {
+                        backendFailureThreshold = ((Number) poolMap.get("failure_threshold")).intValue();
+                    }
+                    if (poolMap.get("open_seconds") instanceof Number) {
+                        backendOpenSeconds = ((Number) poolMap.get("open_seconds")).intValue();
+                    }
+                    if (poolMap.get("hedge_after_ms") instanceof Number) {
+                        backendHedgeAfterMs = ((Number) poolMap.get("hedge_after_ms")).intValue();
+                    }
+                }
+                
+                // Load replica settings
+                Object replicaObj = config.get("replica");
+                if (replicaObj instanceof Map) {
+                    Map<String, Object> replicaMap = (Map<String, Object>) replicaObj;
+                    if (replicaMap.get("enabled") instanceof Boolean) {
+                        replicaEnabled = (Boolean) replicaMap.get("enabled");
+                    }
+                    Object pollObj = replicaMap.get("poll_interval_ms");
+                    if (pollObj instanceof Number) {
+                        replicaPollIntervalMs = ((Number) pollObj).intValue();
+                    }
+                }
+                
+                // Load push settings
+                Object pushObj = config.get("push");
+                if (pushObj instanceof Map) {
+                    Map<String, Object> pushMap = (Map<String, Object>) pushObj;
+                    if (pushMap.get("enabled") instanceof Boolean) {
+                        pushEnabled = (Boolean) pushMap.get("enabled");
+                    }
+                    if (pushMap.get("ws_url") instanceof String) {
+                        pushWsUrl = (String) pushMap.get("ws_url");
+                    }
+                }
+                
+                // Load login settings
+                Object loginObj = config.get("login");
+                if (loginObj instanceof Map) {
+                    Map<String, Object> loginMap = (Map<String, Object>) loginObj;
+                    Object deadlineObj = loginMap.get("deadline_ms");
+                    if (deadlineObj instanceof Number) {
+                        loginDeadlineMs = ((Number) deadlineObj).intValue();
+                    }
+                    if (loginMap.get("fail_policy") instanceof String) {
+                        loginFailPolicy = (String) loginMap.get("fail_policy");
+                    }
                 }
                 
                 // Load auto-update settings
@@ -114,6 +206,29 @@ public class ProxyConfig {
         return backendUrl;
     }
     
+    /**
+     * Backend base URLs: the {@code backends} list, or {@code backend_url} if it is empty
+     */
+    public List<String> getBackendUrls() {
+        return backendUrls.isEmpty() ? List.of(backendUrl) : backendUrls;
+    }
+    
+    public int getBackendHealthIntervalMs() {
+        return backendHealthIntervalMs;
+    }
+    
+    public int getBackendFailureThreshold() {
+        return backendFailureThreshold;
+    }
+    
+    public int getBackendOpenSeconds() {
+        return backendOpenSeconds;
+    }
+    
+    public int getBackendHedgeAfterMs() {
+        return backendHedgeAfterMs;
+    }
+    
     public String getApiKey() {
         return apiKey;
     }
@@ -142,6 +257,45 @@ public class ProxyConfig {
         return cacheExpireSeconds;
     }
     
+    public int getCacheStaleSeconds() {
+        return cacheStaleSeconds;
+    }
+    
+    public int getCacheNegativeExpireSeconds() {
+        return cacheNegativeExpireSeconds;
+    }
+    
+    public boolean isCachePersist() {
+        return cachePersist;
+    }
+    
+    public boolean isReplicaEnabled() {
+        return replicaEnabled;
+    }
+    
+    public int getReplicaPollIntervalMs() {
+        return replicaPollIntervalMs;
+    }
+    
+    public boolean isPushEnabled() {
+        return pushEnabled;
+    }
+    
+    public String getPushWsUrl() {
+        return pushWsUrl;
+    }
+    
+    public int getLoginDeadlineMs() {
+        return loginDeadlineMs;
+    }
+    
+    /**
+     * Whether players are let in when their status cannot be determined in time
+     */
+    public boolean isLoginFailOpen() {
+        return "open".equalsIgnoreCase(loginFailPolicy);
+    }
+    
     public boolean isAutoUpdateConfig() {
         return autoUpdateConfig;
     }
@@ -20,6 +20,9 @@ import java.util.logging.Level;
 public class VerifyMCProxy extends Plugin implements Listener {
     private ProxyConfig config;
     private ApiClient apiClient;
+    private WhitelistReplica replica;
+    private WhitelistEventStream eventStream;
+    private LoginGate loginGate;
     private ProxyVersionCheckService versionCheckService;
     private ProxyResourceUpdater resourceUpdater;
     
@@ -30,7 +33,21 @@ public class VerifyMCProxy extends Plugin implements Listener {
         config = new ProxyConfig(getDataFolder());
         
         // Initialize API client
-        apiClient = new ApiClient(config, getLogger());
+        apiClient = new ApiClient(config, getLogger(), getDataFolder());
+        
+        // Keep a local copy of the approved players
+        if (config.isReplicaEnabled()) {
+            replica = new WhitelistReplica(apiClient, config, getLogger());
+            replica.start();
+        }
+        
+        // Receive status changes as they happen
+        if (config.isPushEnabled()) {
+            eventStream = new WhitelistEventStream(apiClient, replica, config, getLogger());
+            eventStream.start();
+        }
+        
+        loginGate = new LoginGate(apiClient, replica, config, getLogger());
         
         // Initialize version check service
         String version = getDescription().getVersion();
@@ -49,7 +66,7 @@ public class VerifyMCProxy extends Plugin implements Listener {
         getProxy().getPluginManager().registerListener(this, this);
         
         getLogger().info("[VerifyMC-Proxy] Plugin enabled!");
-        getLogger().info("[VerifyMC-Proxy] Backend API: " + config.getBackendUrl());
+        getLogger().info("[VerifyMC-Proxy] Backend API: " + String.join(", ", config.getBackendUrls()));
     }
     
     /**
@@ -73,6 +90,15 @@ public class VerifyMCProxy extends Plugin implements Listener {
     
     @Override
     public void onDisable() {
+        if (eventStream != null) {
+            eventStream.stop();
+        }
+        if (replica != null) {
+            replica.stop();
+        }
+        if (apiClient != null) {
+            apiClient.shutdown();
+        }
         getLogger().info("[VerifyMC-Proxy] Plugin disabled!");
     }
     
@@ -97,7 +123,17 @@ public class VerifyMCProxy extends Plugin implements Listener {
                         # Backend server URL (where the main VerifyMC plugin is running)
                         backend_url: "http://localhost:8080"
                         
-                        # API key for authentication (optional, set in main plugin config)
+                        # Several backends sharing one MySQL database (optional), replaces backend_url
+                        backends: []
+                        
+                        # Backend pool settings
+                        backend_pool:
+                          health_interval_ms: 5000
+                          failure_threshold: 3
+                          open_seconds: 10
+                          hedge_after_ms: 250
+                        
+                        # API key for authentication (must match proxy_api.api_key in the backend config)
                         api_key: ""
                         
                         # Kick message for unregistered players
@@ -116,6 +152,24 @@ public class VerifyMCProxy extends Plugin implements Listener {
                         cache:
                           enabled: true
                           expire_seconds: 60
+                          stale_seconds: 3600
+                          negative_expire_seconds: 10
+                          persist: true
+                        
+                        # Local replica of the approved-player set
+                        replica:
+                          enabled: true
+                          poll_interval_ms: 2000
+                        
+                        # Status change push from the backend (its ws_port)
+                        push:
+                          enabled: true
+                          ws_url: "ws://localhost:8081"
+                        
+                        # Login check settings (fail_policy: closed or open)
+                        login:
+                          deadline_ms: 3000
+                          fail_policy: closed
                         """;
                     Files.writeString(configFile.toPath(), defaultConfig);
                 }
@@ -127,7 +181,8 @@ public class VerifyMCProxy extends Plugin implements Listener {
     
     /**
      * Handle player login event
-     * Check if player is registered in VerifyMC backend
+     * Check if player is registered in VerifyMC backend; the login is held
+     * with an intent until the check completes, without blocking the event thread
      */
     @EventHandler(priority = EventPriority.HIGHEST)
     public void onPreLogin(PreLoginEvent event) {
@@ -141,33 +196,32 @@ public class VerifyMCProxy extends Plugin implements Listener {
             getLogger().info("[DEBUG] PreLogin check for: " + playerName);
         }
         
-        try {
-            // Check if player is approved
-            ApiClient.WhitelistStatus status = apiClient.checkWhitelist(playerName);
-            
-            if (status == null || !status.isApproved()) {
-                // Player not approved, cancel login
-                String kickMessage = config.getKickMessage()
-                    .replace("{url}", config.getRegisterUrl())
-                    .replace("&", "§");
-                
-                event.setCancelled(true);
-                event.setCancelReason(new TextComponent(kickMessage));
-                
-                if (config.isDebug()) {
-                    getLogger().info("[DEBUG] Blocked player: " + playerName + " (not approved)");
-                }
-            } else {
-                if (config.isDebug()) {
-                    getLogger().info("[DEBUG] Allowed player: " + playerName + " (status: " + status.getStatus() + ")");
+        event.registerIntent(this);
+        loginGate.check(playerName).whenComplete((decision, e) -> {
+            try {
+                if (!decision.allowed()) {
+                    // Player not approved, cancel login
+                    String kickMessage = config.getKickMessage()
+                        .replace("{url}", config.getRegisterUrl())
+                        .replace("&", "§");
+                    
+                    event.setCancelled(true);
+                    event.setCancelReason(new TextComponent(kickMessage));
+                    
+                    if (config.isDebug()) {
+                        getLogger().info("[DEBUG] Blocked player: " + playerName + " (status: " + decision.reason() + ")");
+                    }
+                } else {
+                    if (config.isDebug()) {
+                        getLogger().info("[DEBUG] Allowed player: " + playerName + " (status: " + decision.reason() + ")");
+                    }
                 }
+            } catch (Exception ex) {
+                getLogger().log(Level.WARNING, "Failed to check whitelist for " + playerName, ex);
+            } finally {
+                event.completeIntent(this);
             }
-        } catch (Exception e) {
-            getLogger().log(Level.WARNING, "Failed to check whitelist for " + playerName, e);
-            
-            // On error, allow login by default (fail-open) to prevent lockout
-            // Can be changed to fail-close if needed
-        }
+        });
     }
 }
 
@@ -0,0 +1,159 @@
+package team.kitemc.verifymc.proxy;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.net.http.WebSocket;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Subscription to the backend's user status changes
+ * <p>
+ * Connects to the backend WebSocket server ({@code push.ws_url}) with the API
+ * key and applies each {@code user_status} event to the {@link ApiClient}
+ * cache and the {@link WhitelistReplica}. Reconnects with backoff when the
+ * connection drops; after each (re)connect the replica is synced, so changes
+ * made while disconnected are not missed.
+ */
+public class WhitelistEventStream implements WebSocket.Listener {
+    private static final long MIN_BACKOFF_MS = 1000;
+    private static final long MAX_BACKOFF_MS = 30000;
+
+    private final ApiClient apiClient;
+    private final WhitelistReplica replica;
+    private final ProxyConfig config;
+    private final Logger logger;
+
+    private final StringBuilder buffer = new StringBuilder();
+    private ScheduledExecutorService scheduler;
+    private volatile WebSocket socket;
+    private volatile boolean running;
+    private long backoffMs = MIN_BACKOFF_MS;
+
+    /**
+     * @param replica Replica to keep current, or null if the replica is disabled
+     */
+    public WhitelistEventStream(ApiClient apiClient, WhitelistReplica replica, ProxyConfig config, Logger logger) {
+        this.apiClient = apiClient;
+        this.replica = replica;
+        this.config = config;
+        this.logger = logger;
+    }
+
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "VerifyMC-Push");
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        scheduler.execute(this::connect);
+    }
+
+    public void stop() {
+        running = false;
+        WebSocket current = socket;
+        if (current != null) {
+            current.abort();
+        }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void connect() {
+        if (!running) {
+            return;
+        }
+        apiClient.openWebSocket(config.getPushWsUrl(), this).whenComplete((ws, e) -> {
+            if (e != null) {
+                if (config.isDebug()) {
+                    logger.warning("[DEBUG] Push connection failed: " + e.getMessage());
+                }
+                reconnect();
+            }
+        });
+    }
+
+    private synchronized void reconnect() {
+        socket = null;
+        if (!running || scheduler.isShutdown()) {
+            return;
+        }
+        scheduler.schedule(this::connect, backoffMs, TimeUnit.MILLISECONDS);
+        backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+    }
+
+    @Override
+    public void onOpen(WebSocket webSocket) {
+        synchronized (this) {
+            socket = webSocket;
+            backoffMs = MIN_BACKOFF_MS;
+        }
+        if (config.isDebug()) {
+            logger.info("[DEBUG] Subscribed to status changes at " + config.getPushWsUrl());
+        }
+        if (replica != null) {
+            replica.requestSync();
+        }
+        webSocket.request(1);
+    }
+
+    @Override
+    public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+        buffer.append(data);
+        if (last) {
+            String message = buffer.toString();
+            buffer.setLength(0);
+            try {
+                handle(message);
+            } catch (Exception e) {
+                logger.warning("Failed to handle status change: " + e.getMessage());
+            }
+        }
+        webSocket.request(1);
+        return null;
+    }
+
+    @Override
+    public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+        if (config.isDebug()) {
+            logger.info("[DEBUG] Push connection closed: " + statusCode + " " + reason);
+        }
+        buffer.setLength(0);
+        reconnect();
+        return null;
+    }
+
+    @Override
+    public void onError(WebSocket webSocket, Throwable error) {
+        if (config.isDebug()) {
+            logger.warning("[DEBUG] Push connection error: " + error.getMessage());
+        }
+        buffer.setLength(0);
+        reconnect();
+    }
+
+    private void handle(String message) {
+        JsonObject json = JsonParser.parseString(message).getAsJsonObject();
+        if (!json.has("type") || !"user_status".equals(json.get("type").getAsString())) {
+            return;
+        }
+        String username = json.get("username").getAsString();
+        JsonElement statusElement = json.get("status");
+        String status = statusElement == null || statusElement.isJsonNull() ? null : statusElement.getAsString();
+
+        if (config.isCacheEnabled()) {
+            apiClient.applyPushedStatus(username, status);
+        }
+        if (replica != null) {
+            replica.applyPush(json.get("epoch").getAsString(), json.get("seq").getAsLong(),
+                username, "approved".equalsIgnoreCase(status));
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package team.kitemc.verifymc.proxy;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Local copy of the backend's approved-player set
+ * <p>
+ * Loaded from {@code /api/whitelist/snapshot}, then kept current by polling
+ * {@code /api/whitelist/changes} with the last seen sequence. When the
+ * backend reports a reset (it restarted, or the replica fell too far behind)
+ * the snapshot is loaded again. While the backend is unreachable the last
+ * known set keeps answering.
+ * <p>
+ * Changes pushed by {@link WhitelistEventStream} are applied straight away
+ * when they follow on from the current sequence; anything else (a gap, or a
+ * new epoch) triggers an immediate sync instead.
+ * <p>
+ * The replica follows one backend. When several backends share MySQL, each
+ * polls the database for the others' writes, so a change made elsewhere shows
+ * up here after that backend's {@code index_poll_seconds} plus the poll or
+ * push delay; a deletion made elsewhere only after its
+ * {@code index_refresh_seconds}.
+ */
+public class WhitelistReplica {
+    private final ApiClient apiClient;
+    private final ProxyConfig config;
+    private final Logger logger;
+
+    // Lower-cased approved usernames
+    private volatile Set<String> approved = ConcurrentHashMap.newKeySet();
+    private volatile String epoch;
+    private volatile long sequence;
+    private volatile boolean ready;
+    private ScheduledExecutorService scheduler;
+
+    public WhitelistReplica(ApiClient apiClient, ProxyConfig config, Logger logger) {
+        this.apiClient = apiClient;
+        this.config = config;
+        this.logger = logger;
+    }
+
+    /**
+     * Start loading and polling in the background
+     */
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "VerifyMC-Replica");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::sync, 0, Math.max(100, config.getReplicaPollIntervalMs()), TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Check a player against the replica
+     * @param username Player's username
+     * @return whether the player is approved, or null until the first snapshot is loaded
+     */
+    public Boolean isApproved(String username) {
+        if (!ready) {
+            return null;
+        }
+        return approved.contains(username.toLowerCase());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Sync now instead of waiting for the next poll
+     */
+    public void requestSync() {
+        if (scheduler != null && !scheduler.isShutdown()) {
+            scheduler.execute(this::sync);
+        }
+    }
+
+    /**
+     * Apply one pushed change, on the sync thread so it is ordered with polls
+     * @param epoch Backend epoch the change belongs to
+     * @param seq Sequence number of the change
+     * @param username Player's username
+     * @param isApproved Whether the player is approved after the change
+     */
+    public void applyPush(String epoch, long seq, String username, boolean isApproved) {
+        if (scheduler == null || scheduler.isShutdown()) {
+            return;
+        }
+        scheduler.execute(() -> {
+            if (!ready || !epoch.equals(this.epoch) || seq > sequence + 1) {
+                sync();
+                return;
+            }
+            if (seq <= sequence) {
+                return;
+            }
+            if (isApproved) {
+                approved.add(username.toLowerCase());
+            } else {
+                approved.remove(username.toLowerCase());
+            }
+            sequence = seq;
+        });
+    }
+
+    void sync() {
+        try {
+            if (epoch == null) {
+                loadSnapshot();
+            } else {
+                pollChanges();
+            }
+        } catch (Exception e) {
+            if (config.isDebug()) {
+                logger.warning("[DEBUG] Replica sync failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void loadSnapshot() {
+        JsonObject json = apiClient.getJson("/api/whitelist/snapshot").join();
+        if (json == null || !json.has("success") || !json.get("success").getAsBoolean()) {
+            return;
+        }
+        Set<String> loaded = ConcurrentHashMap.newKeySet();
+        for (JsonElement name : json.getAsJsonArray("approved")) {
+            loaded.add(name.getAsString().toLowerCase());
+        }
+        approved = loaded;
+        sequence = json.get("seq").getAsLong();
+        epoch = json.get("epoch").getAsString();
+        if (!ready) {
+            logger.info("[VerifyMC-Proxy] Whitelist replica loaded: " + loaded.size() + " approved players.");
+        }
+        ready = true;
+    }
+
+    private void pollChanges() {
+        JsonObject json = apiClient.getJson("/api/whitelist/changes?epoch="
+            + URLEncoder.encode(epoch, StandardCharsets.UTF_8) + "&since=" + sequence).join();
+        if (json == null || !json.has("success") || !json.get("success").getAsBoolean()) {
+            return;
+        }
+        if (json.has("reset") && json.get("reset").getAsBoolean()) {
+            if (config.isDebug()) {
+                logger.info("[DEBUG] Replica reset by backend, reloading snapshot");
+            }
+            loadSnapshot();
+            return;
+        }
+        apply(json.getAsJsonArray("approved"), json.getAsJsonArray("revoked"));
+        sequence = json.get("seq").getAsLong();
+    }
+
+    private void apply(JsonArray added, JsonArray removed) {
+        Set<String> current = approved;
+        for (JsonElement name : removed) {
+            current.remove(name.getAsString().toLowerCase());
+        }
+        for (JsonElement name : added) {
+            current.add(name.getAsString().toLowerCase());
+        }
+        if (config.isDebug() && (added.size() > 0 || removed.size() > 0)) {
+            logger.info("[DEBUG] Replica applied +" + added.size() + " -" + removed.size());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package team.kitemc.verifymc.proxy.velocity;
 
+import com.velocitypowered.api.event.EventTask;
 import com.velocitypowered.api.event.Subscribe;
 import com.velocitypowered.api.event.connection.PreLoginEvent;
 import com.velocitypowered.api.event.proxy.ProxyInitializeEvent;
@@ -11,9 +12,12 @@ import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 import org.slf4j.Logger;
 import team.kitemc.verifymc.proxy.ApiClient;
+import team.kitemc.verifymc.proxy.LoginGate;
 import team.kitemc.verifymc.proxy.ProxyConfig;
 import team.kitemc.verifymc.proxy.ProxyVersionCheckService;
 import team.kitemc.verifymc.proxy.ProxyResourceUpdater;
+import team.kitemc.verifymc.proxy.WhitelistEventStream;
+import team.kitemc.verifymc.proxy.WhitelistReplica;
 
 import com.google.inject.Inject;
 import java.io.IOException;
@@ -40,6 +44,9 @@ public class VerifyMCVelocity {
 
     private ProxyConfig config;
     private ApiClient apiClient;
+    private WhitelistReplica replica;
+    private WhitelistEventStream eventStream;
+    private LoginGate loginGate;
     private ProxyVersionCheckService versionCheckService;
     private ProxyResourceUpdater resourceUpdater;
 
@@ -84,7 +91,21 @@ public class VerifyMCVelocity {
         config = new ProxyConfig(dataDirectory.toFile());
 
         // Initialize API client
-        apiClient = new ApiClient(config, julLogger);
+        apiClient = new ApiClient(config, julLogger, dataDirectory.toFile());
+
+        // Keep a local copy of the approved players
+        if (config.isReplicaEnabled()) {
+            replica = new WhitelistReplica(apiClient, config, julLogger);
+            replica.start();
+        }
+
+        // Receive status changes as they happen
+        if (config.isPushEnabled()) {
+            eventStream = new WhitelistEventStream(apiClient, replica, config, julLogger);
+            eventStream.start();
+        }
+
+        loginGate = new LoginGate(apiClient, replica, config, julLogger);
 
         // Initialize version check service
         String version = "1.6.0"; // From @Plugin annotation
@@ -100,7 +121,7 @@ public class VerifyMCVelocity {
         checkForUpdates();
 
         logger.info("[VerifyMC-Proxy] Plugin enabled!");
-        logger.info("[VerifyMC-Proxy] Backend API: " + config.getBackendUrl());
+        logger.info("[VerifyMC-Proxy] Backend API: " + String.join(", ", config.getBackendUrls()));
     }
 
     /**
@@ -124,22 +145,40 @@ public class VerifyMCVelocity {
 
     @Subscribe
     public void onProxyShutdown(ProxyShutdownEvent event) {
+        if (eventStream != null) {
+            eventStream.stop();
+        }
+        if (replica != null) {
+            replica.stop();
+        }
+        if (apiClient != null) {
+            apiClient.shutdown();
+        }
         logger.info("[VerifyMC-Proxy] Plugin disabled!");
     }
 
+    /**
+     * Check if player is registered in VerifyMC backend; the event waits on
+     * the returned task instead of blocking an event thread
+     */
     @Subscribe
-    public void onPreLogin(PreLoginEvent event) {
+    public EventTask onPreLogin(PreLoginEvent event) {
+        if (!event.getResult().isAllowed()) {
+            return null;
+        }
+
         String playerName = event.getUsername();
 
         if (config.isDebug()) {
             logger.info("[DEBUG] PreLogin check for: " + playerName);
         }
 
-        try {
-            // Check if player is approved
-            ApiClient.WhitelistStatus status = apiClient.checkWhitelist(playerName);
+        return EventTask.resumeWhenComplete(loginGate.check(playerName).thenAccept(decision -> applyDecision(event, playerName, decision)));
+    }
 
-            if (status == null || !status.isApproved()) {
+    private void applyDecision(PreLoginEvent event, String playerName, LoginGate.Decision decision) {
+        try {
+            if (!decision.allowed()) {
                 // Player not approved, cancel login
                 String kickMessage = config.getKickMessage()
                     .replace("{url}", config.getRegisterUrl());
@@ -148,16 +187,15 @@ public class VerifyMCVelocity {
                 event.setResult(PreLoginEvent.PreLoginComponentResult.denied(kickComponent));
 
                 if (config.isDebug()) {
-                    logger.info("[DEBUG] Blocked player: " + playerName + " (not approved)");
+                    logger.info("[DEBUG] Blocked player: " + playerName + " (status: " + decision.reason() + ")");
                 }
             } else {
                 if (config.isDebug()) {
-                    logger.info("[DEBUG] Allowed player: " + playerName + " (status: " + status.getStatus() + ")");
+                    logger.info("[DEBUG] Allowed player: " + playerName + " (status: " + decision.reason() + ")");
                 }
             }
         } catch (Exception e) {
             logger.warn("Failed to check whitelist for " + playerName, e);
-            // On error, allow login by default (fail-open)
         }
     }
 
@@ -180,7 +218,17 @@ public class VerifyMCVelocity {
                         # Backend server URL (where the main VerifyMC plugin is running)
                         backend_url: "http://localhost:8080"
 
-                        # API key for authentication (optional)
+                        # Several backends sharing one MySQL database (optional), replaces backend_url
+                        backends: []
+
+                        # Backend pool settings
+                        backend_pool:
+                          health_interval_ms: 5000
+                          failure_threshold: 3
+                          open_seconds: 10
+                          hedge_after_ms: 250
+
+                        # API key for authentication (must match proxy_api.api_key in the backend config)
                         api_key: ""
 
                         # Kick message for unregistered players
@@ -202,6 +250,24 @@ public class VerifyMCVelocity {
                         cache:
                           enabled: true
                           expire_seconds: 60
+                          stale_seconds: 3600
+                          negative_expire_seconds: 10
+                          persist: true
+
+                        # Local replica of the approved-player set
+                        replica:
+                          enabled: true
+                          poll_interval_ms: 2000
+
+                        # Status change push from the backend (its ws_port)
+                        push:
+                          enabled: true
+                          ws_url: "ws://localhost:8081"
+
+                        # Login check settings (fail_policy: closed or open)
+                        login:
+                          deadline_ms: 3000
+                          fail_policy: closed
 
                         # Auto-update settings
                         auto_update_config: true
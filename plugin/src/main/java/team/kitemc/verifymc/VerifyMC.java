@@ -12,6 +12,7 @@ import team.kitemc.verifymc.mail.MailService;
 import team.kitemc.verifymc.registration.RegistrationOutcomeResolver;
 import team.kitemc.verifymc.service.*;
 import team.kitemc.verifymc.web.ReviewWebSocketServer;
+import team.kitemc.verifymc.web.StaticAssetCache;
 import team.kitemc.verifymc.web.WebAuthHelper;
 import team.kitemc.verifymc.web.WebServer;
 
@@ -34,6 +35,7 @@ public class VerifyMC extends JavaPlugin {
     private WebServer webServer;
     private ReviewWebSocketServer wsServer;
     private Metrics metrics;
+    private ConnectionPool mysqlPool;
 
     @Override
     public void onEnable() {
@@ -89,6 +91,9 @@ public class VerifyMC extends JavaPlugin {
         if (webServer != null) {
             webServer.stop();
         }
+        if (context != null && context.getStaticAssetCache() != null) {
+            context.getStaticAssetCache().close();
+        }
 
         // Stop WebSocket server
         if (wsServer != null) {
@@ -110,6 +115,9 @@ public class VerifyMC extends JavaPlugin {
                 context.getAuditDao().close();
             }
         }
+        if (mysqlPool != null) {
+            mysqlPool.close();
+        }
 
         // Shutdown metrics
         if (metrics != null) {
@@ -126,22 +134,82 @@ public class VerifyMC extends JavaPlugin {
         try {
             if ("mysql".equalsIgnoreCase(storageType)) {
                 var props = config.getMysqlProperties();
-                context.setUserDao(new MysqlUserDao(props, context.getI18nManager().getResourceBundle(), this));
-                context.setAuditDao(new MysqlAuditDao(props, this));
+                mysqlPool = ConnectionPool.fromProperties(props, log);
+                context.setUserDao(cachedUsers(new MysqlUserDao(mysqlPool, context.getI18nManager().getResourceBundle(), this)));
+                context.setAuditDao(asyncAudits(new MysqlAuditDao(mysqlPool, this)));
+                context.getStatsRegistry().register("mysql_pool", mysqlPool::stats);
                 log.info("[VerifyMC] Using MySQL storage.");
             } else {
                 File dataDir = getDataFolder();
                 context.setUserDao(new FileUserDao(new File(dataDir, "users.json"), this));
-                context.setAuditDao(new FileAuditDao(new File(dataDir, "audits.json")));
+                context.setAuditDao(asyncAudits(fileAudits(dataDir)));
                 log.info("[VerifyMC] Using file storage.");
             }
         } catch (SQLException e) {
             log.severe("[VerifyMC] Database initialization failed: " + e.getMessage());
+            if (mysqlPool != null) {
+                mysqlPool.close();
+                mysqlPool = null;
+            }
             log.info("[VerifyMC] Falling back to file storage.");
             File dataDir = getDataFolder();
             context.setUserDao(new FileUserDao(new File(dataDir, "users.json"), this));
-            context.setAuditDao(new FileAuditDao(new File(dataDir, "audits.json")));
+            context.setAuditDao(asyncAudits(fileAudits(dataDir)));
+        }
+
+        WhitelistIndex whitelistIndex = new WhitelistIndex(context.getUserDao());
+        context.setUserDao(whitelistIndex);
+        context.setWhitelistIndex(whitelistIndex);
+        context.getStatsRegistry().register("whitelist_index", whitelistIndex::stats);
+        // The reload repairs anything the per-write refresh missed and drops users deleted
+        // by other servers sharing the database; their other writes are polled for
+        int refreshSeconds = config.getProxyApiIndexRefreshSeconds();
+        if (refreshSeconds > 0) {
+            Bukkit.getScheduler().runTaskTimerAsynchronously(this, whitelistIndex::rebuild,
+                    refreshSeconds * 20L, refreshSeconds * 20L);
+        }
+        int pollSeconds = config.getProxyApiIndexPollSeconds();
+        if (mysqlPool != null && pollSeconds > 0) {
+            Bukkit.getScheduler().runTaskTimerAsynchronously(this, whitelistIndex::pollChanges,
+                    pollSeconds * 20L, pollSeconds * 20L);
+        }
+    }
+
+    /**
+     * Caches single-user lookups in front of the database; file storage is already in memory.
+     */
+    private UserDao cachedUsers(UserDao userDao) {
+        ConfigManager config = context.getConfigManager();
+        if (!config.isUserCacheEnabled()) {
+            return userDao;
         }
+        CachingUserDao cache = new CachingUserDao(userDao,
+                config.getUserCacheMaxSize(),
+                config.getUserCacheTtlSeconds());
+        context.getStatsRegistry().register("user_cache", cache::stats);
+        return cache;
+    }
+
+    private FileAuditDao fileAudits(File dataDir) {
+        ConfigManager config = context.getConfigManager();
+        return new FileAuditDao(new File(dataDir, "audits.json"),
+                config.getAuditRetentionDays(),
+                config.getAuditCompactAfterDays(),
+                getLogger());
+    }
+
+    /**
+     * Takes audit writes off request threads; records are flushed in batches.
+     */
+    private AuditDao asyncAudits(AuditDao auditDao) {
+        ConfigManager config = context.getConfigManager();
+        AsyncAuditDao async = new AsyncAuditDao(auditDao,
+                config.getAuditBatchSize(),
+                config.getAuditFlushIntervalMs(),
+                config.getAuditQueueCapacity(),
+                getLogger());
+        context.getStatsRegistry().register("audit_queue", async::stats);
+        return async;
     }
 
     private void initServices(Logger log) {
@@ -211,11 +279,25 @@ public class VerifyMC extends JavaPlugin {
             wsServer = new ReviewWebSocketServer(wsPort, context);
             wsServer.start();
             context.setWsServer(wsServer);
+            if (context.getWhitelistIndex() != null) {
+                context.getWhitelistIndex().addChangeListener(wsServer::publishUserChange);
+            }
             log.info("[VerifyMC] WebSocket server started on port " + wsPort);
         } catch (Exception e) {
             log.warning("[VerifyMC] WebSocket server failed to start: " + e.getMessage());
         }
 
+        // Front-end file cache
+        if (context.getConfigManager().isStaticCacheEnabled()) {
+            StaticAssetCache staticCache = new StaticAssetCache(log,
+                    context.getConfigManager().getStaticCacheMaxFileKb() * 1024L);
+            if (context.getConfigManager().isStaticCacheWatch()) {
+                staticCache.watch(context.getResourceManager().getStaticDir().toPath());
+            }
+            context.setStaticAssetCache(staticCache);
+            context.getStatsRegistry().register("static_cache", staticCache::stats);
+        }
+
         // HTTP server
         webServer = new WebServer(context);
         webServer.start();
@@ -6,11 +6,11 @@ import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
 import team.kitemc.verifymc.core.PluginContext;
 import team.kitemc.verifymc.db.AuditRecord;
+import team.kitemc.verifymc.db.UserRecord;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -74,7 +74,7 @@ public class VmcCommandExecutor implements CommandExecutor, TabCompleter {
             if (List.of("approve", "reject", "delete", "ban", "unban", "info").contains(sub)) {
                 // Return registered usernames that match partial input
                 return ctx.getUserDao().getAllUsers().stream()
-                        .map(u -> (String) u.get("username"))
+                        .map(u -> u.username())
                         .filter(name -> name != null && name.toLowerCase().startsWith(args[1].toLowerCase()))
                         .limit(20)
                         .collect(Collectors.toList());
@@ -94,6 +94,9 @@ public class VmcCommandExecutor implements CommandExecutor, TabCompleter {
         ctx.getConfigManager().reloadConfig();
         ctx.getI18nManager().clearCache();
         ctx.getI18nManager().init(ctx.getConfigManager().getLanguage());
+        if (ctx.getStaticAssetCache() != null) {
+            ctx.getStaticAssetCache().invalidate();
+        }
         sender.sendMessage("§6[VerifyMC] §aConfiguration reloaded.");
     }
 
@@ -115,7 +118,7 @@ public class VmcCommandExecutor implements CommandExecutor, TabCompleter {
             // Send approval email
             var user = ctx.getUserDao().getUserByUsername(target);
             if (user != null) {
-                String email = (String) user.get("email");
+                String email = user.email();
                 if (email != null && !email.isEmpty()) {
                     ctx.getMailService().sendReviewResult(email, target, true,
                             ctx.getConfigManager().getLanguage());
@@ -145,7 +148,7 @@ public class VmcCommandExecutor implements CommandExecutor, TabCompleter {
 
             var user = ctx.getUserDao().getUserByUsername(target);
             if (user != null) {
-                String email = (String) user.get("email");
+                String email = user.email();
                 if (email != null && !email.isEmpty()) {
                     ctx.getMailService().sendReviewResult(email, target, false,
                             ctx.getConfigManager().getLanguage());
@@ -225,7 +228,7 @@ public class VmcCommandExecutor implements CommandExecutor, TabCompleter {
             return;
         }
         String statusFilter = args.length > 1 ? args[1].toLowerCase() : "all";
-        List<Map<String, Object>> users;
+        List<UserRecord> users;
         if ("all".equals(statusFilter)) {
             users = ctx.getUserDao().getAllUsers();
         } else {
@@ -236,9 +239,9 @@ public class VmcCommandExecutor implements CommandExecutor, TabCompleter {
         if (users.isEmpty()) {
             sender.sendMessage("§7  No users found.");
         } else {
-            for (Map<String, Object> user : users) {
-                String name = (String) user.getOrDefault("username", "?");
-                String status = (String) user.getOrDefault("status", "?");
+            for (UserRecord user : users) {
+                String name = user.username() != null ? user.username() : "?";
+                String status = user.status() != null ? user.status().value() : "?";
                 sender.sendMessage("§7  " + name + " §f- §e" + status);
             }
         }
@@ -254,16 +257,16 @@ public class VmcCommandExecutor implements CommandExecutor, TabCompleter {
             return;
         }
         String target = args[1];
-        Map<String, Object> user = ctx.getUserDao().getUserByUsername(target);
+        UserRecord user = ctx.getUserDao().getUserByUsername(target);
         if (user == null) {
             sender.sendMessage("§6[VerifyMC] §cUser not found: " + target);
             return;
         }
 
         sender.sendMessage("§6[VerifyMC] §f--- User Info ---");
-        sender.sendMessage("§7  Username: §f" + user.getOrDefault("username", "?"));
-        sender.sendMessage("§7  Email: §f" + user.getOrDefault("email", "?"));
-        sender.sendMessage("§7  Status: §e" + user.getOrDefault("status", "?"));
+        sender.sendMessage("§7  Username: §f" + (user.username() != null ? user.username() : "?"));
+        sender.sendMessage("§7  Email: §f" + (user.email() != null ? user.email() : "?"));
+        sender.sendMessage("§7  Status: §e" + (user.status() != null ? user.status().value() : "?"));
     }
 
     private void handleVersion(CommandSender sender) {
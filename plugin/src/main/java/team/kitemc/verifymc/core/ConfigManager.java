@@ -93,6 +93,61 @@ public class ConfigManager {
         return getConfig().getString("language", "en");
     }
 
+    // --- Audit log ---
+    public int getAuditBatchSize() {
+        return getConfig().getInt("audit.batch_size", 100);
+    }
+
+    public long getAuditFlushIntervalMs() {
+        return getConfig().getLong("audit.flush_interval_ms", 1000L);
+    }
+
+    public int getAuditQueueCapacity() {
+        return getConfig().getInt("audit.queue_capacity", 10000);
+    }
+
+    public int getAuditRetentionDays() {
+        return getConfig().getInt("audit.retention_days", 0);
+    }
+
+    public int getAuditCompactAfterDays() {
+        return getConfig().getInt("audit.compact_after_days", 31);
+    }
+
+    // --- MySQL user cache ---
+    public boolean isUserCacheEnabled() {
+        return getConfig().getBoolean("mysql.user_cache.enabled", true);
+    }
+
+    public int getUserCacheMaxSize() {
+        return getConfig().getInt("mysql.user_cache.max_size", 10000);
+    }
+
+    public long getUserCacheTtlSeconds() {
+        return getConfig().getLong("mysql.user_cache.ttl_seconds", 30L);
+    }
+
+    // --- Proxy API ---
+    public String getProxyApiKey() {
+        return getConfig().getString("proxy_api.api_key", "");
+    }
+
+    public int getProxyApiMaxBatch() {
+        return getConfig().getInt("proxy_api.max_batch", 500);
+    }
+
+    public int getProxyApiMaxAgeSeconds() {
+        return getConfig().getInt("proxy_api.max_age_seconds", 5);
+    }
+
+    public int getProxyApiIndexRefreshSeconds() {
+        return getConfig().getInt("proxy_api.index_refresh_seconds", 60);
+    }
+
+    public int getProxyApiIndexPollSeconds() {
+        return getConfig().getInt("proxy_api.index_poll_seconds", 2);
+    }
+
     // --- Web server ---
     public int getWebPort() {
         return getConfig().getInt("web_port", 8080);
@@ -102,6 +157,50 @@ public class ConfigManager {
         return getConfig().getInt("ws_port", 8081);
     }
 
+    public String getWebExecutorMode() {
+        return getConfig().getString("web_executor.mode", "auto");
+    }
+
+    public int getWebExecutorThreads() {
+        return getConfig().getInt("web_executor.threads", 0);
+    }
+
+    public int getWebExecutorMaxInFlight() {
+        return getConfig().getInt("web_executor.max_in_flight", 200);
+    }
+
+    public int getWebExecutorRetryAfterSeconds() {
+        return getConfig().getInt("web_executor.retry_after_seconds", 1);
+    }
+
+    public int getBulkheadMaxConcurrent(String group, int defaultValue) {
+        return getConfig().getInt("web_executor.bulkheads." + group + ".max_concurrent", defaultValue);
+    }
+
+    public int getBulkheadMaxWaitMs(String group, int defaultValue) {
+        return getConfig().getInt("web_executor.bulkheads." + group + ".max_wait_ms", defaultValue);
+    }
+
+    public boolean isStaticCacheEnabled() {
+        return getConfig().getBoolean("static_cache.enabled", true);
+    }
+
+    public int getStaticCacheMaxFileKb() {
+        return getConfig().getInt("static_cache.max_file_kb", 1024);
+    }
+
+    public boolean isStaticCacheWatch() {
+        return getConfig().getBoolean("static_cache.watch", true);
+    }
+
+    public boolean isJsonCompressionEnabled() {
+        return getConfig().getBoolean("json_compression.enabled", true);
+    }
+
+    public int getJsonCompressionMinBytes() {
+        return getConfig().getInt("json_compression.min_bytes", 1024);
+    }
+
     public String getWebServerPrefix() {
         return getConfig().getString("web_server_prefix", "[VerifyMC]");
     }
@@ -245,6 +344,12 @@ public class ConfigManager {
         props.setProperty("password", getConfig().getString("mysql.password", ""));
         props.setProperty("useSSL", String.valueOf(getMysqlUseSSL()));
         props.setProperty("allowPublicKeyRetrieval", String.valueOf(getMysqlAllowPublicKeyRetrieval()));
+        props.setProperty("pool.maxSize", String.valueOf(getConfig().getInt("mysql.pool.max_size", 10)));
+        props.setProperty("pool.minIdle", String.valueOf(getConfig().getInt("mysql.pool.min_idle", 2)));
+        props.setProperty("pool.connectionTimeoutMs", String.valueOf(getConfig().getLong("mysql.pool.connection_timeout_ms", 5000L)));
+        props.setProperty("pool.idleTimeoutMs", String.valueOf(getConfig().getLong("mysql.pool.idle_timeout_ms", 600000L)));
+        props.setProperty("pool.maxLifetimeMs", String.valueOf(getConfig().getLong("mysql.pool.max_lifetime_ms", 1800000L)));
+        props.setProperty("pool.statementCacheSize", String.valueOf(getConfig().getInt("mysql.pool.statement_cache_size", 250)));
         return props;
     }
 
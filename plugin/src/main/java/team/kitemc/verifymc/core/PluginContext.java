@@ -3,9 +3,11 @@ package team.kitemc.verifymc.core;
 import org.bukkit.plugin.java.JavaPlugin;
 import team.kitemc.verifymc.db.AuditDao;
 import team.kitemc.verifymc.db.UserDao;
+import team.kitemc.verifymc.db.WhitelistIndex;
 import team.kitemc.verifymc.mail.MailService;
 import team.kitemc.verifymc.service.*;
 import team.kitemc.verifymc.web.ReviewWebSocketServer;
+import team.kitemc.verifymc.web.StaticAssetCache;
 import team.kitemc.verifymc.web.WebAuthHelper;
 
 /**
@@ -18,11 +20,13 @@ public class PluginContext {
     private final ConfigManager configManager;
     private final I18nManager i18nManager;
     private final ResourceManager resourceManager;
+    private final StatsRegistry statsRegistry = new StatsRegistry();
     private OpsManager opsManager;
 
     // Data access
     private UserDao userDao;
     private AuditDao auditDao;
+    private WhitelistIndex whitelistIndex;
 
     // Services
     private MailService mailService;
@@ -41,6 +45,7 @@ public class PluginContext {
     // Web layer
     private ReviewWebSocketServer wsServer;
     private WebAuthHelper webAuthHelper;
+    private StaticAssetCache staticAssetCache;
 
     public PluginContext(JavaPlugin plugin) {
         this.plugin = plugin;
@@ -56,9 +61,11 @@ public class PluginContext {
     public I18nManager getI18nManager() { return i18nManager; }
     public ResourceManager getResourceManager() { return resourceManager; }
     public OpsManager getOpsManager() { return opsManager; }
+    public StatsRegistry getStatsRegistry() { return statsRegistry; }
 
     public UserDao getUserDao() { return userDao; }
     public AuditDao getAuditDao() { return auditDao; }
+    public WhitelistIndex getWhitelistIndex() { return whitelistIndex; }
     public MailService getMailService() { return mailService; }
     public VerifyCodeService getVerifyCodeService() { return verifyCodeService; }
     public AuthmeService getAuthmeService() { return authmeService; }
@@ -71,10 +78,12 @@ public class PluginContext {
     public QuestionnaireApplicationService getQuestionnaireApplicationService() { return questionnaireApplicationService; }
     public ReviewWebSocketServer getWsServer() { return wsServer; }
     public WebAuthHelper getWebAuthHelper() { return webAuthHelper; }
+    public StaticAssetCache getStaticAssetCache() { return staticAssetCache; }
 
     // --- Setters (for initialization phase) ---
     public void setUserDao(UserDao userDao) { this.userDao = userDao; }
     public void setAuditDao(AuditDao auditDao) { this.auditDao = auditDao; }
+    public void setWhitelistIndex(WhitelistIndex whitelistIndex) { this.whitelistIndex = whitelistIndex; }
     public void setMailService(MailService mailService) { this.mailService = mailService; }
     public void setVerifyCodeService(VerifyCodeService verifyCodeService) { this.verifyCodeService = verifyCodeService; }
     public void setAuthmeService(AuthmeService authmeService) { this.authmeService = authmeService; }
@@ -87,6 +96,7 @@ public class PluginContext {
     public void setQuestionnaireApplicationService(QuestionnaireApplicationService svc) { this.questionnaireApplicationService = svc; }
     public void setWsServer(ReviewWebSocketServer wsServer) { this.wsServer = wsServer; }
     public void setWebAuthHelper(WebAuthHelper webAuthHelper) { this.webAuthHelper = webAuthHelper; }
+    public void setStaticAssetCache(StaticAssetCache staticAssetCache) { this.staticAssetCache = staticAssetCache; }
     public void setOpsManager(OpsManager opsManager) { this.opsManager = opsManager; }
 
     public boolean isDebug() {
@@ -0,0 +1,37 @@
+package team.kitemc.verifymc.core;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+
+/**
+ * Named runtime statistics sources (connection pools, caches, queues...)
+ * exposed to admins through {@code /api/admin/stats}.
+ */
+public class StatsRegistry {
+    private final Map<String, Supplier<Map<String, Object>>> sources = new ConcurrentSkipListMap<>();
+
+    public void register(String name, Supplier<Map<String, Object>> source) {
+        sources.put(name, source);
+    }
+
+    public void unregister(String name) {
+        sources.remove(name);
+    }
+
+    /**
+     * Collects every source. A failing source is reported instead of failing the snapshot.
+     */
+    public Map<String, Map<String, Object>> snapshot() {
+        Map<String, Map<String, Object>> snapshot = new LinkedHashMap<>();
+        for (Map.Entry<String, Supplier<Map<String, Object>>> entry : sources.entrySet()) {
+            try {
+                snapshot.put(entry.getKey(), entry.getValue().get());
+            } catch (RuntimeException e) {
+                snapshot.put(entry.getKey(), Map.of("error", String.valueOf(e.getMessage())));
+            }
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,279 @@
+package team.kitemc.verifymc.db;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Write-behind {@link AuditDao} decorator.
+ * <p>
+ * {@link #addAudit} only enqueues the record on a bounded lock-free queue; a
+ * single writer thread hands queued records to the delegate in batches of up
+ * to {@code batchSize}, either as soon as a full batch is waiting or every
+ * {@code flushIntervalMs}. When the queue is full the caller writes its record
+ * synchronously instead of dropping it, and the event is counted so the queue
+ * can be sized from {@link #stats()}. Enqueuing holds the read side of a
+ * read/write lock that {@link #close()} takes exclusively, so no record can
+ * be queued after the final flush; records arriving after that are logged and
+ * dropped.
+ * <p>
+ * A batch the delegate fails to write is retried ahead of everything queued
+ * after it, up to {@code MAX_ATTEMPTS} times with doubling delays, and only
+ * then dropped. Every dropped record is counted in {@link #stats()}.
+ */
+public class AsyncAuditDao implements AuditDao {
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long RETRY_BASE_MS = 500L;
+
+    private final AuditDao delegate;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final int capacity;
+    private final Logger logger;
+
+    private final ConcurrentLinkedQueue<AuditRecord> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Object flushLock = new Object();
+    private final Thread writer;
+    // Read side held while enqueuing, write side while closing
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private volatile boolean closed;
+    // Batch waiting to be retried, with its failed attempts so far; guarded by flushLock
+    private List<AuditRecord> retryBatch;
+    private int attempts;
+    private long retryAtNanos;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong callerWrites = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicInteger maxDepth = new AtomicInteger();
+    private volatile long lastFlushNanos;
+
+    public AsyncAuditDao(AuditDao delegate, int batchSize, long flushIntervalMs, int capacity, Logger logger) {
+        this.delegate = delegate;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1L, flushIntervalMs));
+        this.capacity = Math.max(this.batchSize, capacity);
+        this.logger = logger;
+        this.writer = new Thread(this::runWriter, "VerifyMC-AuditWriter");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void addAudit(AuditRecord audit) {
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                dropped.incrementAndGet();
+                logger.warning("Audit log is closed, dropping audit record: " + audit.action());
+                return;
+            }
+            int depth = queued.incrementAndGet();
+            if (depth > capacity) {
+                // Backpressure: never drop audit records, pay the write on this thread instead.
+                queued.decrementAndGet();
+                callerWrites.incrementAndGet();
+                writeNow(audit);
+                return;
+            }
+            queue.offer(audit);
+            enqueued.incrementAndGet();
+            maxDepth.accumulateAndGet(depth, Math::max);
+            if (depth >= batchSize) {
+                LockSupport.unpark(writer);
+            }
+        } finally {
+            closeLock.readLock().unlock();
+        }
+    }
+
+    private void writeNow(AuditRecord audit) {
+        try {
+            delegate.addAudit(audit);
+        } catch (RuntimeException e) {
+            failures.incrementAndGet();
+            dropped.incrementAndGet();
+            logger.log(Level.WARNING, "Failed to write audit record", e);
+        }
+    }
+
+    @Override
+    public void addAudits(List<AuditRecord> audits) {
+        for (AuditRecord audit : audits) {
+            addAudit(audit);
+        }
+    }
+
+    /**
+     * Reads go to the delegate after pending records are written, so callers
+     * always see their own audits.
+     */
+    @Override
+    public List<AuditRecord> getAllAudits() {
+        flush();
+        return delegate.getAllAudits();
+    }
+
+    @Override
+    public List<AuditRecord> queryAudits(AuditQuery query) {
+        flush();
+        return delegate.queryAudits(query);
+    }
+
+    @Override
+    public void save() {
+        flush();
+        delegate.save();
+    }
+
+    /**
+     * Writes everything queued so far on the calling thread. A batch waiting
+     * for its next retry stops the flush until it is due.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            while (drainBatch(false)) {
+                // keep draining
+            }
+        }
+    }
+
+    private void runWriter() {
+        while (!closed) {
+            LockSupport.parkNanos(this, flushIntervalNanos);
+            if (Thread.interrupted() && closed) {
+                break;
+            }
+            synchronized (flushLock) {
+                while (drainBatch(false)) {
+                    if (closed) {
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Hands up to one batch to the delegate: the batch waiting to be retried
+     * if there is one, otherwise the next records from the queue.
+     *
+     * @param force retry a failed batch without waiting for its delay
+     * @return true if more may be waiting and the caller should go on
+     */
+    private boolean drainBatch(boolean force) {
+        List<AuditRecord> batch = retryBatch;
+        boolean retry = batch != null;
+        if (retry) {
+            if (!force && System.nanoTime() - retryAtNanos < 0) {
+                return false;
+            }
+        } else {
+            batch = new ArrayList<>(Math.min(batchSize, Math.max(1, queued.get())));
+            AuditRecord record;
+            while (batch.size() < batchSize && (record = queue.poll()) != null) {
+                batch.add(record);
+            }
+            if (batch.isEmpty()) {
+                return false;
+            }
+            queued.addAndGet(-batch.size());
+        }
+        long start = System.nanoTime();
+        try {
+            delegate.addAudits(batch);
+        } catch (RuntimeException e) {
+            failures.incrementAndGet();
+            if (++attempts < MAX_ATTEMPTS) {
+                long delayMs = RETRY_BASE_MS << (attempts - 1);
+                retries.incrementAndGet();
+                retryBatch = batch;
+                retryAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs);
+                logger.log(Level.WARNING, "Failed to write " + batch.size() + " audit records, retrying in "
+                        + delayMs + " ms", e);
+                return force;
+            }
+            dropped.addAndGet(batch.size());
+            retryBatch = null;
+            attempts = 0;
+            logger.log(Level.SEVERE, "Dropping " + batch.size() + " audit records after "
+                    + MAX_ATTEMPTS + " failed attempts", e);
+            return !queue.isEmpty();
+        }
+        retryBatch = null;
+        attempts = 0;
+        written.addAndGet(batch.size());
+        batches.incrementAndGet();
+        lastFlushNanos = System.nanoTime() - start;
+        return retry || batch.size() == batchSize;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queued", queued.get());
+        stats.put("capacity", capacity);
+        stats.put("maxDepth", maxDepth.get());
+        stats.put("enqueued", enqueued.get());
+        stats.put("written", written.get());
+        stats.put("batches", batches.get());
+        stats.put("avgBatchSize", batches.get() == 0 ? 0.0 : (double) written.get() / batches.get());
+        stats.put("lastFlushMs", lastFlushNanos / 1_000_000.0);
+        stats.put("callerWrites", callerWrites.get());
+        stats.put("failures", failures.get());
+        stats.put("retries", retries.get());
+        stats.put("dropped", dropped.get());
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        // Waits for enqueues in progress; later ones see closed and write directly.
+        closeLock.writeLock().lock();
+        try {
+            closed = true;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        writer.interrupt();
+        try {
+            writer.join(5000L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (flushLock) {
+            // Once a batch has used up its retries the storage is not coming back
+            // before shutdown, so the rest is dropped instead of retried too.
+            long droppedBefore = dropped.get();
+            while (drainBatch(true) && dropped.get() == droppedBefore) {
+                // keep draining
+            }
+            int left = retryBatch != null ? retryBatch.size() : 0;
+            retryBatch = null;
+            while (queue.poll() != null) {
+                queued.decrementAndGet();
+                left++;
+            }
+            if (left > 0) {
+                dropped.addAndGet(left);
+                logger.severe("Dropping " + left + " audit records that could not be written before shutdown");
+            }
+        }
+        delegate.save();
+        delegate.close();
+    }
+}
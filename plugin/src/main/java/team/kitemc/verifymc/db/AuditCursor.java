@@ -0,0 +1,50 @@
+package team.kitemc.verifymc.db;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset position in the audit log, which is listed newest first by
+ * {@code timestamp DESC, id DESC}. A query "before" a cursor returns only
+ * records strictly older than it.
+ */
+public record AuditCursor(long timestamp, long id) {
+    public static AuditCursor of(AuditRecord audit) {
+        return new AuditCursor(audit.timestamp(), audit.id() == null ? 0L : audit.id());
+    }
+
+    /**
+     * Opaque URL-safe token handed to clients.
+     */
+    public String encode() {
+        String raw = timestamp + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+     */
+    public static AuditCursor decode(String token) {
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        int separator = raw.indexOf(':');
+        if (separator <= 0) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        try {
+            return new AuditCursor(Long.parseLong(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+
+    /**
+     * Whether {@code audit} sorts strictly after this cursor in listing order.
+     */
+    public boolean isBefore(AuditRecord audit) {
+        long auditId = audit.id() == null ? 0L : audit.id();
+        if (audit.timestamp() != timestamp) {
+            return audit.timestamp() < timestamp;
+        }
+        return auditId < id;
+    }
+}
@@ -4,7 +4,36 @@ import java.util.List;
 
 public interface AuditDao {
     void addAudit(AuditRecord audit);
+
+    /**
+     * Persists several records at once. Implementations should write the batch
+     * in a single round trip; the default falls back to one call per record.
+     */
+    default void addAudits(List<AuditRecord> audits) {
+        for (AuditRecord audit : audits) {
+            addAudit(audit);
+        }
+    }
+
     List<AuditRecord> getAllAudits();
+
+    /**
+     * Returns one page of the audit log, newest first, matching {@code query}.
+     * Implementations should answer from an index without loading the whole
+     * history; the default filters {@link #getAllAudits()}.
+     */
+    default List<AuditRecord> queryAudits(AuditQuery query) {
+        return getAllAudits().stream()
+            .filter(query::matches)
+            .filter(a -> query.before() == null || query.before().isBefore(a))
+            .sorted((a, b) -> {
+                int byTime = Long.compare(b.timestamp(), a.timestamp());
+                if (byTime != 0) return byTime;
+                return Long.compare(b.id() == null ? 0L : b.id(), a.id() == null ? 0L : a.id());
+            })
+            .limit(query.limit())
+            .collect(java.util.stream.Collectors.toList());
+    }
     void save();
 
     /**
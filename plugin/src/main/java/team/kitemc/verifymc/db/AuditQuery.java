@@ -0,0 +1,30 @@
+package team.kitemc.verifymc.db;
+
+/**
+ * Filtered, keyset-paginated audit log query. Null or empty filters match
+ * everything; {@code from} is inclusive and {@code to} exclusive (epoch millis).
+ */
+public record AuditQuery(Long from, Long to, String action, String operator, String target,
+                         AuditCursor before, int limit) {
+    public AuditQuery {
+        action = blankToNull(action);
+        operator = blankToNull(operator);
+        target = blankToNull(target);
+        limit = Math.max(0, limit);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    /**
+     * Whether a record passes the filters (ignoring the cursor and limit).
+     */
+    public boolean matches(AuditRecord audit) {
+        if (from != null && audit.timestamp() < from) return false;
+        if (to != null && audit.timestamp() >= to) return false;
+        if (action != null && !action.equals(audit.action())) return false;
+        if (operator != null && !operator.equals(audit.operator())) return false;
+        return target == null || target.equals(audit.target());
+    }
+}
@@ -0,0 +1,387 @@
+package team.kitemc.verifymc.db;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache for single-user lookups.
+ * <p>
+ * Users are cached under their lower-cased username; email and Discord ID
+ * lookups are cached as pointers to that username and checked against the
+ * cached record on use, so a user only ever exists once in the cache. Misses,
+ * including "no such user", are cached too. Entries are bounded by
+ * {@code maxSize} (least recently used first) and expire after
+ * {@code ttlSeconds}, which also bounds staleness when another server writes
+ * to the same database; users reported by {@link #getUsersChangedSince} are
+ * dropped early.
+ * <p>
+ * Concurrent misses for the same key share one delegate call. Every mutating
+ * call invalidates the affected keys after the delegate returns and bumps a
+ * write counter under the same lock; a load that started before any write
+ * completes for its callers but is not stored, so a stale read can never be
+ * cached past a write. Listings and counts are not cached.
+ */
+public class CachingUserDao extends ForwardingUserDao {
+    private static final String USER = "u:";
+    private static final String EMAIL = "e:";
+    private static final String DISCORD = "d:";
+
+    /** {@code value} is a {@link UserRecord} for username keys, the username for index keys, or null for a miss. */
+    private record Entry(Object value, long expiresAt) {
+    }
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<String, Entry> entries;
+    private final ConcurrentHashMap<String, CompletableFuture<UserRecord>> loading = new ConcurrentHashMap<>();
+    private final AtomicLong writes = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public CachingUserDao(UserDao delegate, int maxSize, long ttlSeconds) {
+        super(delegate);
+        this.maxSize = Math.max(1, maxSize);
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(Math.max(1L, ttlSeconds));
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > CachingUserDao.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public UserRecord getUserByUsername(String username) {
+        if (username == null) {
+            return delegate.getUserByUsername(null);
+        }
+        String key = userKey(username);
+        Entry entry = get(key);
+        if (entry != null) {
+            hits.incrementAndGet();
+            return (UserRecord) entry.value();
+        }
+        misses.incrementAndGet();
+        return load(key, () -> delegate.getUserByUsername(username));
+    }
+
+    @Override
+    public UserRecord getUserByEmail(String email) {
+        if (email == null) {
+            return delegate.getUserByEmail(null);
+        }
+        return lookupIndexed(emailKey(email),
+                user -> user.email() != null && user.email().equalsIgnoreCase(email),
+                () -> delegate.getUserByEmail(email));
+    }
+
+    @Override
+    public UserRecord getUserByDiscordId(String discordId) {
+        if (discordId == null) {
+            return delegate.getUserByDiscordId(null);
+        }
+        return lookupIndexed(discordKey(discordId),
+                user -> discordId.equals(user.discordId()),
+                () -> delegate.getUserByDiscordId(discordId));
+    }
+
+    @Override
+    public boolean isDiscordIdLinked(String discordId) {
+        return getUserByDiscordId(discordId) != null;
+    }
+
+    @Override
+    public boolean registerUser(String username, String email, String status) {
+        try {
+            return delegate.registerUser(username, email, status);
+        } finally {
+            invalidate(userKey(username), emailKey(email));
+        }
+    }
+
+    @Override
+    public boolean registerUser(String username, String email, String status,
+                                Integer questionnaireScore, Boolean questionnairePassed,
+                                String questionnaireReviewSummary, Long questionnaireScoredAt) {
+        try {
+            return delegate.registerUser(username, email, status, questionnaireScore, questionnairePassed,
+                    questionnaireReviewSummary, questionnaireScoredAt);
+        } finally {
+            invalidate(userKey(username), emailKey(email));
+        }
+    }
+
+    @Override
+    public boolean registerUser(String username, String email, String status, String password) {
+        try {
+            return delegate.registerUser(username, email, status, password);
+        } finally {
+            invalidate(userKey(username), emailKey(email));
+        }
+    }
+
+    @Override
+    public boolean registerUser(String username, String email, String status, String password,
+                                Integer questionnaireScore, Boolean questionnairePassed,
+                                String questionnaireReviewSummary, Long questionnaireScoredAt) {
+        try {
+            return delegate.registerUser(username, email, status, password, questionnaireScore, questionnairePassed,
+                    questionnaireReviewSummary, questionnaireScoredAt);
+        } finally {
+            invalidate(userKey(username), emailKey(email));
+        }
+    }
+
+    @Override
+    public boolean updateUserStatus(String username, String status) {
+        try {
+            return delegate.updateUserStatus(username, status);
+        } finally {
+            invalidate(userKey(username));
+        }
+    }
+
+    @Override
+    public boolean updateUserStatus(String username, String status, String operator) {
+        try {
+            return delegate.updateUserStatus(username, status, operator);
+        } finally {
+            invalidate(userKey(username));
+        }
+    }
+
+    @Override
+    public boolean banUser(String username) {
+        try {
+            return delegate.banUser(username);
+        } finally {
+            invalidate(userKey(username));
+        }
+    }
+
+    @Override
+    public boolean unbanUser(String username) {
+        try {
+            return delegate.unbanUser(username);
+        } finally {
+            invalidate(userKey(username));
+        }
+    }
+
+    @Override
+    public boolean updateUserPassword(String username, String plainPassword) {
+        try {
+            return delegate.updateUserPassword(username, plainPassword);
+        } finally {
+            invalidate(userKey(username));
+        }
+    }
+
+    @Override
+    public boolean updatePassword(String username, String plainPassword) {
+        try {
+            return delegate.updatePassword(username, plainPassword);
+        } finally {
+            invalidate(userKey(username));
+        }
+    }
+
+    @Override
+    public boolean updateUserEmail(String username, String email) {
+        try {
+            return delegate.updateUserEmail(username, email);
+        } finally {
+            invalidate(userKey(username), emailKey(email));
+        }
+    }
+
+    @Override
+    public boolean updateUserDiscordId(String username, String discordId) {
+        try {
+            return delegate.updateUserDiscordId(username, discordId);
+        } finally {
+            invalidate(userKey(username), discordKey(discordId));
+        }
+    }
+
+    @Override
+    public boolean deleteUser(String username) {
+        try {
+            return delegate.deleteUser(username);
+        } finally {
+            invalidate(userKey(username));
+        }
+    }
+
+    /**
+     * Also drops the reported users, so rows written by another server are
+     * re-read on the next lookup instead of after the TTL.
+     */
+    @Override
+    public UserChanges getUsersChangedSince(long since) {
+        UserChanges changes = delegate.getUsersChangedSince(since);
+        if (changes != null && !changes.usernames().isEmpty()) {
+            invalidate(changes.usernames().stream().map(CachingUserDao::userKey).toArray(String[]::new));
+        }
+        return changes;
+    }
+
+    @Override
+    public void close() {
+        synchronized (entries) {
+            writes.incrementAndGet();
+            entries.clear();
+        }
+        loading.clear();
+        delegate.close();
+    }
+
+    public Map<String, Object> stats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size);
+        stats.put("maxSize", maxSize);
+        stats.put("ttlSeconds", TimeUnit.NANOSECONDS.toSeconds(ttlNanos));
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        stats.put("loads", loads.get());
+        stats.put("invalidations", invalidations.get());
+        stats.put("evictions", evictions.get());
+        return stats;
+    }
+
+    /**
+     * Resolves an email or Discord ID through its cached username. The pointer
+     * is only trusted if the cached user still carries that value; otherwise
+     * the lookup goes to the delegate.
+     */
+    private UserRecord lookupIndexed(String key, Predicate<UserRecord> matches, Supplier<UserRecord> loader) {
+        Entry entry = get(key);
+        if (entry != null) {
+            if (entry.value() == null) {
+                hits.incrementAndGet();
+                return null;
+            }
+            Entry userEntry = get(userKey((String) entry.value()));
+            if (userEntry != null && userEntry.value() instanceof UserRecord user && matches.test(user)) {
+                hits.incrementAndGet();
+                return user;
+            }
+        }
+        misses.incrementAndGet();
+        return load(key, loader);
+    }
+
+    private UserRecord load(String key, Supplier<UserRecord> loader) {
+        CompletableFuture<UserRecord> mine = new CompletableFuture<>();
+        CompletableFuture<UserRecord> running = loading.putIfAbsent(key, mine);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        try {
+            long stamp = writes.get();
+            loads.incrementAndGet();
+            UserRecord user = loader.get();
+            if (key.startsWith(USER)) {
+                store(stamp, key, user, null, null);
+            } else if (user == null || user.username() == null) {
+                store(stamp, key, null, null, null);
+            } else {
+                store(stamp, key, user.username(), userKey(user.username()), user);
+            }
+            mine.complete(user);
+            return user;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, mine);
+        }
+    }
+
+    /**
+     * Stores a loaded value, plus the user it points to for index keys, unless
+     * a write happened since {@code stamp} was taken.
+     */
+    private void store(long stamp, String key, Object value, String userKey, UserRecord user) {
+        long expiresAt = System.nanoTime() + ttlNanos;
+        synchronized (entries) {
+            if (writes.get() != stamp) {
+                return;
+            }
+            entries.put(key, new Entry(value, expiresAt));
+            if (userKey != null) {
+                entries.put(userKey, new Entry(user, expiresAt));
+            }
+        }
+    }
+
+    private Entry get(String key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt() - System.nanoTime() <= 0) {
+                entries.remove(key);
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    private void invalidate(String... keys) {
+        synchronized (entries) {
+            writes.incrementAndGet();
+            for (String key : keys) {
+                if (key != null && entries.remove(key) != null) {
+                    invalidations.incrementAndGet();
+                }
+            }
+        }
+        // Later readers must not join a load that may have read the old row.
+        for (String key : keys) {
+            if (key != null) {
+                loading.remove(key);
+            }
+        }
+    }
+
+    private static String userKey(String username) {
+        return username == null ? null : USER + username.toLowerCase(Locale.ROOT);
+    }
+
+    private static String emailKey(String email) {
+        return email == null ? null : EMAIL + email.toLowerCase(Locale.ROOT);
+    }
+
+    private static String discordKey(String discordId) {
+        return discordId == null ? null : DISCORD + discordId;
+    }
+}
@@ -0,0 +1,497 @@
+package team.kitemc.verifymc.db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Small bounded JDBC connection pool shared by the MySQL DAOs.
+ * <p>
+ * Borrowed connections are proxies: {@code close()} hands the physical
+ * connection back to the pool. Connections idle for a while are validated
+ * before reuse, broken ones (SQL state class 08) are discarded on return, and
+ * a housekeeping thread evicts idle or over-age connections and tops the pool
+ * back up to {@code minIdle}, so a dropped database connection heals itself.
+ */
+public class ConnectionPool implements AutoCloseable {
+    private static final long VALIDATE_AFTER_IDLE_MS = 500L;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 3;
+    private static final long HOUSEKEEPING_INTERVAL_MS = 30_000L;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int maxSize;
+    private final int minIdle;
+    private final long connectionTimeoutMs;
+    private final long idleTimeoutMs;
+    private final long maxLifetimeMs;
+    private final Logger logger;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final ScheduledExecutorService housekeeper;
+    private int total;
+    private int active;
+    private int waiting;
+    private boolean closed;
+
+    // Statistics, guarded by lock
+    private long acquisitions;
+    private long totalWaitNanos;
+    private long maxWaitNanos;
+    private long timeouts;
+    private long created;
+    private long destroyed;
+    private long validationFailures;
+
+    public ConnectionPool(String url, String user, String password, int maxSize, int minIdle,
+                          long connectionTimeoutMs, long idleTimeoutMs, long maxLifetimeMs, Logger logger) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = Math.max(1, maxSize);
+        this.minIdle = Math.max(0, Math.min(minIdle, this.maxSize));
+        this.connectionTimeoutMs = Math.max(0L, connectionTimeoutMs);
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.maxLifetimeMs = maxLifetimeMs;
+        this.logger = logger;
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "VerifyMC-ConnectionPool");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.housekeeper.scheduleWithFixedDelay(this::housekeep,
+                HOUSEKEEPING_INTERVAL_MS, HOUSEKEEPING_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Builds a pool from the properties produced by {@code ConfigManager.getMysqlProperties()}
+     * and opens one connection up front so configuration errors surface immediately.
+     */
+    public static ConnectionPool fromProperties(Properties mysqlConfig, Logger logger) throws SQLException {
+        String useSSL = mysqlConfig.getProperty("useSSL", "true");
+        String allowPublicKeyRetrieval = mysqlConfig.getProperty("allowPublicKeyRetrieval", "false");
+        String url = "jdbc:mysql://" + mysqlConfig.getProperty("host") + ":" +
+                mysqlConfig.getProperty("port") + "/" +
+                mysqlConfig.getProperty("database") +
+                "?useSSL=" + useSSL +
+                "&allowPublicKeyRetrieval=" + allowPublicKeyRetrieval +
+                "&characterEncoding=utf8" +
+                "&rewriteBatchedStatements=true" +
+                statementCacheParameters(intProperty(mysqlConfig, "pool.statementCacheSize", 250));
+        ConnectionPool pool = new ConnectionPool(url,
+                mysqlConfig.getProperty("user"),
+                mysqlConfig.getProperty("password"),
+                intProperty(mysqlConfig, "pool.maxSize", 10),
+                intProperty(mysqlConfig, "pool.minIdle", 2),
+                longProperty(mysqlConfig, "pool.connectionTimeoutMs", 5000L),
+                longProperty(mysqlConfig, "pool.idleTimeoutMs", 600_000L),
+                longProperty(mysqlConfig, "pool.maxLifetimeMs", 1_800_000L),
+                logger);
+        try {
+            pool.getConnection().close();
+        } catch (SQLException e) {
+            pool.close();
+            throw e;
+        }
+        return pool;
+    }
+
+    /**
+     * Server-side prepared statements cached per physical connection by the driver.
+     * Since pooled connections live for many requests, each hot statement is parsed
+     * by the server once per connection and reused on every later prepareStatement().
+     */
+    private static String statementCacheParameters(int cacheSize) {
+        if (cacheSize <= 0) {
+            return "";
+        }
+        return "&useServerPrepStmts=true" +
+                "&cachePrepStmts=true" +
+                "&prepStmtCacheSize=" + cacheSize +
+                "&prepStmtCacheSqlLimit=2048";
+    }
+
+    private static int intProperty(Properties props, String key, int def) {
+        try {
+            return Integer.parseInt(props.getProperty(key, String.valueOf(def)));
+        } catch (NumberFormatException e) {
+            return def;
+        }
+    }
+
+    private static long longProperty(Properties props, String key, long def) {
+        try {
+            return Long.parseLong(props.getProperty(key, String.valueOf(def)));
+        } catch (NumberFormatException e) {
+            return def;
+        }
+    }
+
+    /**
+     * Borrows a connection, waiting up to the configured connection timeout.
+     * Always close the returned connection (try-with-resources) to release it.
+     */
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(connectionTimeoutMs);
+        while (true) {
+            PooledConnection candidate = null;
+            boolean mayCreate = false;
+            lock.lock();
+            try {
+                while (true) {
+                    if (closed) {
+                        throw new SQLException("Connection pool is closed");
+                    }
+                    candidate = idle.pollFirst();
+                    if (candidate != null) {
+                        active++;
+                        break;
+                    }
+                    if (total < maxSize) {
+                        total++;
+                        active++;
+                        mayCreate = true;
+                        break;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        timeouts++;
+                        throw new SQLTimeoutException("Timed out after " + connectionTimeoutMs
+                                + "ms waiting for a database connection (active=" + active + ", max=" + maxSize + ")");
+                    }
+                    waiting++;
+                    try {
+                        available.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while waiting for a database connection", e);
+                    } finally {
+                        waiting--;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            // Physical I/O happens outside the lock.
+            if (mayCreate) {
+                try {
+                    candidate = new PooledConnection(DriverManager.getConnection(url, user, password));
+                } catch (SQLException e) {
+                    discard(null);
+                    throw e;
+                }
+                lock.lock();
+                try {
+                    created++;
+                } finally {
+                    lock.unlock();
+                }
+            } else if (!isUsable(candidate)) {
+                discard(candidate);
+                continue;
+            }
+            recordAcquisition(System.nanoTime() - start);
+            return candidate.lease();
+        }
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        long now = System.currentTimeMillis();
+        if (maxLifetimeMs > 0 && now - pooled.createdAt >= maxLifetimeMs) {
+            return false;
+        }
+        if (now - pooled.lastUsedAt < VALIDATE_AFTER_IDLE_MS) {
+            return true;
+        }
+        try {
+            if (pooled.physical.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                return true;
+            }
+        } catch (SQLException ignored) {
+            // treated as invalid
+        }
+        lock.lock();
+        try {
+            validationFailures++;
+        } finally {
+            lock.unlock();
+        }
+        return false;
+    }
+
+    private void recordAcquisition(long waitNanos) {
+        lock.lock();
+        try {
+            acquisitions++;
+            totalWaitNanos += waitNanos;
+            maxWaitNanos = Math.max(maxWaitNanos, waitNanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops a borrowed slot: closes the physical connection (if any) and frees
+     * capacity for a replacement.
+     */
+    private void discard(PooledConnection pooled) {
+        if (pooled != null) {
+            closeQuietly(pooled.physical);
+        }
+        lock.lock();
+        try {
+            total--;
+            active--;
+            if (pooled != null) {
+                destroyed++;
+            }
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(PooledConnection pooled) {
+        boolean reusable = !pooled.broken && (maxLifetimeMs <= 0 || System.currentTimeMillis() - pooled.createdAt < maxLifetimeMs);
+        if (reusable) {
+            try {
+                if (pooled.physical.isClosed()) {
+                    reusable = false;
+                } else if (!pooled.physical.getAutoCommit()) {
+                    pooled.physical.rollback();
+                    pooled.physical.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                reusable = false;
+            }
+        }
+        if (!reusable) {
+            discard(pooled);
+            return;
+        }
+        lock.lock();
+        try {
+            active--;
+            if (closed) {
+                total--;
+                destroyed++;
+                closeQuietly(pooled.physical);
+                return;
+            }
+            pooled.lastUsedAt = System.currentTimeMillis();
+            // LIFO keeps the hot connections hot and lets surplus ones age out.
+            idle.offerFirst(pooled);
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+        Deque<PooledConnection> evicted = new ArrayDeque<>();
+        int missing;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext()) {
+                PooledConnection pooled = it.next();
+                boolean expired = maxLifetimeMs > 0 && now - pooled.createdAt >= maxLifetimeMs;
+                boolean idleTooLong = idleTimeoutMs > 0 && now - pooled.lastUsedAt >= idleTimeoutMs && total > minIdle;
+                if (expired || idleTooLong) {
+                    it.remove();
+                    total--;
+                    destroyed++;
+                    evicted.add(pooled);
+                }
+            }
+            missing = Math.max(0, minIdle - idle.size() - active);
+            missing = Math.min(missing, maxSize - total);
+            total += missing;
+        } finally {
+            lock.unlock();
+        }
+        for (PooledConnection pooled : evicted) {
+            closeQuietly(pooled.physical);
+        }
+        for (int i = 0; i < missing; i++) {
+            PooledConnection fresh = null;
+            try {
+                fresh = new PooledConnection(DriverManager.getConnection(url, user, password));
+            } catch (SQLException e) {
+                logger.log(Level.FINE, "Connection pool refill failed", e);
+            }
+            lock.lock();
+            try {
+                if (fresh == null || closed) {
+                    total--;
+                    if (fresh != null) {
+                        closeQuietly(fresh.physical);
+                    }
+                    continue;
+                }
+                created++;
+                idle.offerLast(fresh);
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Snapshot of pool usage for sizing under load.
+     */
+    public Map<String, Object> stats() {
+        lock.lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("active", active);
+            stats.put("idle", idle.size());
+            stats.put("total", total);
+            stats.put("maxSize", maxSize);
+            stats.put("minIdle", minIdle);
+            stats.put("waiting", waiting);
+            stats.put("acquisitions", acquisitions);
+            stats.put("avgWaitMs", acquisitions == 0 ? 0.0 : totalWaitNanos / 1_000_000.0 / acquisitions);
+            stats.put("maxWaitMs", maxWaitNanos / 1_000_000.0);
+            stats.put("timeouts", timeouts);
+            stats.put("created", created);
+            stats.put("destroyed", destroyed);
+            stats.put("validationFailures", validationFailures);
+            return stats;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        housekeeper.shutdownNow();
+        Deque<PooledConnection> toClose;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            toClose = new ArrayDeque<>(idle);
+            total -= idle.size();
+            destroyed += idle.size();
+            idle.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        for (PooledConnection pooled : toClose) {
+            closeQuietly(pooled.physical);
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // already gone
+        }
+    }
+
+    /**
+     * Physical connection plus pool bookkeeping.
+     */
+    private final class PooledConnection {
+        final Connection physical;
+        final long createdAt = System.currentTimeMillis();
+        volatile long lastUsedAt = createdAt;
+        volatile boolean broken;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        Connection lease() {
+            return (Connection) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new Lease(this));
+        }
+    }
+
+    /**
+     * One borrow of a pooled connection. Closing it returns the connection
+     * exactly once; any further use fails like a closed connection would.
+     */
+    private final class Lease implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean returned;
+
+        Lease(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!returned) {
+                        returned = true;
+                        release(pooled);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return returned || pooled.physical.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "PooledConnection[" + pooled.physical + "]";
+                }
+                default -> {
+                    // fall through to the physical connection
+                }
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException sql && sql.getSQLState() != null && sql.getSQLState().startsWith("08")) {
+                    // Connection exception class: never hand this socket out again.
+                    pooled.broken = true;
+                }
+                throw cause;
+            }
+        }
+    }
+}
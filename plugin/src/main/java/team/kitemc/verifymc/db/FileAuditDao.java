@@ -2,61 +2,533 @@ package team.kitemc.verifymc.db;
 
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+/**
+ * File-backed audit log stored as time-based JSON-lines segments.
+ * <p>
+ * Records are appended to {@code audits/audits-YYYY-MM-DD.jsonl}, one JSON
+ * object per line, numbered in append order. Each segment has a small
+ * {@code .idx} sidecar holding its id/timestamp range and a sparse index with
+ * one entry per block of {@value #SPARSE_INTERVAL} records (byte offset, first
+ * id and timestamp range), so startup only reads the sidecars and queries seek
+ * straight to the blocks whose ids and timestamps they need.
+ * The newest {@value #TAIL_SIZE} records are also kept in memory.
+ * <p>
+ * Daily segments older than {@code compactAfterDays} are merged into monthly
+ * segments ({@code audits-YYYY-MM.jsonl}); segments entirely older than
+ * {@code retentionDays} are deleted. The single-file {@code audits.json} /
+ * {@code audits.jsonl} formats of earlier versions are migrated on first start.
+ */
 public class FileAuditDao implements AuditDao {
+    private static final int SPARSE_INTERVAL = 256;
+    private static final int TAIL_SIZE = 1000;
+    private static final Pattern SEGMENT_NAME = Pattern.compile("audits-(\\d{4}-\\d{2}(?:-\\d{2})?)\\.jsonl");
+
     private final File file;
-    private final List<AuditRecord> audits = new ArrayList<>();
+    private final File legacySegment;
+    private final File directory;
+    private final int retentionDays;
+    private final int compactAfterDays;
+    private final ZoneId zone = ZoneId.systemDefault();
     private final Gson gson = new Gson();
+    private final Logger logger;
+
+    // Guarded by this
+    private final List<Segment> segments = new ArrayList<>();
+    private final Deque<AuditRecord> tail = new ArrayDeque<>();
+    private long nextId = 1;
+    private Segment active;
+    private FileOutputStream activeFile;
+    private OutputStream activeOut;
 
     public FileAuditDao(File dataFile) {
+        this(dataFile, 0, 31, Logger.getLogger(FileAuditDao.class.getName()));
+    }
+
+    public FileAuditDao(File dataFile, int retentionDays, int compactAfterDays, Logger logger) {
         this.file = dataFile;
+        this.logger = logger;
+        String path = dataFile.getAbsolutePath();
+        this.legacySegment = new File((path.endsWith(".json") ? path.substring(0, path.length() - 5) : path) + ".jsonl");
+        this.directory = new File(dataFile.getParentFile(), "audits");
+        this.retentionDays = Math.max(0, retentionDays);
+        this.compactAfterDays = Math.max(1, compactAfterDays);
         load();
     }
 
     public synchronized void load() {
-        audits.clear();
-        if (!file.exists()) return;
+        closeActive();
+        segments.clear();
+        tail.clear();
+        if (!directory.exists() && !directory.mkdirs()) {
+            return;
+        }
+        migrateLegacy();
+        loadSegments();
+        maintain();
+        loadTail();
+    }
+
+    // ------------------------------------------------------------------
+    // Segments
+    // ------------------------------------------------------------------
+
+    /**
+     * One segment file plus its index. Ranges are inclusive.
+     */
+    private static final class Segment {
+        final File file;
+        final String period;
+        long size;
+        long count;
+        long firstId = -1;
+        long lastId = -1;
+        long minTs = Long.MAX_VALUE;
+        long maxTs = Long.MIN_VALUE;
+        // {byte offset, first id, min timestamp, max timestamp} per block of SPARSE_INTERVAL records
+        List<long[]> sparse = new ArrayList<>();
+
+        Segment(File file, String period) {
+            this.file = file;
+            this.period = period;
+        }
+
+        boolean isDaily() {
+            return period.length() == 10;
+        }
+
+        /**
+         * Last calendar day this segment can contain.
+         */
+        LocalDate lastDay() {
+            return isDaily() ? LocalDate.parse(period) : YearMonth.parse(period).atEndOfMonth();
+        }
+
+        File indexFile() {
+            return new File(file.getParentFile(), file.getName().replace(".jsonl", ".idx"));
+        }
+
+        void track(long offset, long lineBytes, AuditRecord audit) {
+            if (count % SPARSE_INTERVAL == 0) {
+                sparse.add(new long[]{offset, audit.id(), audit.timestamp(), audit.timestamp()});
+            } else {
+                long[] block = sparse.get(sparse.size() - 1);
+                block[2] = Math.min(block[2], audit.timestamp());
+                block[3] = Math.max(block[3], audit.timestamp());
+            }
+            if (firstId < 0) firstId = audit.id();
+            lastId = audit.id();
+            minTs = Math.min(minTs, audit.timestamp());
+            maxTs = Math.max(maxTs, audit.timestamp());
+            count++;
+            size = offset + lineBytes;
+        }
+
+        Segment snapshot() {
+            Segment copy = new Segment(file, period);
+            copy.size = size;
+            copy.count = count;
+            copy.firstId = firstId;
+            copy.lastId = lastId;
+            copy.minTs = minTs;
+            copy.maxTs = maxTs;
+            copy.sparse = new ArrayList<>(sparse);
+            if (!copy.sparse.isEmpty()) {
+                // The last block's timestamp range still grows while this segment is active.
+                int last = copy.sparse.size() - 1;
+                copy.sparse.set(last, copy.sparse.get(last).clone());
+            }
+            return copy;
+        }
+    }
+
+    /**
+     * On-disk form of a segment index.
+     */
+    private static final class SegmentIndex {
+        long size;
+        long count;
+        long firstId;
+        long lastId;
+        long minTs;
+        long maxTs;
+        List<long[]> sparse;
+    }
+
+    private Segment segmentFor(String period) {
+        return new Segment(new File(directory, "audits-" + period + ".jsonl"), period);
+    }
+
+    private void loadSegments() {
+        File[] files = directory.listFiles((dir, name) -> SEGMENT_NAME.matcher(name).matches());
+        if (files == null) return;
+        TreeMap<Long, Segment> byFirstId = new TreeMap<>();
+        for (File segmentFile : files) {
+            Matcher matcher = SEGMENT_NAME.matcher(segmentFile.getName());
+            if (!matcher.matches()) continue;
+            Segment segment = new Segment(segmentFile, matcher.group(1));
+            if (!readIndex(segment)) {
+                rebuildIndex(segment);
+                writeIndex(segment);
+            }
+            if (segment.count == 0) {
+                deleteSegment(segment);
+                continue;
+            }
+            byFirstId.put(segment.firstId, segment);
+        }
+        for (Segment segment : byFirstId.values()) {
+            Segment previous = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+            if (previous != null && segment.firstId <= previous.lastId) {
+                // Left behind by a compaction interrupted after the merged file was in place.
+                deleteSegment(segment);
+                continue;
+            }
+            segments.add(segment);
+        }
+        if (!segments.isEmpty()) {
+            nextId = segments.get(segments.size() - 1).lastId + 1;
+        }
+    }
 
-        List<AuditRecord> loaded = tryLoadAuditRecords();
-        if (loaded != null) {
-            audits.addAll(loaded);
+    private boolean readIndex(Segment segment) {
+        File indexFile = segment.indexFile();
+        if (!indexFile.exists()) return false;
+        try (Reader reader = Files.newBufferedReader(indexFile.toPath(), StandardCharsets.UTF_8)) {
+            SegmentIndex index = gson.fromJson(reader, SegmentIndex.class);
+            if (index == null || index.sparse == null || index.size != segment.file.length()) {
+                return false;
+            }
+            for (long[] entry : index.sparse) {
+                if (entry.length < 4) {
+                    // Written before blocks carried timestamps; rebuild it.
+                    return false;
+                }
+            }
+            segment.size = index.size;
+            segment.count = index.count;
+            segment.firstId = index.firstId;
+            segment.lastId = index.lastId;
+            segment.minTs = index.minTs;
+            segment.maxTs = index.maxTs;
+            segment.sparse = new ArrayList<>(index.sparse);
+            return true;
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Unreadable audit index " + indexFile.getName() + ", rebuilding it", e);
+            return false;
+        }
+    }
+
+    private void writeIndex(Segment segment) {
+        SegmentIndex index = new SegmentIndex();
+        index.size = segment.size;
+        index.count = segment.count;
+        index.firstId = segment.firstId;
+        index.lastId = segment.lastId;
+        index.minTs = segment.minTs;
+        index.maxTs = segment.maxTs;
+        index.sparse = segment.sparse;
+        File indexFile = segment.indexFile();
+        File temp = new File(indexFile.getAbsolutePath() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp.toPath(), StandardCharsets.UTF_8)) {
+            gson.toJson(index, writer);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to write audit index " + indexFile.getName(), e);
             return;
         }
+        moveReplacing(temp.toPath(), indexFile.toPath());
+    }
+
+    /**
+     * Scans a segment to rebuild its index. A torn trailing line is cut off.
+     */
+    private void rebuildIndex(Segment segment) {
+        segment.size = 0;
+        segment.count = 0;
+        segment.firstId = -1;
+        segment.lastId = -1;
+        segment.minTs = Long.MAX_VALUE;
+        segment.maxTs = Long.MIN_VALUE;
+        segment.sparse = new ArrayList<>();
+        long nextFallbackId = segments.isEmpty() ? 1 : segments.get(segments.size() - 1).lastId + 1;
+        long[] fallback = {nextFallbackId};
+        try {
+            scan(segment.file, 0, segment.file.length(), (offset, length, line) -> {
+                AuditRecord audit = parse(line);
+                if (audit == null) return;
+                if (audit.id() == null) {
+                    audit = withId(audit, fallback[0]);
+                }
+                fallback[0] = audit.id() + 1;
+                segment.track(offset, length, audit);
+            });
+        } catch (IOException e) {
+            // keep what was readable
+            logger.log(Level.WARNING, "Failed to read audit segment " + segment.file.getName()
+                    + ", keeping the " + segment.count + " records read so far", e);
+        }
+        truncate(segment.file, segment.size);
+    }
+
+    /**
+     * Cuts {@code target} back to {@code size} bytes if it is longer.
+     *
+     * @return false if the file could not be truncated
+     */
+    private boolean truncate(File target, long size) {
+        if (!target.exists() || target.length() <= size) {
+            return true;
+        }
+        try (FileChannel channel = FileChannel.open(target.toPath(), StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+            return true;
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to truncate audit segment " + target.getName() + " to " + size + " bytes", e);
+            return false;
+        }
+    }
+
+    private void deleteSegment(Segment segment) {
+        try {
+            Files.deleteIfExists(segment.file.toPath());
+            Files.deleteIfExists(segment.indexFile().toPath());
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to delete audit segment " + segment.file.getName(), e);
+        }
+    }
 
-        List<Map<String, Object>> legacy = tryLoadLegacyMaps();
-        if (legacy == null) {
+    private void loadTail() {
+        for (int i = segments.size() - 1; i >= 0 && tail.size() < TAIL_SIZE; i--) {
+            Segment segment = segments.get(i);
+            for (int block = segment.sparse.size() - 1; block >= 0 && tail.size() < TAIL_SIZE; block--) {
+                List<AuditRecord> records = readBlock(segment, block);
+                for (int j = records.size() - 1; j >= 0 && tail.size() < TAIL_SIZE; j--) {
+                    tail.addFirst(records.get(j));
+                }
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // Retention and compaction
+    // ------------------------------------------------------------------
+
+    /**
+     * Applies retention and merges old daily segments into monthly ones.
+     * Runs on load and whenever the active segment rolls over to a new day.
+     */
+    private void maintain() {
+        LocalDate today = LocalDate.now(zone);
+        if (retentionDays > 0) {
+            LocalDate cutoff = today.minusDays(retentionDays);
+            segments.removeIf(segment -> {
+                if (segment != active && segment.lastDay().isBefore(cutoff)) {
+                    deleteSegment(segment);
+                    return true;
+                }
+                return false;
+            });
+        }
+
+        LocalDate compactBefore = today.minusDays(compactAfterDays);
+        Map<String, List<Segment>> byMonth = new TreeMap<>();
+        for (Segment segment : segments) {
+            if (segment.isDaily() && segment != active && segment.lastDay().isBefore(compactBefore)) {
+                byMonth.computeIfAbsent(segment.period.substring(0, 7), k -> new ArrayList<>()).add(segment);
+            }
+        }
+        for (Map.Entry<String, List<Segment>> entry : byMonth.entrySet()) {
+            compactMonth(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void compactMonth(String month, List<Segment> dailies) {
+        Segment monthly = null;
+        for (Segment segment : segments) {
+            if (segment.period.equals(month)) {
+                monthly = segment;
+            }
+        }
+        Segment merged = monthly != null ? monthly.snapshot() : segmentFor(month);
+        File temp = new File(merged.file.getAbsolutePath() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            if (monthly != null) {
+                copy(monthly.file, out);
+            }
+            for (Segment daily : dailies) {
+                long base = out.position();
+                copy(daily.file, out);
+                for (long[] entry : daily.sparse) {
+                    merged.sparse.add(new long[]{base + entry[0], entry[1], entry[2], entry[3]});
+                }
+                if (merged.firstId < 0) merged.firstId = daily.firstId;
+                merged.lastId = daily.lastId;
+                merged.minTs = Math.min(merged.minTs, daily.minTs);
+                merged.maxTs = Math.max(merged.maxTs, daily.maxTs);
+                merged.count += daily.count;
+                merged.size = out.position();
+            }
+            out.force(true);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to compact audit segments for " + month, e);
+            try {
+                Files.deleteIfExists(temp.toPath());
+            } catch (IOException deleteFailure) {
+                logger.log(Level.WARNING, "Failed to delete " + temp.getName(), deleteFailure);
+            }
             return;
         }
+        if (!moveReplacing(temp.toPath(), merged.file.toPath())) {
+            // Keep the daily segments; the next maintenance pass tries again.
+            return;
+        }
+        writeIndex(merged);
+        for (Segment daily : dailies) {
+            deleteSegment(daily);
+        }
+        segments.removeAll(dailies);
+        if (monthly != null) {
+            segments.set(segments.indexOf(monthly), merged);
+        } else {
+            segments.add(merged);
+            segments.sort((a, b) -> Long.compare(a.firstId, b.firstId));
+        }
+    }
 
-        for (Map<String, Object> item : legacy) {
-            audits.add(mapToRecord(item));
+    private static void copy(File source, FileChannel out) throws IOException {
+        try (FileChannel in = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+            long position = 0;
+            long length = in.size();
+            while (position < length) {
+                position += in.transferTo(position, length - position, out);
+            }
         }
-        save();
     }
 
-    private List<AuditRecord> tryLoadAuditRecords() {
-        try (Reader reader = new FileReader(file)) {
-            return gson.fromJson(reader, new TypeToken<List<AuditRecord>>() {}.getType());
-        } catch (Exception ignored) {
-            return null;
+    private boolean moveReplacing(Path source, Path target) {
+        try {
+            try {
+                Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return true;
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to move " + source.getFileName() + " to " + target.getFileName(), e);
+            return false;
         }
     }
 
-    private List<Map<String, Object>> tryLoadLegacyMaps() {
-        try (Reader reader = new FileReader(file)) {
-            return gson.fromJson(reader, new TypeToken<List<Map<String, Object>>>() {}.getType());
-        } catch (Exception ignored) {
-            return null;
+    // ------------------------------------------------------------------
+    // Legacy migration
+    // ------------------------------------------------------------------
+
+    /**
+     * Streams {@code audits.json} (record or legacy map array) and the interim
+     * {@code audits.jsonl} into segments, then renames them to {@code *.migrated}.
+     */
+    private void migrateLegacy() {
+        boolean hasJson = file.exists();
+        boolean hasJsonl = legacySegment.exists();
+        if (!hasJson && !hasJsonl) return;
+
+        Segment[] current = {null};
+        OutputStream[] out = {null};
+        long[] id = {1};
+        Consumer<AuditRecord> sink = audit -> {
+            try {
+                String period = LocalDate.ofInstant(Instant.ofEpochMilli(audit.timestamp()), zone).toString();
+                // Records only move forward in time between files so ids stay ascending across segments.
+                if (current[0] == null || period.compareTo(current[0].period) > 0) {
+                    closeMigrationSegment(current[0], out[0]);
+                    current[0] = segmentFor(period);
+                    out[0] = new BufferedOutputStream(new FileOutputStream(current[0].file, true));
+                    current[0].size = current[0].file.length();
+                }
+                AuditRecord numbered = withId(audit, id[0]++);
+                byte[] line = (gson.toJson(numbered) + "\n").getBytes(StandardCharsets.UTF_8);
+                out[0].write(line);
+                current[0].track(current[0].size, line.length, numbered);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        try {
+            if (hasJson) {
+                try (JsonReader reader = new JsonReader(Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8))) {
+                    if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            Map<String, Object> item = gson.fromJson(reader, new TypeToken<Map<String, Object>>() {}.getType());
+                            if (item != null) sink.accept(mapToRecord(item));
+                        }
+                    }
+                }
+            }
+            if (hasJsonl) {
+                scan(legacySegment, 0, legacySegment.length(), (offset, length, line) -> {
+                    AuditRecord audit = parse(line);
+                    if (audit != null) sink.accept(audit);
+                });
+            }
+            closeMigrationSegment(current[0], out[0]);
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Failed to migrate legacy audit log, keeping the original files", e);
+            closeMigrationSegment(current[0], out[0]);
+            return;
+        }
+        if (hasJson) moveReplacing(file.toPath(), new File(file.getAbsolutePath() + ".migrated").toPath());
+        if (hasJsonl) moveReplacing(legacySegment.toPath(), new File(legacySegment.getAbsolutePath() + ".migrated").toPath());
+    }
+
+    private void closeMigrationSegment(Segment segment, OutputStream out) {
+        if (segment == null || out == null) return;
+        try {
+            out.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to close migrated audit segment " + segment.file.getName(), e);
         }
+        writeIndex(segment);
     }
 
     private AuditRecord mapToRecord(Map<String, Object> map) {
@@ -86,26 +558,256 @@ public class FileAuditDao implements AuditDao {
         }
     }
 
+    // ------------------------------------------------------------------
+    // Reading
+    // ------------------------------------------------------------------
+
+    private interface LineConsumer {
+        void accept(long offset, long length, String line) throws IOException;
+    }
+
+    /**
+     * Reads complete lines in {@code [start, end)}, reporting each line's byte offset.
+     * A trailing line without its newline (torn write) is not reported.
+     */
+    private static void scan(File source, long start, long end, LineConsumer consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+            channel.position(start);
+            InputStream in = new BufferedInputStream(Channels.newInputStream(channel), 64 * 1024);
+            ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+            long position = start;
+            long lineStart = start;
+            int b;
+            while (position < end && (b = in.read()) != -1) {
+                position++;
+                if (b == '\n') {
+                    String text = line.toString(StandardCharsets.UTF_8);
+                    if (!text.isBlank()) {
+                        consumer.accept(lineStart, position - lineStart, text);
+                    }
+                    line.reset();
+                    lineStart = position;
+                } else {
+                    line.write(b);
+                }
+            }
+        }
+    }
+
+    private AuditRecord parse(String line) {
+        try {
+            return gson.fromJson(line, AuditRecord.class);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private List<AuditRecord> readBlock(Segment segment, int block) {
+        long start = segment.sparse.get(block)[0];
+        long end = block + 1 < segment.sparse.size() ? segment.sparse.get(block + 1)[0] : segment.size;
+        List<AuditRecord> records = new ArrayList<>(SPARSE_INTERVAL);
+        try {
+            scan(segment.file, start, end, (offset, length, line) -> {
+                AuditRecord audit = parse(line);
+                if (audit != null) records.add(audit);
+            });
+        } catch (NoSuchFileException e) {
+            // segment removed by retention while reading
+            logger.log(Level.FINE, "Audit segment " + segment.file.getName() + " removed while reading");
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to read audit segment " + segment.file.getName(), e);
+        }
+        return records;
+    }
+
+    private static AuditRecord withId(AuditRecord audit, long id) {
+        return new AuditRecord(id, audit.action(), audit.operator(), audit.target(), audit.detail(), audit.timestamp());
+    }
+
+    // ------------------------------------------------------------------
+    // Writing
+    // ------------------------------------------------------------------
+
+    private OutputStream activeOut() throws IOException {
+        String today = LocalDate.now(zone).toString();
+        if (active != null && !active.period.equals(today)) {
+            closeActive();
+            maintain();
+        }
+        if (activeOut == null) {
+            Segment last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+            if (last != null && last.period.equals(today)) {
+                active = last;
+            } else {
+                active = segmentFor(today);
+                segments.add(active);
+            }
+            activeFile = new FileOutputStream(active.file, true);
+            activeOut = new BufferedOutputStream(activeFile);
+        }
+        return activeOut;
+    }
+
+    private void closeActive() {
+        if (activeOut != null) {
+            try {
+                activeOut.close();
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Failed to close audit segment " + active.file.getName(), e);
+            }
+            activeOut = null;
+            activeFile = null;
+        }
+        if (active != null) {
+            if (active.count > 0) {
+                writeIndex(active);
+            } else {
+                segments.remove(active);
+                deleteSegment(active);
+            }
+            active = null;
+        }
+    }
+
     @Override
     public synchronized void save() {
-        try (Writer writer = new FileWriter(file)) {
-            gson.toJson(audits, writer);
-        } catch (Exception ignored) {}
+        if (activeOut == null) return;
+        try {
+            activeOut.flush();
+            activeFile.getFD().sync();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to sync audit segment " + active.file.getName(), e);
+        }
+        writeIndex(active);
     }
 
     @Override
-    public synchronized void addAudit(AuditRecord audit) {
-        audits.add(audit);
-        save();
+    public void addAudit(AuditRecord audit) {
+        addAudits(List.of(audit));
+    }
+
+    /**
+     * Appends the batch and only then indexes it. If the write fails the
+     * segment is cut back to its last complete batch and the failure is
+     * rethrown, so callers never count records that did not reach the file.
+     */
+    @Override
+    public synchronized void addAudits(List<AuditRecord> batch) {
+        if (batch.isEmpty()) return;
+        Segment target = null;
+        long goodSize = 0;
+        try {
+            OutputStream out = activeOut();
+            target = active;
+            goodSize = active.size;
+            List<AuditRecord> numbered = new ArrayList<>(batch.size());
+            List<byte[]> lines = new ArrayList<>(batch.size());
+            long id = nextId;
+            for (AuditRecord audit : batch) {
+                AuditRecord record = withId(audit, id++);
+                byte[] line = (gson.toJson(record) + "\n").getBytes(StandardCharsets.UTF_8);
+                out.write(line);
+                numbered.add(record);
+                lines.add(line);
+            }
+            out.flush();
+            nextId = id;
+            for (int i = 0; i < numbered.size(); i++) {
+                active.track(active.size, lines.get(i).length, numbered.get(i));
+                tail.addLast(numbered.get(i));
+                if (tail.size() > TAIL_SIZE) {
+                    tail.removeFirst();
+                }
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to write " + batch.size() + " audit records", e);
+            closeActive();
+            if (target != null && !truncate(target.file, goodSize)) {
+                // Part of the batch may be on disk and will be indexed on the next load; keep its ids unused.
+                nextId += batch.size();
+            }
+            throw new UncheckedIOException("Failed to write " + batch.size() + " audit records", e);
+        }
     }
 
     @Override
-    public synchronized List<AuditRecord> getAllAudits() {
-        return new ArrayList<>(audits);
+    public List<AuditRecord> getAllAudits() {
+        List<Segment> snapshot;
+        synchronized (this) {
+            snapshot = snapshotSegments();
+        }
+        List<AuditRecord> result = new ArrayList<>();
+        for (Segment segment : snapshot) {
+            for (int block = 0; block < segment.sparse.size(); block++) {
+                result.addAll(readBlock(segment, block));
+            }
+        }
+        return result;
+    }
+
+    private List<Segment> snapshotSegments() {
+        List<Segment> snapshot = new ArrayList<>(segments.size());
+        for (Segment segment : segments) {
+            snapshot.add(segment.snapshot());
+        }
+        return snapshot;
     }
 
+    /**
+     * Serves the newest records from the in-memory tail, then walks segments and
+     * their sparse blocks backwards from the cursor, skipping segments and
+     * blocks whose id or time range cannot match. Records are in append (id) order, so the
+     * cursor's id alone positions the page.
+     */
     @Override
-    public void close() {
-        // File-based storage: no resources to close
+    public List<AuditRecord> queryAudits(AuditQuery query) {
+        List<Segment> snapshot;
+        List<AuditRecord> tailSnapshot;
+        long tailStart;
+        synchronized (this) {
+            snapshot = snapshotSegments();
+            tailSnapshot = new ArrayList<>(tail);
+            tailStart = tail.isEmpty() ? nextId : tail.peekFirst().id();
+        }
+        long upper = query.before() == null ? Long.MAX_VALUE : query.before().id();
+        List<AuditRecord> result = new ArrayList<>();
+        if (query.limit() == 0) return result;
+
+        for (int i = tailSnapshot.size() - 1; i >= 0; i--) {
+            AuditRecord audit = tailSnapshot.get(i);
+            if (audit.id() < upper && query.matches(audit)) {
+                result.add(audit);
+                if (result.size() >= query.limit()) return result;
+            }
+        }
+
+        upper = Math.min(upper, tailStart);
+        for (int i = snapshot.size() - 1; i >= 0; i--) {
+            Segment segment = snapshot.get(i);
+            if (segment.count == 0 || segment.firstId >= upper) continue;
+            if (query.from() != null && segment.maxTs < query.from()) continue;
+            if (query.to() != null && segment.minTs >= query.to()) continue;
+            for (int block = segment.sparse.size() - 1; block >= 0; block--) {
+                long[] entry = segment.sparse.get(block);
+                if (entry[1] >= upper) continue;
+                if (query.from() != null && entry[3] < query.from()) continue;
+                if (query.to() != null && entry[2] >= query.to()) continue;
+                List<AuditRecord> records = readBlock(segment, block);
+                for (int j = records.size() - 1; j >= 0; j--) {
+                    AuditRecord audit = records.get(j);
+                    if (audit.id() < upper && query.matches(audit)) {
+                        result.add(audit);
+                        if (result.size() >= query.limit()) return result;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void close() {
+        save();
+        closeActive();
     }
 }
@@ -1,18 +1,61 @@
 package team.kitemc.verifymc.db;
 
 import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import com.google.gson.reflect.TypeToken;
-import com.google.gson.Gson;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.logging.Level;
 import team.kitemc.verifymc.util.PasswordUtil;
 
+/**
+ * File-backed user storage.
+ * <p>
+ * {@code users.json} holds a compacted snapshot; every mutation is appended to
+ * {@code users.json.journal} by a write-behind {@link UserJournal} and the
+ * snapshot is rewritten in the background once the journal grows or ages.
+ * Users are held as immutable {@link UserRecord}s: each mutation swaps in a
+ * new record, so readers and the compactor always see a consistent user.
+ * Both files are read and written with the streaming {@link UserRecordCodec}.
+ */
 public class FileUserDao implements UserDao {
     private final File file;
-    private final Map<String, Map<String, Object>> users = new ConcurrentHashMap<>();
-    private final Gson gson = new Gson();
+    private final Path journalPath;
+    private final Path compactingPath;
+    private final Map<String, UserRecord> users = new ConcurrentHashMap<>();
+    // Secondary indexes onto user keys, maintained under writeLock together with users.
+    private final Map<String, Set<String>> emailIndex = new ConcurrentHashMap<>();
+    private final Map<String, String> discordIdIndex = new ConcurrentHashMap<>();
+    // Admin listing order (newest first), overall, per lower-cased status and for non-pending users.
+    private final NavigableSet<OrderKey> allOrder = new ConcurrentSkipListSet<>();
+    private final Map<String, NavigableSet<OrderKey>> statusOrder = new ConcurrentHashMap<>();
+    private final NavigableSet<OrderKey> approvedOrder = new ConcurrentSkipListSet<>();
+    private final AtomicInteger approvedCount = new AtomicInteger();
     private final boolean debug;
     private final org.bukkit.plugin.Plugin plugin;
+    // Guards in-memory mutation + journal ordering. Appends only enqueue; the one
+    // blocking I/O under it is the journal rotation (fsync + move) in compact(),
+    // which has to be atomic with taking the snapshot.
+    private final Object writeLock = new Object();
+    private final Object compactLock = new Object();
+    private final AtomicBoolean compactionQueued = new AtomicBoolean(false);
+    private final long compactThresholdBytes;
+    private UserJournal journal;
+    private ScheduledExecutorService compactor;
+    // Set when users.json could not be read and not be moved aside; it is then never overwritten.
+    private volatile boolean snapshotProtected;
+    // Set when a journal batch failed: those mutations live only in memory until the next snapshot.
+    private volatile boolean snapshotDirty;
 
     public FileUserDao(File dataFile, org.bukkit.plugin.Plugin plugin) {
         this.plugin = plugin;
@@ -31,164 +74,440 @@ public class FileUserDao implements UserDao {
         }
 
         this.file = dataFile;
+        this.journalPath = new File(dataFile.getAbsolutePath() + ".journal").toPath();
+        this.compactingPath = new File(dataFile.getAbsolutePath() + ".journal.compacting").toPath();
+        this.compactThresholdBytes = plugin.getConfig().getLong("file_storage.compact_threshold_bytes", 4L * 1024 * 1024);
         load();
+        startJournal();
     }
 
     private void debugLog(String msg) {
         if (debug && plugin != null) plugin.getLogger().info("[DEBUG] FileUserDao: " + msg);
     }
     
-    private Long getRegTimeAsLong(Object regTimeValue) {
-        if (regTimeValue == null) {
-            return null;
+    private void startJournal() {
+        long commitIntervalMs = plugin.getConfig().getLong("file_storage.commit_interval_ms", 50L);
+        long compactIntervalSeconds = plugin.getConfig().getLong("file_storage.compact_interval_seconds", 300L);
+        try {
+            journal = openJournal(journalPath, commitIntervalMs);
+            journal.setCommitListener(this::onJournalCommit);
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to open user journal, falling back to full snapshot writes", e);
+            journal = null;
         }
-        if (regTimeValue instanceof Long) {
-            return (Long) regTimeValue;
+        compactor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "VerifyMC-UserCompactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (compactIntervalSeconds > 0) {
+            compactor.scheduleWithFixedDelay(this::compactQuietly, compactIntervalSeconds, compactIntervalSeconds, TimeUnit.SECONDS);
         }
-        if (regTimeValue instanceof Double) {
-            return ((Double) regTimeValue).longValue();
+    }
+
+    UserJournal openJournal(Path path, long commitIntervalMs) throws IOException {
+        return new UserJournal(path, commitIntervalMs, plugin.getLogger());
+    }
+
+    private void onJournalCommit(long journalBytes, boolean failed) {
+        // A failed append is repaired by the next snapshot, which captures the in-memory state.
+        if (failed) {
+            snapshotDirty = true;
         }
-        if (regTimeValue instanceof Number) {
-            return ((Number) regTimeValue).longValue();
+        if ((failed || journalBytes >= compactThresholdBytes) && compactionQueued.compareAndSet(false, true)) {
+            compactor.execute(this::compactQuietly);
         }
+    }
+
+    private void compactQuietly() {
+        compactionQueued.set(false);
         try {
-            return Long.parseLong(regTimeValue.toString());
-        } catch (NumberFormatException e) {
-            debugLog("Failed to convert regTime to Long: " + regTimeValue + ", error: " + e.getMessage());
-            return 0L;
+            compact();
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.WARNING, "User snapshot compaction failed", e);
         }
     }
 
     public synchronized void load() {
         debugLog("Loading users from: " + file.getAbsolutePath());
+        boolean hasUpgraded = false;
+        boolean snapshotFailed = false;
         if (!file.exists()) {
             debugLog("File does not exist, creating new user database");
+        } else {
+            try (Reader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), java.nio.charset.StandardCharsets.UTF_8))) {
+                hasUpgraded = UserRecordCodec.readSnapshot(reader, users::put);
+                debugLog("Loaded " + users.size() + " users from database");
+            } catch (Exception e) {
+                snapshotFailed = true;
+                plugin.getLogger().log(Level.SEVERE, "Failed to read user database " + file.getName()
+                        + ", continuing with the " + users.size() + " users read before the error", e);
+                preserveUnreadableSnapshot();
+            }
+        }
+
+        // Crash recovery: replay mutations that had not been compacted into the snapshot yet.
+        // The journal stores whole records, so replaying an entry twice is harmless.
+        int replayed = replayJournal(compactingPath) + replayJournal(journalPath);
+        if (replayed > 0) {
+            debugLog("Replayed " + replayed + " journal entries");
+        }
+        rebuildIndexes();
+
+        if (snapshotFailed) {
+            // Keep the journals: together with the preserved snapshot they are all that is left to recover from.
             return;
         }
-        try (Reader reader = new FileReader(file)) {
-            Map<String, Map<String, Object>> loaded = gson.fromJson(reader, new TypeToken<Map<String, Map<String, Object>>>(){}.getType());
-            if (loaded != null) {
-                boolean hasUpgraded = false;
-                for (Map.Entry<String, Map<String, Object>> entry : loaded.entrySet()) {
-                    Map<String, Object> user = entry.getValue();
-                    if (user != null) {
-                        if (!user.containsKey("password")) {
-                            user.put("password", null);
-                            hasUpgraded = true;
-                            debugLog("Added missing password field for user: " + user.get("username"));
-                        }
-                        
-                        if (!user.containsKey("regTime")) {
-                            user.put("regTime", System.currentTimeMillis());
-                            hasUpgraded = true;
-                            debugLog("Added missing regTime field for user: " + user.get("username"));
-                        }
-                        
-                        if (!user.containsKey("discordId") && !user.containsKey("discord_id")) {
-                            user.put("discordId", null);
-                            hasUpgraded = true;
-                            debugLog("Added missing discordId field for user: " + user.get("username"));
-                        }
-                        if (user.containsKey("discord_id") && !user.containsKey("discordId")) {
-                            user.put("discordId", user.remove("discord_id"));
-                            hasUpgraded = true;
-                        }
+        if (hasUpgraded || replayed > 0) {
+            debugLog("Data format upgraded or journal replayed, writing fresh snapshot");
+            writeSnapshot(new HashMap<>(users));
+            deleteQuietly(compactingPath);
+            deleteQuietly(journalPath);
+        }
+    }
 
-                        if (!user.containsKey("questionnaireScore") && !user.containsKey("questionnaire_score")) {
-                            user.put("questionnaireScore", null);
-                            hasUpgraded = true;
-                        }
-                        if (user.containsKey("questionnaire_score") && !user.containsKey("questionnaireScore")) {
-                            user.put("questionnaireScore", user.remove("questionnaire_score"));
-                            hasUpgraded = true;
-                        }
-                        if (!user.containsKey("questionnairePassed") && !user.containsKey("questionnaire_passed")) {
-                            user.put("questionnairePassed", null);
-                            hasUpgraded = true;
-                        }
-                        if (user.containsKey("questionnaire_passed") && !user.containsKey("questionnairePassed")) {
-                            user.put("questionnairePassed", user.remove("questionnaire_passed"));
-                            hasUpgraded = true;
-                        }
-                        if (!user.containsKey("questionnaireReviewSummary") && !user.containsKey("questionnaire_review_summary")) {
-                            user.put("questionnaireReviewSummary", null);
-                            hasUpgraded = true;
-                        }
-                        if (user.containsKey("questionnaire_review_summary") && !user.containsKey("questionnaireReviewSummary")) {
-                            user.put("questionnaireReviewSummary", user.remove("questionnaire_review_summary"));
-                            hasUpgraded = true;
-                        }
-                        if (!user.containsKey("questionnaireScoredAt") && !user.containsKey("questionnaire_scored_at")) {
-                            user.put("questionnaireScoredAt", null);
-                            hasUpgraded = true;
+    /**
+     * Moves an unreadable {@code users.json} aside so later snapshots cannot
+     * overwrite it. If that fails the file stays in place and snapshot writes
+     * are disabled instead.
+     */
+    private void preserveUnreadableSnapshot() {
+        Path backup = new File(file.getAbsolutePath() + ".corrupt-" + System.currentTimeMillis()).toPath();
+        try {
+            Files.move(file.toPath(), backup);
+            plugin.getLogger().severe("Moved the unreadable user database to " + backup.getFileName()
+                    + "; restore it manually once repaired");
+        } catch (IOException e) {
+            snapshotProtected = true;
+            plugin.getLogger().log(Level.SEVERE, "Failed to move the unreadable user database aside; "
+                    + file.getName() + " will not be overwritten until the next restart", e);
+        }
+    }
+
+    private int replayJournal(Path path) {
+        int[] applied = {0};
+        try {
+            UserJournal.replay(path, line -> {
+                try {
+                    UserRecordCodec.readJournalEntry(line, new UserRecordCodec.JournalSink() {
+                        @Override
+                        public void put(String key, UserRecord user) {
+                            users.put(key, user);
+                            applied[0]++;
                         }
-                        if (user.containsKey("questionnaire_scored_at") && !user.containsKey("questionnaireScoredAt")) {
-                            user.put("questionnaireScoredAt", user.remove("questionnaire_scored_at"));
-                            hasUpgraded = true;
+
+                        @Override
+                        public void delete(String key) {
+                            users.remove(key);
+                            applied[0]++;
                         }
-                    }
+                    });
+                } catch (Exception e) {
+                    // Torn trailing write from a crash; everything before it is intact.
+                    plugin.getLogger().warning("Skipping unreadable user journal entry in " + path.getFileName() + ": " + e.getMessage());
                 }
-                
-                users.putAll(loaded);
-                debugLog("Loaded " + loaded.size() + " users from database");
-                
-                if (hasUpgraded) {
-                    debugLog("Data format upgraded, saving updated data");
-                    save();
+            });
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to replay user journal " + path, e);
+        }
+        return applied[0];
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            debugLog("Warning: failed to delete " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Makes every mutation so far durable. With the journal this is a single
+     * group-commit fsync; the snapshot itself is rewritten by {@link #compact()}.
+     */
+    @Override
+    public void save() {
+        if (journal == null) {
+            compact();
+            return;
+        }
+        journal.flush();
+    }
+
+    /**
+     * Rewrites {@code users.json} from memory and truncates the journal.
+     */
+    public void compact() {
+        if (snapshotProtected) {
+            // Changes stay in the journal until the preserved snapshot is repaired.
+            debugLog("Skipping compaction, " + file.getName() + " is being preserved");
+            return;
+        }
+        synchronized (compactLock) {
+            Map<String, UserRecord> snapshot;
+            boolean dirty;
+            synchronized (writeLock) {
+                dirty = snapshotDirty;
+                if (journal != null) {
+                    if (journal.size() == 0 && !Files.exists(compactingPath) && !dirty) {
+                        return;
+                    }
+                    try {
+                        journal.rotate(compactingPath);
+                    } catch (IOException e) {
+                        plugin.getLogger().log(Level.WARNING, "Failed to rotate user journal", e);
+                        return;
+                    }
                 }
-            } else {
-                debugLog("No users found in database");
+                snapshot = new HashMap<>(users);
+                // A batch failing after this point sets the flag again for the next compaction.
+                snapshotDirty = false;
+            }
+            if (writeSnapshot(snapshot)) {
+                deleteQuietly(compactingPath);
+            } else if (dirty) {
+                snapshotDirty = true;
             }
-        } catch (Exception e) {
-            debugLog("Error loading users: " + e.getMessage());
         }
     }
 
-    @Override
-    public synchronized void save() {
-        debugLog("Saving " + users.size() + " users to: " + file.getAbsolutePath());
+    private boolean writeSnapshot(Map<String, UserRecord> snapshot) {
+        debugLog("Saving " + snapshot.size() + " users to: " + file.getAbsolutePath());
         
         // Use temporary file for atomic write operation
         File tempFile = new File(file.getAbsolutePath() + ".tmp");
         
-        try (Writer writer = new FileWriter(tempFile)) {
-            gson.toJson(users, writer);
-            writer.flush();
-            
+        try {
+            UserRecordCodec.writeSnapshot(tempFile.toPath(), snapshot);
+        } catch (Exception e) {
+            debugLog("Error saving users: " + e.getMessage());
+            // Clean up temp file if it exists
+            if (tempFile.exists() && !tempFile.delete()) {
+                debugLog("Warning: failed to delete temporary file after error: " + tempFile.getAbsolutePath());
+            }
+            return false;
+        }
+
+        try {
             // Atomic rename: tempFile -> target file
-            if (!tempFile.renameTo(file)) {
-                // If rename fails (e.g., cross-filesystem), try copy and delete
-                debugLog("Atomic rename failed, falling back to copy");
-                try (java.io.InputStream in = new FileInputStream(tempFile);
-                     java.io.OutputStream out = new FileOutputStream(file)) {
-                    byte[] buffer = new byte[8192];
-                    int bytesRead;
-                    while ((bytesRead = in.read(buffer)) != -1) {
-                        out.write(buffer, 0, bytesRead);
-                    }
-                }
-                if (!tempFile.delete()) {
-                    debugLog("Warning: failed to delete temporary file: " + tempFile.getAbsolutePath());
-                }
+            try {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                debugLog("Atomic rename not supported, falling back to replace");
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
             }
-            
             debugLog("Save successful");
-        } catch (Exception e) {
+            return true;
+        } catch (IOException e) {
             debugLog("Error saving users: " + e.getMessage());
-            // Clean up temp file if it exists
             if (tempFile.exists() && !tempFile.delete()) {
                 debugLog("Warning: failed to delete temporary file after error: " + tempFile.getAbsolutePath());
             }
+            return false;
         }
     }
 
+    /**
+     * Records a stored user in the journal. Must be called under {@link #writeLock}
+     * so journal order always matches the order mutations became visible.
+     */
+    private void journalPut(String key, UserRecord user) {
+        appendJournal(key, UserRecordCodec.journalPut(key, user));
+    }
+
+    private void journalDelete(String key) {
+        appendJournal(key, UserRecordCodec.journalDelete(key));
+    }
+
+    private void appendJournal(String key, String entry) {
+        if (journal == null) {
+            compactionQueued.set(true);
+            compactor.execute(this::compactQuietly);
+            return;
+        }
+        try {
+            journal.append(entry);
+        } catch (IllegalStateException e) {
+            plugin.getLogger().warning("User journal already closed, mutation kept in memory only: " + key);
+        }
+    }
+
+    /**
+     * Position of a user in the admin listing: newest registration first, ties
+     * broken by user key (descending, matching {@link UserCursor}) so every user
+     * has exactly one slot.
+     */
+    private record OrderKey(long regTime, String key) implements Comparable<OrderKey> {
+        @Override
+        public int compareTo(OrderKey other) {
+            int byTime = Long.compare(other.regTime, regTime);
+            return byTime != 0 ? byTime : other.key.compareTo(key);
+        }
+    }
 
-    private void applyQuestionnaireAuditFields(Map<String, Object> user, Integer questionnaireScore, Boolean questionnairePassed,
-                                               String questionnaireReviewSummary, Long questionnaireScoredAt) {
-        user.put("questionnaireScore", questionnaireScore);
-        user.put("questionnairePassed", questionnairePassed);
-        user.put("questionnaireReviewSummary", questionnaireReviewSummary);
-        user.put("questionnaireScoredAt", questionnaireScoredAt);
+    private static OrderKey orderKey(String key, UserRecord user) {
+        return new OrderKey(user.regTime(), key);
+    }
+
+    private static String statusKey(UserRecord user) {
+        return user == null ? "" : UserStatus.toValue(user.status());
+    }
+
+    private static boolean isApproved(UserRecord user) {
+        return !user.isPending();
+    }
+
+    private static String emailKey(UserRecord user) {
+        String email = user.email();
+        return email == null || email.isEmpty() ? null : email.toLowerCase();
+    }
+
+    private void rebuildIndexes() {
+        synchronized (writeLock) {
+            emailIndex.clear();
+            discordIdIndex.clear();
+            allOrder.clear();
+            statusOrder.clear();
+            approvedOrder.clear();
+            approvedCount.set(0);
+            for (Map.Entry<String, UserRecord> entry : users.entrySet()) {
+                index(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private void index(String key, UserRecord user) {
+        String email = emailKey(user);
+        if (email != null) {
+            emailIndex.computeIfAbsent(email, k -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+        String discordId = user.discordId();
+        if (discordId != null) {
+            discordIdIndex.put(discordId, key);
+        }
+        OrderKey order = orderKey(key, user);
+        allOrder.add(order);
+        statusOrder.computeIfAbsent(statusKey(user), k -> new ConcurrentSkipListSet<>()).add(order);
+        if (isApproved(user) && approvedOrder.add(order)) {
+            approvedCount.incrementAndGet();
+        }
+    }
+
+    private void unindex(String key, UserRecord previous, UserRecord current) {
+        String email = emailKey(previous);
+        if (email != null && (current == null || !email.equals(emailKey(current)))) {
+            emailIndex.computeIfPresent(email, (k, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+        String discordId = previous.discordId();
+        if (discordId != null && (current == null || !discordId.equals(current.discordId()))) {
+            discordIdIndex.remove(discordId, key);
+        }
+        OrderKey order = orderKey(key, previous);
+        boolean sameOrder = current != null && order.equals(orderKey(key, current));
+        if (!sameOrder) {
+            allOrder.remove(order);
+        }
+        if (!sameOrder || !statusKey(previous).equals(statusKey(current))) {
+            NavigableSet<OrderKey> byStatus = statusOrder.get(statusKey(previous));
+            if (byStatus != null) {
+                byStatus.remove(order);
+            }
+        }
+        if (isApproved(previous) && (!sameOrder || !isApproved(current)) && approvedOrder.remove(order)) {
+            approvedCount.decrementAndGet();
+        }
+    }
+
+    private static Predicate<UserRecord> searchFilter(String searchQuery) {
+        String query = searchQuery != null ? searchQuery.toLowerCase().trim() : "";
+        if (query.isEmpty()) {
+            return user -> true;
+        }
+        return user -> {
+            String username = user.username() != null ? user.username().toLowerCase() : "";
+            String email = user.email() != null ? user.email().toLowerCase() : "";
+            return username.contains(query) || email.contains(query);
+        };
+    }
+
+    /**
+     * Walks a pre-sorted ordering and returns one page of matching users without
+     * copying or sorting the whole user set. Entries are re-checked against the
+     * live record since orderings and records are swapped independently.
+     */
+    private List<UserRecord> page(NavigableSet<OrderKey> order, Predicate<UserRecord> filter,
+                                           int page, int pageSize) {
+        List<UserRecord> result = new ArrayList<>();
+        if (page < 1 || pageSize <= 0) {
+            return result;
+        }
+        long skip = (long) (page - 1) * pageSize;
+        for (OrderKey entry : order) {
+            UserRecord user = users.get(entry.key());
+            if (user == null || !entry.equals(orderKey(entry.key(), user)) || !filter.test(user)) {
+                continue;
+            }
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            result.add(user);
+            if (result.size() >= pageSize) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private int count(NavigableSet<OrderKey> order, Predicate<UserRecord> filter) {
+        int count = 0;
+        for (OrderKey entry : order) {
+            UserRecord user = users.get(entry.key());
+            if (user != null && entry.equals(orderKey(entry.key(), user)) && filter.test(user)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Swaps a stored user and keeps the secondary indexes in step. Must be called
+     * under {@link #writeLock}. New index entries are published before the record
+     * and stale ones dropped after it, so lock-free readers that re-check the
+     * record never miss a live user.
+     */
+    private void storeUser(String key, UserRecord previous, UserRecord user) {
+        if (user != null) {
+            index(key, user);
+            users.put(key, user);
+        } else {
+            users.remove(key);
+        }
+        if (previous != null) {
+            unindex(key, previous, user);
+        }
+    }
+
+    /**
+     * Derives a new record from the stored user and swaps it in.
+     *
+     * @return the updated user, or null if no such user exists
+     */
+    private UserRecord updateUser(String username, UnaryOperator<UserRecord> change) {
+        String key = username.toLowerCase();
+        synchronized (writeLock) {
+            UserRecord current = users.get(key);
+            if (current == null) {
+                return null;
+            }
+            UserRecord updated = change.apply(current);
+            storeUser(key, current, updated);
+            journalPut(key, updated);
+            return updated;
+        }
     }
 
     @Override
@@ -208,15 +527,18 @@ public class FileUserDao implements UserDao {
                 return false;
             }
 
-            Map<String, Object> user = new HashMap<>();
-            user.put("username", username);
-            user.put("email", email);
-            user.put("status", status);
-            user.put("regTime", System.currentTimeMillis());
-            applyQuestionnaireAuditFields(user, questionnaireScore, questionnairePassed, questionnaireReviewSummary, questionnaireScoredAt);
+            UserRecord user = new UserRecord(username, email, null, null, System.currentTimeMillis(), null,
+                    questionnaireScore, questionnairePassed, questionnaireReviewSummary, questionnaireScoredAt)
+                    .withStatusValue(status);
             debugLog("Adding user to map: " + user);
-            users.put(key, user);
-            save();
+            synchronized (writeLock) {
+                if (users.containsKey(key)) {
+                    debugLog("User already exists with username: " + username + ", skipping registration");
+                    return false;
+                }
+                storeUser(key, null, user);
+                journalPut(key, user);
+            }
             debugLog("User registration successful");
             return true;
         } catch (Exception e) {
@@ -242,16 +564,18 @@ public class FileUserDao implements UserDao {
                 return false;
             }
 
-            Map<String, Object> user = new HashMap<>();
-            user.put("username", username);
-            user.put("email", email);
-            user.put("status", status);
-            user.put("password", PasswordUtil.hash(password));
-            user.put("regTime", System.currentTimeMillis());
-            applyQuestionnaireAuditFields(user, questionnaireScore, questionnairePassed, questionnaireReviewSummary, questionnaireScoredAt);
+            UserRecord user = new UserRecord(username, email, null, PasswordUtil.hash(password), System.currentTimeMillis(), null,
+                    questionnaireScore, questionnairePassed, questionnaireReviewSummary, questionnaireScoredAt)
+                    .withStatusValue(status);
             debugLog("Adding user with password to map: " + user);
-            users.put(key, user);
-            save();
+            synchronized (writeLock) {
+                if (users.containsKey(key)) {
+                    debugLog("User already exists with username: " + username + ", skipping registration");
+                    return false;
+                }
+                storeUser(key, null, user);
+                journalPut(key, user);
+            }
             debugLog("User registration with password successful");
             return true;
         } catch (Exception e) {
@@ -261,7 +585,7 @@ public class FileUserDao implements UserDao {
     }
 
     @Override
-    public List<Map<String, Object>> getAllUsers() {
+    public List<UserRecord> getAllUsers() {
         debugLog("Getting all users, total: " + users.size());
         return new ArrayList<>(users.values());
     }
@@ -269,61 +593,56 @@ public class FileUserDao implements UserDao {
     @Override
     public boolean updateUserStatus(String username, String status) {
         debugLog("updateUserStatus called: username=" + username + ", status=" + status);
-        String key = username.toLowerCase();
-        Map<String, Object> user = users.get(key);
+        UserStatus[] oldStatus = new UserStatus[1];
+        UserRecord user = updateUser(username, u -> {
+            oldStatus[0] = u.status();
+            return u.withStatusValue(status);
+        });
         
         if (user == null) {
             debugLog("User not found: " + username);
             return false;
         }
-        String oldStatus = (String) user.get("status");
-        user.put("status", status);
-        save();
-        debugLog("User status updated: " + username + " from " + oldStatus + " to " + status);
+        debugLog("User status updated: " + username + " from " + oldStatus[0] + " to " + status);
         return true;
     }
 
     @Override
     public boolean updateUserPassword(String username, String plainPassword) {
         debugLog("updateUserPassword called: username=" + username);
-        String key = username.toLowerCase();
-        Map<String, Object> user = users.get(key);
+        String hashedPassword = PasswordUtil.hash(plainPassword);
+        UserRecord user = updateUser(username, u -> u.withPassword(hashedPassword));
         
         if (user == null) {
             debugLog("User not found: " + username);
             return false;
         }
         
-        user.put("password", PasswordUtil.hash(plainPassword));
-        save();
-        debugLog("User password updated: " + user.get("username"));
+        debugLog("User password updated: " + user.username());
         return true;
     }
 
     @Override
     public boolean updateUserEmail(String username, String email) {
         debugLog("updateUserEmail called: username=" + username);
-        String key = username.toLowerCase();
-        Map<String, Object> user = users.get(key);
+        UserRecord user = updateUser(username, u -> u.withEmail(email));
 
         if (user == null) {
             debugLog("User not found: " + username);
             return false;
         }
 
-        user.put("email", email);
-        save();
-        debugLog("User email updated: " + user.get("username"));
+        debugLog("User email updated: " + user.username());
         return true;
     }
 
     @Override
-    public Map<String, Object> getUserByUsername(String username) {
+    public UserRecord getUserByUsername(String username) {
         debugLog("Getting user by username: " + username);
         String key = username.toLowerCase();
-        Map<String, Object> user = users.get(key);
+        UserRecord user = users.get(key);
         if (user != null) {
-            debugLog("User found: " + user.get("username"));
+            debugLog("User found: " + user.username());
         } else {
             debugLog("User not found");
         }
@@ -331,29 +650,32 @@ public class FileUserDao implements UserDao {
     }
 
     @Override
-    public Map<String, Object> getUserByUsernameExact(String username) {
+    public UserRecord getUserByUsernameExact(String username) {
         debugLog("Getting user by username (exact match): " + username);
-        for (Map<String, Object> user : users.values()) {
-            if (user.get("username") != null && user.get("username").toString().equals(username)) {
-                debugLog("User found: " + user.get("username"));
-                return user;
-            }
+        // Keys are the lower-cased username, so the exact match can only live under that key.
+        UserRecord user = username == null ? null : users.get(username.toLowerCase());
+        if (user != null && username.equals(user.username())) {
+            debugLog("User found: " + user.username());
+            return user;
         }
         debugLog("User not found");
         return null;
     }
 
     @Override
-    public Map<String, Object> getUserByEmail(String email) {
+    public UserRecord getUserByEmail(String email) {
         debugLog("Getting user by email: " + email);
         if (email == null || email.isEmpty()) {
             return null;
         }
-        for (Map<String, Object> user : users.values()) {
-            Object userEmail = user.get("email");
-            if (userEmail != null && userEmail.toString().equalsIgnoreCase(email)) {
-                debugLog("User found by email: " + user.get("username"));
-                return user;
+        Set<String> keys = emailIndex.get(email.toLowerCase());
+        if (keys != null) {
+            for (String key : keys) {
+                UserRecord user = users.get(key);
+                if (user != null && email.equalsIgnoreCase(user.email())) {
+                    debugLog("User found by email: " + user.username());
+                    return user;
+                }
             }
         }
         debugLog("User not found by email");
@@ -365,11 +687,17 @@ public class FileUserDao implements UserDao {
         debugLog("deleteUser called: username=" + username);
         try {
             String key = username.toLowerCase();
-            Map<String, Object> removed = users.remove(key);
+            UserRecord removed;
+            synchronized (writeLock) {
+                removed = users.get(key);
+                if (removed != null) {
+                    storeUser(key, removed, null);
+                    journalDelete(key);
+                }
+            }
             
             if (removed != null) {
-                debugLog("User deleted: " + removed.get("username"));
-                save();
+                debugLog("User deleted: " + removed.username());
                 return true;
             } else {
                 debugLog("User not found for deletion");
@@ -384,49 +712,34 @@ public class FileUserDao implements UserDao {
     @Override
     public int countUsersByEmail(String email) {
         debugLog("Counting users by email: " + email);
-        int count = 0;
-        for (Map<String, Object> user : users.values()) {
-            if (user.get("email") != null && user.get("email").toString().equalsIgnoreCase(email)) {
-                count++;
-            }
-        }
+        Set<String> keys = email == null ? null : emailIndex.get(email.toLowerCase());
+        int count = keys == null ? 0 : keys.size();
         debugLog("Found " + count + " users with email: " + email);
         return count;
     }
 
     @Override
-    public List<Map<String, Object>> getPendingUsers() {
+    public List<UserRecord> getPendingUsers() {
         debugLog("Getting pending users");
-        List<Map<String, Object>> result = new ArrayList<>();
-        for (Map<String, Object> user : users.values()) {
-            if ("pending".equals(user.get("status"))) result.add(user);
-        }
+        List<UserRecord> result = getUsersByStatus("pending");
         debugLog("Found " + result.size() + " pending users");
         return result;
     }
-    
+
     @Override
-    public List<Map<String, Object>> getUsersWithPagination(int page, int pageSize) {
-        debugLog("Getting users with pagination: page=" + page + ", pageSize=" + pageSize);
-        List<Map<String, Object>> allUsers = new ArrayList<>(users.values());
-        
-        allUsers.sort((a, b) -> {
-            Long timeA = getRegTimeAsLong(a.get("regTime"));
-            Long timeB = getRegTimeAsLong(b.get("regTime"));
-            if (timeA == null) timeA = 0L;
-            if (timeB == null) timeB = 0L;
-            return timeB.compareTo(timeA);
-        });
-        
-        int startIndex = (page - 1) * pageSize;
-        int endIndex = Math.min(startIndex + pageSize, allUsers.size());
-        
-        if (startIndex >= allUsers.size()) {
-            debugLog("Page " + page + " is out of range, returning empty list");
+    public List<UserRecord> getUsersByStatus(String status) {
+        NavigableSet<OrderKey> order = status == null ? null : statusOrder.get(status.toLowerCase());
+        if (order == null) {
             return new ArrayList<>();
         }
-        
-        List<Map<String, Object>> result = allUsers.subList(startIndex, endIndex);
+        String wanted = status.toLowerCase();
+        return page(order, user -> wanted.equals(statusKey(user)), 1, Integer.MAX_VALUE);
+    }
+    
+    @Override
+    public List<UserRecord> getUsersWithPagination(int page, int pageSize) {
+        debugLog("Getting users with pagination: page=" + page + ", pageSize=" + pageSize);
+        List<UserRecord> result = page(allOrder, user -> true, page, pageSize);
         debugLog("Returning " + result.size() + " users for page " + page);
         return result;
     }
@@ -439,40 +752,9 @@ public class FileUserDao implements UserDao {
     }
     
     @Override
-    public List<Map<String, Object>> getUsersWithPaginationAndSearch(int page, int pageSize, String searchQuery) {
+    public List<UserRecord> getUsersWithPaginationAndSearch(int page, int pageSize, String searchQuery) {
         debugLog("Getting users with pagination and search: page=" + page + ", pageSize=" + pageSize + ", query=" + searchQuery);
-        List<Map<String, Object>> filteredUsers = new ArrayList<>();
-        
-        String query = searchQuery != null ? searchQuery.toLowerCase().trim() : "";
-        for (Map<String, Object> user : users.values()) {
-            if (query.isEmpty()) {
-                filteredUsers.add(user);
-            } else {
-                String username = user.get("username") != null ? user.get("username").toString().toLowerCase() : "";
-                String email = user.get("email") != null ? user.get("email").toString().toLowerCase() : "";
-                if (username.contains(query) || email.contains(query)) {
-                    filteredUsers.add(user);
-                }
-            }
-        }
-        
-        filteredUsers.sort((a, b) -> {
-            Long timeA = getRegTimeAsLong(a.get("regTime"));
-            Long timeB = getRegTimeAsLong(b.get("regTime"));
-            if (timeA == null) timeA = 0L;
-            if (timeB == null) timeB = 0L;
-            return timeB.compareTo(timeA);
-        });
-        
-        int startIndex = (page - 1) * pageSize;
-        int endIndex = Math.min(startIndex + pageSize, filteredUsers.size());
-        
-        if (startIndex >= filteredUsers.size()) {
-            debugLog("Page " + page + " is out of range for search results, returning empty list");
-            return new ArrayList<>();
-        }
-        
-        List<Map<String, Object>> result = filteredUsers.subList(startIndex, endIndex);
+        List<UserRecord> result = page(allOrder, searchFilter(searchQuery), page, pageSize);
         debugLog("Returning " + result.size() + " users for page " + page + " with search query: " + searchQuery);
         return result;
     }
@@ -480,21 +762,8 @@ public class FileUserDao implements UserDao {
     @Override
     public int getTotalUserCountWithSearch(String searchQuery) {
         debugLog("Getting total user count with search: query=" + searchQuery);
-        int count = 0;
-        String query = searchQuery != null ? searchQuery.toLowerCase().trim() : "";
-        
-        for (Map<String, Object> user : users.values()) {
-            if (query.isEmpty()) {
-                count++;
-            } else {
-                String username = user.get("username") != null ? user.get("username").toString().toLowerCase() : "";
-                String email = user.get("email") != null ? user.get("email").toString().toLowerCase() : "";
-                if (username.contains(query) || email.contains(query)) {
-                    count++;
-                }
-            }
-        }
-        
+        String query = searchQuery != null ? searchQuery.trim() : "";
+        int count = query.isEmpty() ? users.size() : count(allOrder, searchFilter(query));
         debugLog("Total user count with search '" + searchQuery + "': " + count);
         return count;
     }
@@ -502,13 +771,7 @@ public class FileUserDao implements UserDao {
     @Override
     public int getApprovedUserCount() {
         debugLog("Getting approved user count (excluding pending)");
-        int count = 0;
-        for (Map<String, Object> user : users.values()) {
-            String status = user.get("status") != null ? user.get("status").toString() : "";
-            if (!"pending".equalsIgnoreCase(status)) {
-                count++;
-            }
-        }
+        int count = approvedCount.get();
         debugLog("Approved user count: " + count);
         return count;
     }
@@ -516,132 +779,70 @@ public class FileUserDao implements UserDao {
     @Override
     public int getApprovedUserCountWithSearch(String searchQuery) {
         debugLog("Getting approved user count with search: query=" + searchQuery);
-        int count = 0;
-        String query = searchQuery != null ? searchQuery.toLowerCase().trim() : "";
-        
-        for (Map<String, Object> user : users.values()) {
-            String status = user.get("status") != null ? user.get("status").toString() : "";
-            if (!"pending".equalsIgnoreCase(status)) {
-                if (query.isEmpty()) {
-                    count++;
-                } else {
-                    String username = user.get("username") != null ? user.get("username").toString().toLowerCase() : "";
-                    String email = user.get("email") != null ? user.get("email").toString().toLowerCase() : "";
-                    if (username.contains(query) || email.contains(query)) {
-                        count++;
-                    }
-                }
-            }
-        }
-        
+        String query = searchQuery != null ? searchQuery.trim() : "";
+        int count = query.isEmpty() ? approvedCount.get() : count(approvedOrder, searchFilter(query).and(FileUserDao::isApproved));
         debugLog("Approved user count with search '" + searchQuery + "': " + count);
         return count;
     }
     
     @Override
-    public List<Map<String, Object>> getApprovedUsersWithPagination(int page, int pageSize) {
+    public List<UserRecord> getApprovedUsersWithPagination(int page, int pageSize) {
         debugLog("Getting approved users with pagination: page=" + page + ", pageSize=" + pageSize);
-        List<Map<String, Object>> approvedUsers = new ArrayList<>();
-        
-        for (Map<String, Object> user : users.values()) {
-            String status = user.get("status") != null ? user.get("status").toString() : "";
-            if (!"pending".equalsIgnoreCase(status)) {
-                approvedUsers.add(user);
-            }
-        }
-        
-        approvedUsers.sort((a, b) -> {
-            Long timeA = getRegTimeAsLong(a.get("regTime"));
-            Long timeB = getRegTimeAsLong(b.get("regTime"));
-            if (timeA == null) timeA = 0L;
-            if (timeB == null) timeB = 0L;
-            return timeB.compareTo(timeA);
-        });
-        
-        int startIndex = (page - 1) * pageSize;
-        int endIndex = Math.min(startIndex + pageSize, approvedUsers.size());
-        
-        if (startIndex >= approvedUsers.size()) {
-            debugLog("Page " + page + " is out of range for approved users, returning empty list");
-            return new ArrayList<>();
-        }
-        
-        List<Map<String, Object>> result = approvedUsers.subList(startIndex, endIndex);
+        List<UserRecord> result = page(approvedOrder, FileUserDao::isApproved, page, pageSize);
         debugLog("Returning " + result.size() + " approved users for page " + page);
         return result;
     }
     
     @Override
-    public List<Map<String, Object>> getApprovedUsersWithPaginationAndSearch(int page, int pageSize, String searchQuery) {
+    public List<UserRecord> getApprovedUsersWithPaginationAndSearch(int page, int pageSize, String searchQuery) {
         debugLog("Getting approved users with pagination and search: page=" + page + ", pageSize=" + pageSize + ", query=" + searchQuery);
-        List<Map<String, Object>> filteredUsers = new ArrayList<>();
-        
-        String query = searchQuery != null ? searchQuery.toLowerCase().trim() : "";
-        for (Map<String, Object> user : users.values()) {
-            String status = user.get("status") != null ? user.get("status").toString() : "";
-            if (!"pending".equalsIgnoreCase(status)) {
-                if (query.isEmpty()) {
-                    filteredUsers.add(user);
-                } else {
-                    String username = user.get("username") != null ? user.get("username").toString().toLowerCase() : "";
-                    String email = user.get("email") != null ? user.get("email").toString().toLowerCase() : "";
-                    if (username.contains(query) || email.contains(query)) {
-                        filteredUsers.add(user);
-                    }
-                }
-            }
-        }
-        
-        filteredUsers.sort((a, b) -> {
-            Long timeA = getRegTimeAsLong(a.get("regTime"));
-            Long timeB = getRegTimeAsLong(b.get("regTime"));
-            if (timeA == null) timeA = 0L;
-            if (timeB == null) timeB = 0L;
-            return timeB.compareTo(timeA);
-        });
-        
-        int startIndex = (page - 1) * pageSize;
-        int endIndex = Math.min(startIndex + pageSize, filteredUsers.size());
-        
-        if (startIndex >= filteredUsers.size()) {
-            debugLog("Page " + page + " is out of range for approved users search results, returning empty list");
-            return new ArrayList<>();
-        }
-        
-        List<Map<String, Object>> result = filteredUsers.subList(startIndex, endIndex);
+        List<UserRecord> result = page(approvedOrder, searchFilter(searchQuery).and(FileUserDao::isApproved), page, pageSize);
         debugLog("Returning " + result.size() + " approved users for page " + page + " with search query: " + searchQuery);
         return result;
     }
     
+    @Override
+    public List<UserRecord> getUsersAfter(UserCursor after, int limit, String search, String status) {
+        debugLog("Getting users after cursor: " + after + ", limit=" + limit + ", query=" + search + ", status=" + status);
+        NavigableSet<OrderKey> order;
+        if (status == null || status.isEmpty() || "all".equalsIgnoreCase(status)) {
+            order = allOrder;
+        } else if ("approved".equalsIgnoreCase(status)) {
+            order = approvedOrder;
+        } else {
+            order = statusOrder.get(status.toLowerCase());
+            if (order == null) {
+                return new ArrayList<>();
+            }
+        }
+        if (after != null) {
+            order = order.tailSet(new OrderKey(after.regTime(), after.username()), false);
+        }
+        return page(order, searchFilter(search).and(user -> UserDao.matchesListingStatus(user, status)), 1, limit);
+    }
+
     @Override
     public boolean updateUserDiscordId(String username, String discordId) {
         debugLog("updateUserDiscordId called: username=" + username + ", discordId=" + discordId);
-        String key = username.toLowerCase();
-        Map<String, Object> user = users.get(key);
+        UserRecord user = updateUser(username, u -> u.withDiscordId(discordId));
         
         if (user == null) {
             debugLog("User not found: " + username);
             return false;
         }
         
-        user.put("discordId", discordId);
-        save();
-        debugLog("User Discord ID updated: " + user.get("username") + " -> " + discordId);
+        debugLog("User Discord ID updated: " + user.username() + " -> " + discordId);
         return true;
     }
     
     @Override
-    public Map<String, Object> getUserByDiscordId(String discordId) {
+    public UserRecord getUserByDiscordId(String discordId) {
         debugLog("Getting user by Discord ID: " + discordId);
-        for (Map<String, Object> user : users.values()) {
-            Object userDiscordId = user.get("discordId");
-            if (userDiscordId == null) {
-                userDiscordId = user.get("discord_id");
-            }
-            if (userDiscordId != null && userDiscordId.toString().equals(discordId)) {
-                debugLog("User found: " + user.get("username"));
-                return user;
-            }
+        String key = discordId == null ? null : discordIdIndex.get(discordId);
+        UserRecord user = key == null ? null : users.get(key);
+        if (user != null && discordId.equals(user.discordId())) {
+            debugLog("User found: " + user.username());
+            return user;
         }
         debugLog("User not found with Discord ID: " + discordId);
         return null;
@@ -655,7 +856,18 @@ public class FileUserDao implements UserDao {
 
     @Override
     public void close() {
-        // File-based storage: no resources to close
-        debugLog("FileUserDao closed (no-op for file storage)");
+        if (compactor != null) {
+            compactor.shutdown();
+            try {
+                compactor.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        compact();
+        if (journal != null) {
+            journal.close();
+        }
+        debugLog("FileUserDao closed");
     }
 } 
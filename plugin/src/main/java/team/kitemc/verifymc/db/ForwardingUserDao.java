@@ -0,0 +1,203 @@
+package team.kitemc.verifymc.db;
+
+import java.util.List;
+
+/**
+ * Base for {@link UserDao} decorators: forwards every call, including the
+ * interface's default methods, to a delegate so its own overrides (indexed
+ * listings, batched lookups...) are kept. Subclasses override only what they
+ * change.
+ */
+public abstract class ForwardingUserDao implements UserDao {
+    protected final UserDao delegate;
+
+    protected ForwardingUserDao(UserDao delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean registerUser(String username, String email, String status) {
+        return delegate.registerUser(username, email, status);
+    }
+
+    @Override
+    public boolean registerUser(String username, String email, String status,
+                                Integer questionnaireScore, Boolean questionnairePassed,
+                                String questionnaireReviewSummary, Long questionnaireScoredAt) {
+        return delegate.registerUser(username, email, status, questionnaireScore, questionnairePassed,
+                questionnaireReviewSummary, questionnaireScoredAt);
+    }
+
+    @Override
+    public boolean registerUser(String username, String email, String status, String password) {
+        return delegate.registerUser(username, email, status, password);
+    }
+
+    @Override
+    public boolean registerUser(String username, String email, String status, String password,
+                                Integer questionnaireScore, Boolean questionnairePassed,
+                                String questionnaireReviewSummary, Long questionnaireScoredAt) {
+        return delegate.registerUser(username, email, status, password, questionnaireScore, questionnairePassed,
+                questionnaireReviewSummary, questionnaireScoredAt);
+    }
+
+    @Override
+    public boolean updateUserStatus(String username, String status) {
+        return delegate.updateUserStatus(username, status);
+    }
+
+    @Override
+    public boolean updateUserStatus(String username, String status, String operator) {
+        return delegate.updateUserStatus(username, status, operator);
+    }
+
+    @Override
+    public boolean updateUserPassword(String username, String plainPassword) {
+        return delegate.updateUserPassword(username, plainPassword);
+    }
+
+    @Override
+    public boolean updatePassword(String username, String plainPassword) {
+        return delegate.updatePassword(username, plainPassword);
+    }
+
+    @Override
+    public boolean updateUserEmail(String username, String email) {
+        return delegate.updateUserEmail(username, email);
+    }
+
+    @Override
+    public boolean updateUserDiscordId(String username, String discordId) {
+        return delegate.updateUserDiscordId(username, discordId);
+    }
+
+    @Override
+    public boolean banUser(String username) {
+        return delegate.banUser(username);
+    }
+
+    @Override
+    public boolean unbanUser(String username) {
+        return delegate.unbanUser(username);
+    }
+
+    @Override
+    public boolean deleteUser(String username) {
+        return delegate.deleteUser(username);
+    }
+
+    @Override
+    public List<UserRecord> getAllUsers() {
+        return delegate.getAllUsers();
+    }
+
+    @Override
+    public List<UserRecord> getUsersWithPagination(int page, int pageSize) {
+        return delegate.getUsersWithPagination(page, pageSize);
+    }
+
+    @Override
+    public int getTotalUserCount() {
+        return delegate.getTotalUserCount();
+    }
+
+    @Override
+    public List<UserRecord> getUsersWithPaginationAndSearch(int page, int pageSize, String searchQuery) {
+        return delegate.getUsersWithPaginationAndSearch(page, pageSize, searchQuery);
+    }
+
+    @Override
+    public int getTotalUserCountWithSearch(String searchQuery) {
+        return delegate.getTotalUserCountWithSearch(searchQuery);
+    }
+
+    @Override
+    public int getApprovedUserCount() {
+        return delegate.getApprovedUserCount();
+    }
+
+    @Override
+    public int getApprovedUserCountWithSearch(String searchQuery) {
+        return delegate.getApprovedUserCountWithSearch(searchQuery);
+    }
+
+    @Override
+    public List<UserRecord> getApprovedUsersWithPagination(int page, int pageSize) {
+        return delegate.getApprovedUsersWithPagination(page, pageSize);
+    }
+
+    @Override
+    public List<UserRecord> getApprovedUsersWithPaginationAndSearch(int page, int pageSize, String searchQuery) {
+        return delegate.getApprovedUsersWithPaginationAndSearch(page, pageSize, searchQuery);
+    }
+
+    @Override
+    public List<UserRecord> getUsers(int page, int size, String search, String status) {
+        return delegate.getUsers(page, size, search, status);
+    }
+
+    @Override
+    public int getTotalUsers(String search, String status) {
+        return delegate.getTotalUsers(search, status);
+    }
+
+    @Override
+    public List<UserRecord> getUsersAfter(UserCursor after, int limit, String search, String status) {
+        return delegate.getUsersAfter(after, limit, search, status);
+    }
+
+    @Override
+    public List<UserRecord> getUsersByStatus(String status) {
+        return delegate.getUsersByStatus(status);
+    }
+
+    @Override
+    public List<UserRecord> getPendingUsers() {
+        return delegate.getPendingUsers();
+    }
+
+    @Override
+    public UserRecord getUserByUsername(String username) {
+        return delegate.getUserByUsername(username);
+    }
+
+    @Override
+    public UserRecord getUserByUsernameExact(String username) {
+        return delegate.getUserByUsernameExact(username);
+    }
+
+    @Override
+    public UserRecord getUserByEmail(String email) {
+        return delegate.getUserByEmail(email);
+    }
+
+    @Override
+    public UserRecord getUserByDiscordId(String discordId) {
+        return delegate.getUserByDiscordId(discordId);
+    }
+
+    @Override
+    public boolean isDiscordIdLinked(String discordId) {
+        return delegate.isDiscordIdLinked(discordId);
+    }
+
+    @Override
+    public UserChanges getUsersChangedSince(long since) {
+        return delegate.getUsersChangedSince(since);
+    }
+
+    @Override
+    public int countUsersByEmail(String email) {
+        return delegate.countUsersByEmail(email);
+    }
+
+    @Override
+    public void save() {
+        delegate.save();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
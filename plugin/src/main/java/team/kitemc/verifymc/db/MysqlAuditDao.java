@@ -8,21 +8,23 @@ import java.util.Properties;
 import java.util.logging.Level;
 
 public class MysqlAuditDao implements AuditDao, AutoCloseable {
-    private final Connection conn;
+    private final ConnectionPool pool;
+    private final boolean ownsPool;
     private final Plugin plugin;
 
+    public MysqlAuditDao(ConnectionPool pool, Plugin plugin) throws SQLException {
+        this(pool, false, plugin);
+    }
+
     public MysqlAuditDao(Properties mysqlConfig, Plugin plugin) throws SQLException {
+        this(ConnectionPool.fromProperties(mysqlConfig, plugin.getLogger()), true, plugin);
+    }
+
+    private MysqlAuditDao(ConnectionPool pool, boolean ownsPool, Plugin plugin) throws SQLException {
+        this.pool = pool;
+        this.ownsPool = ownsPool;
         this.plugin = plugin;
-        String useSSL = mysqlConfig.getProperty("useSSL", "true");
-        String allowPublicKeyRetrieval = mysqlConfig.getProperty("allowPublicKeyRetrieval", "false");
-        String url = "jdbc:mysql://" + mysqlConfig.getProperty("host") + ":" +
-                mysqlConfig.getProperty("port") + "/" +
-                mysqlConfig.getProperty("database") +
-                "?useSSL=" + useSSL +
-                "&allowPublicKeyRetrieval=" + allowPublicKeyRetrieval +
-                "&characterEncoding=utf8";
-        conn = DriverManager.getConnection(url, mysqlConfig.getProperty("user"), mysqlConfig.getProperty("password"));
-        try (Statement stmt = conn.createStatement()) {
+        try (Connection conn = pool.getConnection(); Statement stmt = conn.createStatement()) {
             stmt.executeUpdate("CREATE TABLE IF NOT EXISTS audits (" +
                     "id INT AUTO_INCREMENT PRIMARY KEY," +
                     "action VARCHAR(32)," +
@@ -30,13 +32,28 @@ public class MysqlAuditDao implements AuditDao, AutoCloseable {
                     "target VARCHAR(32)," +
                     "detail TEXT," +
                     "timestamp BIGINT)");
+            ensureIndex(stmt, "idx_audits_timestamp", "CREATE INDEX idx_audits_timestamp ON audits(timestamp)");
+            ensureIndex(stmt, "idx_audits_target_timestamp", "CREATE INDEX idx_audits_target_timestamp ON audits(target, timestamp)");
+        } catch (SQLException e) {
+            if (ownsPool) {
+                pool.close();
+            }
+            throw e;
+        }
+    }
+
+    private void ensureIndex(Statement stmt, String indexName, String createIndexSql) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("SHOW INDEX FROM audits WHERE Key_name = '" + indexName + "'")) {
+            if (!rs.next()) {
+                stmt.executeUpdate(createIndexSql);
+            }
         }
     }
 
     @Override
     public void addAudit(AuditRecord audit) {
         String sql = "INSERT INTO audits (action, operator, target, detail, timestamp) VALUES (?, ?, ?, ?, ?)";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = pool.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, audit.action());
             ps.setString(2, audit.operator());
             ps.setString(3, audit.target());
@@ -44,7 +61,36 @@ public class MysqlAuditDao implements AuditDao, AutoCloseable {
             ps.setLong(5, audit.timestamp());
             ps.executeUpdate();
         } catch (SQLException e) {
-            plugin.getLogger().log(Level.WARNING, "Failed to add audit record", e);
+            throw new IllegalStateException("Failed to add audit record", e);
+        }
+    }
+
+    @Override
+    public void addAudits(List<AuditRecord> audits) {
+        if (audits.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO audits (action, operator, target, detail, timestamp) VALUES (?, ?, ?, ?, ?)";
+        try (Connection conn = pool.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                for (AuditRecord audit : audits) {
+                    ps.setString(1, audit.action());
+                    ps.setString(2, audit.operator());
+                    ps.setString(3, audit.target());
+                    ps.setString(4, audit.detail());
+                    ps.setLong(5, audit.timestamp());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            // Thrown so the caller can retry the batch; logged there.
+            throw new IllegalStateException("Failed to add " + audits.size() + " audit records", e);
         }
     }
 
@@ -52,7 +98,7 @@ public class MysqlAuditDao implements AuditDao, AutoCloseable {
     public List<AuditRecord> getAllAudits() {
         List<AuditRecord> result = new ArrayList<>();
         String sql = "SELECT * FROM audits";
-        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+        try (Connection conn = pool.getConnection(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) {
                 result.add(new AuditRecord(
                         rs.getLong("id"),
@@ -69,6 +115,67 @@ public class MysqlAuditDao implements AuditDao, AutoCloseable {
         return result;
     }
 
+    @Override
+    public List<AuditRecord> queryAudits(AuditQuery query) {
+        List<AuditRecord> result = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT * FROM audits");
+        List<Object> params = new ArrayList<>();
+        List<String> conditions = new ArrayList<>();
+        if (query.from() != null) {
+            conditions.add("timestamp >= ?");
+            params.add(query.from());
+        }
+        if (query.to() != null) {
+            conditions.add("timestamp < ?");
+            params.add(query.to());
+        }
+        if (query.action() != null) {
+            conditions.add("action = ?");
+            params.add(query.action());
+        }
+        if (query.operator() != null) {
+            conditions.add("operator = ?");
+            params.add(query.operator());
+        }
+        if (query.target() != null) {
+            conditions.add("target = ?");
+            params.add(query.target());
+        }
+        if (query.before() != null) {
+            // InnoDB secondary indexes carry the primary key, so (timestamp) orders by (timestamp, id).
+            conditions.add("(timestamp < ? OR (timestamp = ? AND id < ?))");
+            params.add(query.before().timestamp());
+            params.add(query.before().timestamp());
+            params.add(query.before().id());
+        }
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sql.append(" ORDER BY timestamp DESC, id DESC LIMIT ?");
+        params.add(query.limit());
+
+        try (Connection conn = pool.getConnection(); PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    result.add(new AuditRecord(
+                            rs.getLong("id"),
+                            rs.getString("action"),
+                            rs.getString("operator"),
+                            rs.getString("target"),
+                            rs.getString("detail"),
+                            rs.getLong("timestamp")
+                    ));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to query audits", e);
+        }
+        return result;
+    }
+
     @Override
     public void save() {
         // MySQL storage: save() called (no-op)
@@ -76,10 +183,8 @@ public class MysqlAuditDao implements AuditDao, AutoCloseable {
 
     @Override
     public void close() {
-        if (conn != null) {
-            try {
-                conn.close();
-            } catch (SQLException ignored) {}
+        if (ownsPool) {
+            pool.close();
         }
     }
 }
@@ -6,45 +6,45 @@ import org.bukkit.plugin.Plugin;
 import team.kitemc.verifymc.util.PasswordUtil;
 
 public class MysqlUserDao implements UserDao, AutoCloseable {
-    private final Connection conn;
+    /** Database clock in epoch millis, so servers with skewed clocks agree on {@code updated_at}. */
+    private static final String NOW_MILLIS = "CAST(UNIX_TIMESTAMP(NOW(3)) * 1000 AS SIGNED)";
+
+    private final ConnectionPool pool;
+    private final boolean ownsPool;
     private final ResourceBundle messages;
     private final boolean debug;
     private final Plugin plugin;
 
+    public MysqlUserDao(ConnectionPool pool, ResourceBundle messages, Plugin plugin) throws SQLException {
+        this(pool, false, messages, plugin);
+    }
+
     public MysqlUserDao(Properties mysqlConfig, ResourceBundle messages, Plugin plugin) throws SQLException {
-        this.messages = messages;
-        this.plugin = plugin;
-        this.debug = plugin.getConfig().getBoolean("debug", false);
-        String useSSL = mysqlConfig.getProperty("useSSL", "true");
-        String allowPublicKeyRetrieval = mysqlConfig.getProperty("allowPublicKeyRetrieval", "false");
-        String url = "jdbc:mysql://" + mysqlConfig.getProperty("host") + ":" +
-                mysqlConfig.getProperty("port") + "/" +
-                mysqlConfig.getProperty("database") +
-                "?useSSL=" + useSSL +
-                "&allowPublicKeyRetrieval=" + allowPublicKeyRetrieval +
-                "&characterEncoding=utf8";
-        conn = DriverManager.getConnection(url, mysqlConfig.getProperty("user"), mysqlConfig.getProperty("password"));
-        initDatabase();
+        this(ConnectionPool.fromProperties(mysqlConfig, plugin.getLogger()), true, messages, plugin);
     }
 
     public MysqlUserDao(Properties mysqlConfig) throws SQLException {
-        this.messages = null;
-        this.plugin = null;
-        this.debug = false;
-        String useSSL = mysqlConfig.getProperty("useSSL", "true");
-        String allowPublicKeyRetrieval = mysqlConfig.getProperty("allowPublicKeyRetrieval", "false");
-        String url = "jdbc:mysql://" + mysqlConfig.getProperty("host") + ":" +
-                mysqlConfig.getProperty("port") + "/" +
-                mysqlConfig.getProperty("database") +
-                "?useSSL=" + useSSL +
-                "&allowPublicKeyRetrieval=" + allowPublicKeyRetrieval +
-                "&characterEncoding=utf8";
-        conn = DriverManager.getConnection(url, mysqlConfig.getProperty("user"), mysqlConfig.getProperty("password"));
-        initDatabase();
+        this(ConnectionPool.fromProperties(mysqlConfig, java.util.logging.Logger.getLogger("VerifyMC")), true, null, null);
+    }
+
+    private MysqlUserDao(ConnectionPool pool, boolean ownsPool, ResourceBundle messages, Plugin plugin) throws SQLException {
+        this.pool = pool;
+        this.ownsPool = ownsPool;
+        this.messages = messages;
+        this.plugin = plugin;
+        this.debug = plugin != null && plugin.getConfig().getBoolean("debug", false);
+        try {
+            initDatabase();
+        } catch (SQLException e) {
+            if (ownsPool) {
+                pool.close();
+            }
+            throw e;
+        }
     }
 
     private void initDatabase() throws SQLException {
-        try (Statement stmt = conn.createStatement()) {
+        try (Connection conn = pool.getConnection(); Statement stmt = conn.createStatement()) {
             stmt.executeUpdate("CREATE TABLE IF NOT EXISTS users (" +
                     "username VARCHAR(32) PRIMARY KEY," +
                     "email VARCHAR(64)," +
@@ -55,7 +55,8 @@ public class MysqlUserDao implements UserDao, AutoCloseable {
                     "questionnaire_score INT NULL," +
                     "questionnaire_passed BOOLEAN NULL," +
                     "questionnaire_review_summary TEXT NULL," +
-                    "questionnaire_scored_at BIGINT NULL)");
+                    "questionnaire_scored_at BIGINT NULL," +
+                    "updated_at BIGINT NOT NULL DEFAULT 0)");
 
             try {
                 stmt.executeQuery("SELECT password FROM users LIMIT 1");
@@ -96,9 +97,19 @@ public class MysqlUserDao implements UserDao, AutoCloseable {
             } catch (SQLException e) {
                 stmt.executeUpdate("ALTER TABLE users ADD COLUMN questionnaire_scored_at BIGINT NULL");
             }
+            try {
+                stmt.executeQuery("SELECT updated_at FROM users LIMIT 1");
+            } catch (SQLException e) {
+                stmt.executeUpdate("ALTER TABLE users ADD COLUMN updated_at BIGINT NOT NULL DEFAULT 0");
+            }
 
             ensureIndex(stmt, "idx_email", "CREATE INDEX idx_email ON users(email)");
             ensureIndex(stmt, "idx_discord_id", "CREATE INDEX idx_discord_id ON users(discord_id)");
+            // Keyset pagination: listings walk these backwards from the cursor instead of skipping OFFSET rows.
+            ensureIndex(stmt, "idx_reg_time_username", "CREATE INDEX idx_reg_time_username ON users(regTime, username)");
+            ensureIndex(stmt, "idx_status_reg_time_username", "CREATE INDEX idx_status_reg_time_username ON users(status, regTime, username)");
+            // Change polling by other servers sharing this table.
+            ensureIndex(stmt, "idx_updated_at", "CREATE INDEX idx_updated_at ON users(updated_at)");
         }
     }
 
@@ -124,21 +135,9 @@ public class MysqlUserDao implements UserDao, AutoCloseable {
     public boolean registerUser(String username, String email, String status,
             Integer questionnaireScore, Boolean questionnairePassed,
             String questionnaireReviewSummary, Long questionnaireScoredAt) {
-        String checkSql = "SELECT username FROM users WHERE username = ?";
-        try (PreparedStatement checkPs = conn.prepareStatement(checkSql)) {
-            checkPs.setString(1, username);
-            ResultSet rs = checkPs.executeQuery();
-            if (rs.next()) {
-                debugLog("User already exists with username: " + username + ", skipping registration");
-                return false;
-            }
-        } catch (SQLException e) {
-            debugLog("Error checking existing user: " + e.getMessage());
-            return false;
-        }
-
-        String sql = "INSERT INTO users (username, email, status, regTime, questionnaire_score, questionnaire_passed, questionnaire_review_summary, questionnaire_scored_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        // Single round trip: the primary key rejects duplicates, no separate existence check.
+        String sql = "INSERT INTO users (username, email, status, regTime, questionnaire_score, questionnaire_passed, questionnaire_review_summary, questionnaire_scored_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, " + NOW_MILLIS + ")";
+        try (Connection conn = pool.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, username);
             ps.setString(2, email);
             ps.setString(3, status);
@@ -159,6 +158,9 @@ public class MysqlUserDao implements UserDao, AutoCloseable {
             ps.executeUpdate();
             debugLog("User registered: " + username);
             return true;
+        } catch (SQLIntegrityConstraintViolationException e) {
+            debugLog("User already exists with username: " + username + ", skipping registration");
+            return false;
         } catch (SQLException e) {
             debugLog("Error registering user: " + e.getMessage());
             return false;
@@ -174,21 +176,9 @@ public class MysqlUserDao implements UserDao, AutoCloseable {
     public boolean registerUser(String username, String email, String status, String password,
             Integer questionnaireScore, Boolean questionnairePassed,
             String questionnaireReviewSummary, Long questionnaireScoredAt) {
-        String checkSql = "SELECT username FROM users WHERE username = ?";
-        try (PreparedStatement checkPs = conn.prepareStatement(checkSql)) {
-            checkPs.setString(1, username);
-            ResultSet rs = checkPs.executeQuery();
-            if (rs.next()) {
-                debugLog("User already exists with username: " + username + ", skipping registration");
-                return false;
-            }
-        } catch (SQLException e) {
-            debugLog("Error checking existing user: " + e.getMessage());
-            return false;
-        }
-
-        String sql = "INSERT INTO users (username, email, status, password, regTime, questionnaire_score, questionnaire_passed, questionnaire_review_summary, questionnaire_scored_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        // Single round trip: the primary key rejects duplicates, no separate existence check.
+        String sql = "INSERT INTO users (username, email, status, password, regTime, questionnaire_score, questionnaire_passed, questionnaire_review_summary, questionnaire_scored_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, " + NOW_MILLIS + ")";
+        try (Connection conn = pool.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, username);
             ps.setString(2, email);
             ps.setString(3, status);
@@ -210,6 +200,9 @@ public class MysqlUserDao implements UserDao, AutoCloseable {
             ps.executeUpdate();
             debugLog("User registered with password: " + username);
             return true;
+        } catch (SQLIntegrityConstraintViolationException e) {
+            debugLog("User already exists with username: " + username + ", skipping registration");
+            return false;
         } catch (SQLException e) {
             debugLog("Error registering user: " + e.getMessage());
             return false;
@@ -218,8 +211,8 @@ public class MysqlUserDao implements UserDao, AutoCloseable {
 
     @Override
     public boolean updateUserStatus(String username, String status) {
-        String sql = "UPDATE users SET status=? WHERE username=?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        String sql = "UPDATE users SET status=?, updated_at=" + NOW_MILLIS + " WHERE username=?";
+        try (Connection conn = pool.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, status);
             ps.setString(2, username);
             int rows = ps.executeUpdate();
@@ -233,8 +226,8 @@ public class MysqlUserDao implements UserDao, AutoCloseable {
 
     @Override
     public boolean updateUserPassword(String username, String plainPassword) {
-        String sql = "UPDATE users SET password=? WHERE username=?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        String sql = "UPDATE users SET password=?, updated_at=" + NOW_MILLIS + " WHERE username=?";
+        try (Connection conn = pool.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, PasswordUtil.hash(plainPassword));
             ps.setString(2, username);
             int rows = ps.executeUpdate();
@@ -248,8 +241,8 @@ public class MysqlUserDao implements UserDao, AutoCloseable {
 
     @Override
     public boolean updateUserEmail(String username, String email) {
-        String sql = "UPDATE users SET email=? WHERE username=?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        String sql = "UPDATE users SET email=?, updated_at=" + NOW_MILLIS + " WHERE username=?";
+        try (Connection conn = pool.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, email);
             ps.setString(2, username);
             int rows = ps.executeUpdate();
@@ -262,10 +255,10 @@ public class MysqlUserDao implements UserDao, AutoCloseable {
     }
 
     @Override
-    public List<Map<String, Object>> getAllUsers() {
-        List<Map<String, Object>> result = new ArrayList<>();
+    public List<UserRecord> getAllUsers() {
+        List<UserRecord> result = new ArrayList<>();
         String sql = "SELECT * FROM users";
-        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+        try (Connection conn = pool.getConnection(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) {
                 result.add(mapUserFromResultSet(rs));
             }
@@ -276,10 +269,10 @@ public class MysqlUserDao implements UserDao, AutoCloseable {
     }
 
     @Override
-    public List<Map<String, Object>> getPendingUsers() {
-        List<Map<String, Object>> result = new ArrayList<>();
+    public List<UserRecord> getPendingUsers() {
+        List<UserRecord> result = new ArrayList<>();
         String sql = "SELECT * FROM users WHERE status='pending'";
-        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+        try (Connection conn = pool.getConnection(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) {
                 result.add(mapUserFromResultSet(rs));
             }
@@ -289,25 +282,60 @@ public class MysqlUserDao implements UserDao, AutoCloseable {
         return result;
     }
 
-    private Map<String, Object> mapUserFromResultSet(ResultSet rs) throws SQLException {
-        Map<String, Object> user = new HashMap<>();
-        user.put("username", rs.getString("username"));
-        user.put("email", rs.getString("email"));
-        user.put("status", rs.getString("status"));
-        user.put("password", rs.getString("password"));
-        user.put("regTime", rs.getLong("regTime"));
-        user.put("discordId", rs.getString("discord_id"));
-        user.put("questionnaireScore", rs.getObject("questionnaire_score"));
-        user.put("questionnairePassed", rs.getObject("questionnaire_passed"));
-        user.put("questionnaireReviewSummary", rs.getString("questionnaire_review_summary"));
-        user.put("questionnaireScoredAt", rs.getObject("questionnaire_scored_at"));
-        return user;
+    @Override
+    public UserChanges getUsersChangedSince(long since) {
+        try (Connection conn = pool.getConnection(); Statement stmt = conn.createStatement()) {
+            long scannedAt;
+            try (ResultSet rs = stmt.executeQuery("SELECT " + NOW_MILLIS)) {
+                rs.next();
+                scannedAt = rs.getLong(1);
+            }
+            List<String> usernames = new ArrayList<>();
+            if (since <= scannedAt) {
+                try (PreparedStatement ps = conn.prepareStatement("SELECT username FROM users WHERE updated_at >= ?")) {
+                    ps.setLong(1, since);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            usernames.add(rs.getString("username"));
+                        }
+                    }
+                }
+            }
+            return new UserChanges(scannedAt, usernames);
+        } catch (SQLException e) {
+            debugLog("Error scanning changed users: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private UserRecord mapUserFromResultSet(ResultSet rs) throws SQLException {
+        int questionnaireScore = rs.getInt("questionnaire_score");
+        Integer score = rs.wasNull() ? null : questionnaireScore;
+        boolean questionnairePassed = rs.getBoolean("questionnaire_passed");
+        Boolean passed = rs.wasNull() ? null : questionnairePassed;
+        long questionnaireScoredAt = rs.getLong("questionnaire_scored_at");
+        Long scoredAt = rs.wasNull() ? null : questionnaireScoredAt;
+        // Status values this version does not know are kept rather than dropped.
+        String status = rs.getString("status");
+        UserStatus parsed = UserStatus.fromValue(status);
+        return new UserRecord(
+                rs.getString("username"),
+                rs.getString("email"),
+                parsed,
+                rs.getString("password"),
+                rs.getLong("regTime"),
+                rs.getString("discord_id"),
+                score,
+                passed,
+                rs.getString("questionnaire_review_summary"),
+                scoredAt,
+                parsed == null ? status : null);
     }
 
     @Override
-    public Map<String, Object> getUserByUsername(String username) {
+    public UserRecord getUserByUsername(String username) {
         String sql = "SELECT * FROM users WHERE LOWER(username)=LOWER(?)";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = pool.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, username);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
@@ -321,9 +349,9 @@ public class MysqlUserDao implements UserDao, AutoCloseable {
     }
 
     @Override
-    public Map<String, Object> getUserByUsernameExact(String username) {
+    public UserRecord getUserByUsernameExact(String username) {
         String sql = "SELECT * FROM users WHERE username=?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = pool.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, username);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
@@ -337,13 +365,13 @@ public class MysqlUserDao implements UserDao, AutoCloseable {
     }
 
     @Override
-    public Map<String, Object> getUserByEmail(String email) {
+    public UserRecord getUserByEmail(String email) {
         debugLog("Getting user by email: " + email);
         if (email == null || email.isEmpty()) {
             return null;
         }
         String sql = "SELECT * FROM users WHERE LOWER(email)=LOWER(?)";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = pool.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, email);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
@@ -361,7 +389,7 @@ public class MysqlUserDao implements UserDao, AutoCloseable {
     @Override
     public boolean deleteUser(String username) {
         String sql = "DELETE FROM users WHERE username=?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = pool.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, username);
             int rows = ps.executeUpdate();
             debugLog("User deleted: " + username);
@@ -376,7 +404,7 @@ public class MysqlUserDao implements UserDao, AutoCloseable {
     public int countUsersByEmail(String email) {
         int count = 0;
         String sql = "SELECT COUNT(*) FROM users WHERE LOWER(email)=LOWER(?)";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = pool.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, email);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
@@ -395,13 +423,13 @@ public class MysqlUserDao implements UserDao, AutoCloseable {
     }
 
     @Override
-    public List<Map<String, Object>> getUsersWithPagination(int page, int pageSize) {
+    public List<UserRecord> getUsersWithPagination(int page, int pageSize) {
         debugLog("Getting users with pagination: page=" + page + ", pageSize=" + pageSize);
-        List<Map<String, Object>> result = new ArrayList<>();
+        List<UserRecord> result = new ArrayList<>();
         int offset = (page - 1) * pageSize;
 
         String sql = "SELECT * FROM users ORDER BY regTime DESC LIMIT ? OFFSET ?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = pool.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, pageSize);
             ps.setInt(2, offset);
             try (ResultSet rs = ps.executeQuery()) {
@@ -422,7 +450,7 @@ public class MysqlUserDao implements UserDao, AutoCloseable {
         debugLog("Getting total user count");
         int count = 0;
         String sql = "SELECT COUNT(*) FROM users";
-        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+        try (Connection conn = pool.getConnection(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
             if (rs.next()) {
                 count = rs.getInt(1);
             }
@@ -435,9 +463,9 @@ public class MysqlUserDao implements UserDao, AutoCloseable {
     }
 
     @Override
-    public List<Map<String, Object>> getUsersWithPaginationAndSearch(int page, int pageSize, String searchQuery) {
+    public List<UserRecord> getUsersWithPaginationAndSearch(int page, int pageSize, String searchQuery) {
         debugLog("Getting users with pagination and search: page=" + page + ", pageSize=" + pageSize + ", query=" + searchQuery);
-        List<Map<String, Object>> result = new ArrayList<>();
+        List<UserRecord> result = new ArrayList<>();
         int offset = (page - 1) * pageSize;
 
         String sql;
@@ -447,7 +475,7 @@ public class MysqlUserDao implements UserDao, AutoCloseable {
             sql = "SELECT * FROM users WHERE LOWER(username) LIKE LOWER(?) OR LOWER(email) LIKE LOWER(?) ORDER BY regTime DESC LIMIT ? OFFSET ?";
         }
 
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = pool.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
             if (searchQuery == null || searchQuery.trim().isEmpty()) {
                 ps.setInt(1, pageSize);
                 ps.setInt(2, offset);
@@ -484,7 +512,7 @@ public class MysqlUserDao implements UserDao, AutoCloseable {
             sql = "SELECT COUNT(*) FROM users WHERE LOWER(username) LIKE LOWER(?) OR LOWER(email) LIKE LOWER(?)";
         }
 
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = pool.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
             if (searchQuery != null && !searchQuery.trim().isEmpty()) {
                 String searchPattern = "%" + searchQuery.trim() + "%";
                 ps.setString(1, searchPattern);
@@ -509,7 +537,7 @@ public class MysqlUserDao implements UserDao, AutoCloseable {
         debugLog("Getting approved user count (excluding pending)");
         int count = 0;
         String sql = "SELECT COUNT(*) FROM users WHERE status != 'pending'";
-        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+        try (Connection conn = pool.getConnection(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
             if (rs.next()) {
                 count = rs.getInt(1);
             }
@@ -533,7 +561,7 @@ public class MysqlUserDao implements UserDao, AutoCloseable {
             sql = "SELECT COUNT(*) FROM users WHERE status != 'pending' AND (LOWER(username) LIKE LOWER(?) OR LOWER(email) LIKE LOWER(?))";
         }
 
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = pool.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
             if (searchQuery != null && !searchQuery.trim().isEmpty()) {
                 String searchPattern = "%" + searchQuery.trim() + "%";
                 ps.setString(1, searchPattern);
@@ -554,13 +582,13 @@ public class MysqlUserDao implements UserDao, AutoCloseable {
     }
 
     @Override
-    public List<Map<String, Object>> getApprovedUsersWithPagination(int page, int pageSize) {
+    public List<UserRecord> getApprovedUsersWithPagination(int page, int pageSize) {
         debugLog("Getting approved users with pagination: page=" + page + ", pageSize=" + pageSize);
-        List<Map<String, Object>> result = new ArrayList<>();
+        List<UserRecord> result = new ArrayList<>();
         int offset = (page - 1) * pageSize;
 
         String sql = "SELECT * FROM users WHERE status != 'pending' ORDER BY regTime DESC LIMIT ? OFFSET ?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = pool.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, pageSize);
             ps.setInt(2, offset);
             try (ResultSet rs = ps.executeQuery()) {
@@ -577,9 +605,9 @@ public class MysqlUserDao implements UserDao, AutoCloseable {
     }
 
     @Override
-    public List<Map<String, Object>> getApprovedUsersWithPaginationAndSearch(int page, int pageSize, String searchQuery) {
+    public List<UserRecord> getApprovedUsersWithPaginationAndSearch(int page, int pageSize, String searchQuery) {
         debugLog("Getting approved users with pagination and search: page=" + page + ", pageSize=" + pageSize + ", query=" + searchQuery);
-        List<Map<String, Object>> result = new ArrayList<>();
+        List<UserRecord> result = new ArrayList<>();
         int offset = (page - 1) * pageSize;
 
         String sql;
@@ -589,7 +617,7 @@ public class MysqlUserDao implements UserDao, AutoCloseable {
             sql = "SELECT * FROM users WHERE status != 'pending' AND (LOWER(username) LIKE LOWER(?) OR LOWER(email) LIKE LOWER(?)) ORDER BY regTime DESC LIMIT ? OFFSET ?";
         }
 
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = pool.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
             if (searchQuery == null || searchQuery.trim().isEmpty()) {
                 ps.setInt(1, pageSize);
                 ps.setInt(2, offset);
@@ -614,11 +642,60 @@ public class MysqlUserDao implements UserDao, AutoCloseable {
         return result;
     }
 
+    @Override
+    public List<UserRecord> getUsersAfter(UserCursor after, int limit, String search, String status) {
+        debugLog("Getting users after cursor: " + after + ", limit=" + limit + ", query=" + search + ", status=" + status);
+        List<UserRecord> result = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT * FROM users");
+        List<Object> params = new ArrayList<>();
+        List<String> conditions = new ArrayList<>();
+
+        if ("approved".equalsIgnoreCase(status)) {
+            conditions.add("status != 'pending'");
+        } else if (status != null && !status.isEmpty() && !"all".equalsIgnoreCase(status)) {
+            conditions.add("status = ?");
+            params.add(status.toLowerCase());
+        }
+        if (search != null && !search.trim().isEmpty()) {
+            String searchPattern = "%" + search.trim() + "%";
+            conditions.add("(LOWER(username) LIKE LOWER(?) OR LOWER(email) LIKE LOWER(?))");
+            params.add(searchPattern);
+            params.add(searchPattern);
+        }
+        if (after != null) {
+            conditions.add("(regTime < ? OR (regTime = ? AND username < ?))");
+            params.add(after.regTime());
+            params.add(after.regTime());
+            params.add(after.username());
+        }
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sql.append(" ORDER BY regTime DESC, username DESC LIMIT ?");
+        params.add(Math.max(0, limit));
+
+        try (Connection conn = pool.getConnection(); PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    result.add(mapUserFromResultSet(rs));
+                }
+            }
+        } catch (SQLException e) {
+            debugLog("Error getting users after cursor: " + e.getMessage());
+        }
+
+        debugLog("Returning " + result.size() + " users after cursor");
+        return result;
+    }
+
     @Override
     public boolean updateUserDiscordId(String username, String discordId) {
         debugLog("updateUserDiscordId called: username=" + username + ", discordId=" + discordId);
-        String sql = "UPDATE users SET discord_id=? WHERE LOWER(username)=LOWER(?)";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        String sql = "UPDATE users SET discord_id=?, updated_at=" + NOW_MILLIS + " WHERE LOWER(username)=LOWER(?)";
+        try (Connection conn = pool.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, discordId);
             ps.setString(2, username);
             int rows = ps.executeUpdate();
@@ -631,10 +708,10 @@ public class MysqlUserDao implements UserDao, AutoCloseable {
     }
 
     @Override
-    public Map<String, Object> getUserByDiscordId(String discordId) {
+    public UserRecord getUserByDiscordId(String discordId) {
         debugLog("Getting user by Discord ID: " + discordId);
         String sql = "SELECT * FROM users WHERE discord_id=?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = pool.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, discordId);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
@@ -657,13 +734,9 @@ public class MysqlUserDao implements UserDao, AutoCloseable {
 
     @Override
     public void close() {
-        if (conn != null) {
-            try {
-                conn.close();
-                debugLog("Database connection closed");
-            } catch (SQLException e) {
-                debugLog("Error closing database connection: " + e.getMessage());
-            }
+        if (ownsPool) {
+            pool.close();
+            debugLog("Database connection pool closed");
         }
     }
 }
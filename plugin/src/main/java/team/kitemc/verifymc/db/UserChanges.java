@@ -0,0 +1,15 @@
+package team.kitemc.verifymc.db;
+
+import java.util.List;
+
+/**
+ * Result of {@link UserDao#getUsersChangedSince}: users written at or after the
+ * requested time, and the storage clock when the scan ran. Pass a little less
+ * than {@code scannedAt} to the next scan so writes that were still committing
+ * are not missed.
+ */
+public record UserChanges(long scannedAt, List<String> usernames) {
+    public UserChanges {
+        usernames = List.copyOf(usernames);
+    }
+}
@@ -0,0 +1,54 @@
+package team.kitemc.verifymc.db;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset position in the admin user listing, which is ordered by
+ * {@code regTime DESC, username DESC}. A page "after" a cursor starts with the
+ * first user strictly older than it, so deep pages cost the same as page one.
+ */
+public record UserCursor(long regTime, String username) {
+    public UserCursor {
+        username = username == null ? "" : username;
+    }
+
+    public static UserCursor of(UserRecord user) {
+        return new UserCursor(user.regTime(), user.username() == null ? "" : user.username().toLowerCase());
+    }
+
+    /**
+     * Opaque URL-safe token handed to clients.
+     */
+    public String encode() {
+        String raw = regTime + ":" + username;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+     */
+    public static UserCursor decode(String token) {
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        int separator = raw.indexOf(':');
+        if (separator <= 0) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        try {
+            return new UserCursor(Long.parseLong(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+
+    /**
+     * Whether {@code user} sorts strictly after this cursor in listing order.
+     */
+    public boolean isBefore(UserRecord user) {
+        UserCursor other = of(user);
+        if (other.regTime != regTime) {
+            return other.regTime < regTime;
+        }
+        return other.username.compareTo(username) < 0;
+    }
+}
@@ -1,8 +1,11 @@
 package team.kitemc.verifymc.db;
 
 import java.util.List;
-import java.util.Map;
 
+/**
+ * User storage. Lookups return immutable {@link UserRecord}s that may be
+ * shared with other callers; updates go through the mutator methods.
+ */
 public interface UserDao {
     boolean registerUser(String username, String email, String status);
 
@@ -26,13 +29,13 @@ public interface UserDao {
 
     boolean updateUserEmail(String username, String email);
     
-    List<Map<String, Object>> getAllUsers();
+    List<UserRecord> getAllUsers();
     
-    List<Map<String, Object>> getUsersWithPagination(int page, int pageSize);
+    List<UserRecord> getUsersWithPagination(int page, int pageSize);
     
     int getTotalUserCount();
     
-    List<Map<String, Object>> getUsersWithPaginationAndSearch(int page, int pageSize, String searchQuery);
+    List<UserRecord> getUsersWithPaginationAndSearch(int page, int pageSize, String searchQuery);
     
     int getTotalUserCountWithSearch(String searchQuery);
     
@@ -40,15 +43,15 @@ public interface UserDao {
     
     int getApprovedUserCountWithSearch(String searchQuery);
     
-    List<Map<String, Object>> getApprovedUsersWithPagination(int page, int pageSize);
+    List<UserRecord> getApprovedUsersWithPagination(int page, int pageSize);
     
-    List<Map<String, Object>> getApprovedUsersWithPaginationAndSearch(int page, int pageSize, String searchQuery);
+    List<UserRecord> getApprovedUsersWithPaginationAndSearch(int page, int pageSize, String searchQuery);
     
-    Map<String, Object> getUserByUsername(String username);
+    UserRecord getUserByUsername(String username);
 
-    Map<String, Object> getUserByUsernameExact(String username);
+    UserRecord getUserByUsernameExact(String username);
 
-    Map<String, Object> getUserByEmail(String email);
+    UserRecord getUserByEmail(String email);
     
     boolean deleteUser(String username);
     
@@ -56,11 +59,11 @@ public interface UserDao {
     
     int countUsersByEmail(String email);
     
-    List<Map<String, Object>> getPendingUsers();
+    List<UserRecord> getPendingUsers();
     
     boolean updateUserDiscordId(String username, String discordId);
     
-    Map<String, Object> getUserByDiscordId(String discordId);
+    UserRecord getUserByDiscordId(String discordId);
     
     boolean isDiscordIdLinked(String discordId);
 
@@ -68,7 +71,7 @@ public interface UserDao {
         return updateUserStatus(username, status);
     }
 
-    default List<Map<String, Object>> getUsers(int page, int size, String search, String status) {
+    default List<UserRecord> getUsers(int page, int size, String search, String status) {
         if (status == null || status.isEmpty() || "all".equalsIgnoreCase(status)) {
             return getUsersWithPaginationAndSearch(page, size, search);
         }
@@ -91,6 +94,56 @@ public interface UserDao {
         return getTotalUserCountWithSearch(search);
     }
 
+    /**
+     * Keyset-paginated listing ordered by {@code regTime DESC, username DESC}.
+     * Returns up to {@code limit} users that sort after {@code after} (or from the
+     * newest user when {@code after} is null), filtered like {@link #getUsers}.
+     * Implementations should serve this from an index so the cost does not grow
+     * with the depth of the page.
+     */
+    default List<UserRecord> getUsersAfter(UserCursor after, int limit, String search, String status) {
+        String query = search == null ? "" : search.trim().toLowerCase();
+        return getAllUsers().stream()
+            .filter(u -> matchesListingStatus(u, status))
+            .filter(u -> query.isEmpty()
+                || (u.username() != null && u.username().toLowerCase().contains(query))
+                || (u.email() != null && u.email().toLowerCase().contains(query)))
+            .filter(u -> after == null || after.isBefore(u))
+            .sorted((a, b) -> {
+                int byTime = Long.compare(b.regTime(), a.regTime());
+                return byTime != 0 ? byTime : UserCursor.of(b).username().compareTo(UserCursor.of(a).username());
+            })
+            .limit(Math.max(0, limit))
+            .collect(java.util.stream.Collectors.toList());
+    }
+
+    /**
+     * Status filter shared by the listing methods: "all"/empty matches everything,
+     * "approved" matches every non-pending user, anything else matches exactly.
+     */
+    static boolean matchesListingStatus(UserRecord user, String status) {
+        if (status == null || status.isEmpty() || "all".equalsIgnoreCase(status)) {
+            return true;
+        }
+        if ("approved".equalsIgnoreCase(status)) {
+            return !user.isPending();
+        }
+        return user.status() != null && status.equalsIgnoreCase(user.status().value());
+    }
+
+    /**
+     * Users written at or after {@code since} (storage clock, epoch millis), so
+     * writes made by other servers sharing the storage can be picked up. A scan
+     * from {@link Long#MAX_VALUE} only reads the clock. Deletions are not
+     * reported.
+     *
+     * @return the changes, or null if this storage does not track write times
+     *         or the scan failed
+     */
+    default UserChanges getUsersChangedSince(long since) {
+        return null;
+    }
+
     default boolean banUser(String username) {
         return updateUserStatus(username, "banned");
     }
@@ -99,10 +152,10 @@ public interface UserDao {
         return updateUserStatus(username, "approved");
     }
 
-    default List<Map<String, Object>> getUsersByStatus(String status) {
-        List<Map<String, Object>> allUsers = getAllUsers();
+    default List<UserRecord> getUsersByStatus(String status) {
+        List<UserRecord> allUsers = getAllUsers();
         return allUsers.stream()
-            .filter(u -> status.equalsIgnoreCase((String) u.get("status")))
+            .filter(u -> u.status() != null && status.equalsIgnoreCase(u.status().value()))
             .collect(java.util.stream.Collectors.toList());
     }
 
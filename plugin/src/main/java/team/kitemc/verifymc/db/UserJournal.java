@@ -0,0 +1,285 @@
+package team.kitemc.verifymc.db;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Append-only mutation journal used by {@link FileUserDao}.
+ * <p>
+ * Callers enqueue one line per mutation and return immediately. A single
+ * background writer drains the queue in batches and issues one fsync per
+ * batch (group commit), so a burst of registrations costs one disk flush
+ * instead of one full snapshot rewrite per user.
+ */
+class UserJournal implements AutoCloseable {
+    /**
+     * Notified after every batch the writer attempts to persist.
+     */
+    interface CommitListener {
+        void onCommit(long journalBytes, boolean failed);
+    }
+
+    private final Path path;
+    private final long commitIntervalMs;
+    private final Logger logger;
+    private final Object queueLock = new Object();
+    private final Object ioLock = new Object();
+    private final Thread writer;
+
+    private List<String> pending = new ArrayList<>();
+    private FileChannel channel;
+    private long size;
+    private volatile boolean closed;
+    private volatile CommitListener commitListener;
+
+    UserJournal(Path path, long commitIntervalMs, Logger logger) throws IOException {
+        this.path = path;
+        this.commitIntervalMs = Math.max(0L, commitIntervalMs);
+        this.logger = logger;
+        this.channel = open(path);
+        this.size = channel.size();
+        terminateTornLine();
+        this.writer = new Thread(this::runWriter, "VerifyMC-UserJournal");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    private static FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * A crash mid-write can leave the last line without its newline; close it
+     * off so the next entry does not get glued onto the torn one.
+     */
+    private void terminateTornLine() throws IOException {
+        if (size == 0) {
+            return;
+        }
+        ByteBuffer last = ByteBuffer.allocate(1);
+        try (FileChannel reader = FileChannel.open(path, StandardOpenOption.READ)) {
+            reader.read(last, size - 1);
+        }
+        if (last.get(0) != '\n') {
+            size += channel.write(ByteBuffer.wrap(new byte[]{'\n'}));
+        }
+    }
+
+    void setCommitListener(CommitListener commitListener) {
+        this.commitListener = commitListener;
+    }
+
+    /**
+     * Queue a journal line. The line becomes durable with the next group commit.
+     */
+    void append(String line) {
+        synchronized (queueLock) {
+            if (closed) {
+                throw new IllegalStateException("Journal is closed: " + path);
+            }
+            pending.add(line);
+            if (pending.size() == 1) {
+                queueLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Write and fsync everything queued so far on the calling thread.
+     */
+    void flush() {
+        commit();
+    }
+
+    /**
+     * Current on-disk size of the journal in bytes.
+     */
+    long size() {
+        synchronized (ioLock) {
+            return size;
+        }
+    }
+
+    /**
+     * Flush pending lines and move the journal contents to {@code target},
+     * leaving an empty journal in place. If {@code target} already exists
+     * (an earlier compaction did not finish), the contents are appended to it
+     * so no mutation is ever dropped.
+     */
+    void rotate(Path target) throws IOException {
+        synchronized (ioLock) {
+            commitLocked();
+            channel.close();
+            if (Files.exists(target)) {
+                try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ);
+                     FileChannel out = open(target)) {
+                    long position = 0;
+                    long length = in.size();
+                    while (position < length) {
+                        position += in.transferTo(position, length - position, out);
+                    }
+                    out.force(false);
+                }
+                Files.delete(path);
+            } else {
+                try {
+                    Files.move(path, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(path, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            channel = open(path);
+            size = 0;
+        }
+    }
+
+    private void runWriter() {
+        while (!closed) {
+            synchronized (queueLock) {
+                while (pending.isEmpty() && !closed) {
+                    try {
+                        queueLock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+            if (commitIntervalMs > 0 && !closed) {
+                try {
+                    // Let concurrent writers join this batch before the fsync.
+                    Thread.sleep(commitIntervalMs);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            commit();
+        }
+    }
+
+    private void commit() {
+        long bytes;
+        boolean failed;
+        synchronized (ioLock) {
+            failed = !commitLocked();
+            bytes = size;
+        }
+        CommitListener listener = commitListener;
+        if (listener != null) {
+            listener.onCommit(bytes, failed);
+        }
+    }
+
+    private boolean commitLocked() {
+        List<String> batch;
+        synchronized (queueLock) {
+            if (pending.isEmpty()) {
+                return true;
+            }
+            batch = pending;
+            pending = new ArrayList<>();
+        }
+        StringBuilder sb = new StringBuilder();
+        for (String line : batch) {
+            sb.append(line).append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+        long start = size;
+        try {
+            while (buffer.hasRemaining()) {
+                size += write(channel, buffer);
+            }
+            channel.force(false);
+            return true;
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to write user journal " + path + " (" + batch.size() + " entries)", e);
+            discardPartialBatch(start);
+            return false;
+        }
+    }
+
+    /**
+     * Cuts off whatever part of a failed batch reached the file, so no torn
+     * line is left between complete entries.
+     */
+    private void discardPartialBatch(long start) {
+        try {
+            if (channel.size() > start) {
+                channel.truncate(start);
+            }
+            size = start;
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to truncate user journal " + path + " after a failed write", e);
+            try {
+                size = channel.size();
+            } catch (IOException ignored) {
+                // size stays at what was written; the next open terminates any torn line
+            }
+        }
+    }
+
+    /**
+     * Writes part of a batch; separate so tests can simulate failing disks.
+     */
+    int write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        return channel.write(buffer);
+    }
+
+    /**
+     * Replay every complete line of a journal file. A torn trailing line left
+     * by a crash is handed to the consumer like any other; callers are expected
+     * to skip lines they cannot parse.
+     *
+     * @return the number of lines read
+     */
+    static int replay(Path path, Consumer<String> consumer) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        int count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                consumer.accept(line);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void close() {
+        synchronized (queueLock) {
+            closed = true;
+            queueLock.notifyAll();
+        }
+        try {
+            writer.join(5000L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (ioLock) {
+            commitLocked();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Failed to close user journal " + path, e);
+            }
+        }
+    }
+}
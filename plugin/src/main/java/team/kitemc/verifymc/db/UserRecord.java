@@ -0,0 +1,53 @@
+package team.kitemc.verifymc.db;
+
+/**
+ * Immutable stored user. Changes produce a new instance via the {@code with*}
+ * methods so a record can be shared with readers without copying.
+ * {@code status} is null only for rows holding a value outside {@link UserStatus};
+ * that value is kept in {@code unknownStatus} so it is written back unchanged.
+ */
+public record UserRecord(String username, String email, UserStatus status, String password, long regTime,
+                         String discordId, Integer questionnaireScore, Boolean questionnairePassed,
+                         String questionnaireReviewSummary, Long questionnaireScoredAt, String unknownStatus) {
+
+    public UserRecord(String username, String email, UserStatus status, String password, long regTime,
+                      String discordId, Integer questionnaireScore, Boolean questionnairePassed,
+                      String questionnaireReviewSummary, Long questionnaireScoredAt) {
+        this(username, email, status, password, regTime, discordId,
+                questionnaireScore, questionnairePassed, questionnaireReviewSummary, questionnaireScoredAt, null);
+    }
+
+    public UserRecord withStatus(UserStatus status) {
+        return new UserRecord(username, email, status, password, regTime, discordId,
+                questionnaireScore, questionnairePassed, questionnaireReviewSummary, questionnaireScoredAt);
+    }
+
+    /**
+     * Sets the status from its stored value, keeping values outside {@link UserStatus} as {@code unknownStatus}.
+     */
+    public UserRecord withStatusValue(String value) {
+        UserStatus parsed = UserStatus.fromValue(value);
+        return new UserRecord(username, email, parsed, password, regTime, discordId,
+                questionnaireScore, questionnairePassed, questionnaireReviewSummary, questionnaireScoredAt,
+                parsed == null ? value : null);
+    }
+
+    public UserRecord withEmail(String email) {
+        return new UserRecord(username, email, status, password, regTime, discordId,
+                questionnaireScore, questionnairePassed, questionnaireReviewSummary, questionnaireScoredAt, unknownStatus);
+    }
+
+    public UserRecord withPassword(String password) {
+        return new UserRecord(username, email, status, password, regTime, discordId,
+                questionnaireScore, questionnairePassed, questionnaireReviewSummary, questionnaireScoredAt, unknownStatus);
+    }
+
+    public UserRecord withDiscordId(String discordId) {
+        return new UserRecord(username, email, status, password, regTime, discordId,
+                questionnaireScore, questionnairePassed, questionnaireReviewSummary, questionnaireScoredAt, unknownStatus);
+    }
+
+    public boolean isPending() {
+        return status == UserStatus.PENDING;
+    }
+}
@@ -0,0 +1,297 @@
+package team.kitemc.verifymc.db;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+/**
+ * Streaming codec for {@code users.json} and its journal.
+ * <p>
+ * Reads field by field straight into {@link UserRecord}s, so loading never
+ * builds an intermediate map per user. The snake_case names written by old
+ * versions ({@code discord_id}, {@code questionnaire_score}, ...) are accepted
+ * inline and reported so the caller can rewrite the file once; unknown fields
+ * are skipped. Null fields are omitted on write.
+ */
+final class UserRecordCodec {
+    private static final int WRITE_BUFFER = 64 * 1024;
+
+    interface Sink {
+        void accept(String key, UserRecord user);
+    }
+
+    interface JournalSink {
+        void put(String key, UserRecord user);
+
+        void delete(String key);
+    }
+
+    private UserRecordCodec() {
+    }
+
+    /**
+     * Reads a {@code {key: user, ...}} snapshot.
+     *
+     * @return true if any record used a legacy field layout and should be rewritten
+     */
+    static boolean readSnapshot(Reader in, Sink sink) throws IOException {
+        JsonReader reader = new JsonReader(in);
+        reader.setLenient(true);
+        boolean[] upgraded = {false};
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return false;
+        }
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                reader.skipValue();
+                continue;
+            }
+            sink.accept(key, readUser(reader, upgraded));
+        }
+        reader.endObject();
+        return upgraded[0];
+    }
+
+    /**
+     * Writes a snapshot through a buffered channel and forces it to disk.
+     */
+    static void writeSnapshot(Path target, Map<String, UserRecord> users) throws IOException {
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            JsonWriter writer = new JsonWriter(new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), WRITE_BUFFER));
+            writer.beginObject();
+            for (Map.Entry<String, UserRecord> entry : users.entrySet()) {
+                writer.name(entry.getKey());
+                writeUser(writer, entry.getValue());
+            }
+            writer.endObject();
+            writer.flush();
+            channel.force(true);
+        }
+    }
+
+    static String journalPut(String key, UserRecord user) {
+        StringWriter out = new StringWriter(256);
+        try {
+            JsonWriter writer = new JsonWriter(out);
+            writer.beginObject();
+            writer.name("op").value("put");
+            writer.name("key").value(key);
+            writer.name("user");
+            writeUser(writer, user);
+            writer.endObject();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toString();
+    }
+
+    static String journalDelete(String key) {
+        StringWriter out = new StringWriter(64);
+        try {
+            JsonWriter writer = new JsonWriter(out);
+            writer.beginObject();
+            writer.name("op").value("delete");
+            writer.name("key").value(key);
+            writer.endObject();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Applies one journal line. Lines without a key are ignored.
+     *
+     * @throws IOException if the line is not valid JSON (e.g. a torn write)
+     */
+    static void readJournalEntry(String line, JournalSink sink) throws IOException {
+        JsonReader reader = new JsonReader(new StringReader(line));
+        reader.setLenient(true);
+        String op = null;
+        String key = null;
+        UserRecord user = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            switch (name) {
+                case "op" -> op = string(reader);
+                case "key" -> key = string(reader);
+                case "user" -> {
+                    if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+                        user = readUser(reader, new boolean[1]);
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (key == null) {
+            return;
+        }
+        if ("delete".equals(op)) {
+            sink.delete(key);
+        } else if (user != null) {
+            sink.put(key, user);
+        }
+    }
+
+    static UserRecord readUser(JsonReader reader, boolean[] upgraded) throws IOException {
+        String username = null;
+        String email = null;
+        UserStatus status = null;
+        String statusValue = null;
+        String password = null;
+        Long regTime = null;
+        String discordId = null;
+        Integer questionnaireScore = null;
+        Boolean questionnairePassed = null;
+        String questionnaireReviewSummary = null;
+        Long questionnaireScoredAt = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "username" -> username = string(reader);
+                case "email" -> email = string(reader);
+                case "status" -> {
+                    statusValue = string(reader);
+                    status = UserStatus.fromValue(statusValue);
+                }
+                case "password" -> password = string(reader);
+                case "regTime" -> regTime = longValue(reader);
+                case "discordId" -> discordId = string(reader);
+                case "questionnaireScore" -> questionnaireScore = intValue(reader);
+                case "questionnairePassed" -> questionnairePassed = booleanValue(reader);
+                case "questionnaireReviewSummary" -> questionnaireReviewSummary = string(reader);
+                case "questionnaireScoredAt" -> questionnaireScoredAt = longValue(reader);
+                // Legacy snake_case names; the camelCase field wins when both are present.
+                case "discord_id" -> {
+                    String value = string(reader);
+                    if (discordId == null) discordId = value;
+                    upgraded[0] = true;
+                }
+                case "questionnaire_score" -> {
+                    Integer value = intValue(reader);
+                    if (questionnaireScore == null) questionnaireScore = value;
+                    upgraded[0] = true;
+                }
+                case "questionnaire_passed" -> {
+                    Boolean value = booleanValue(reader);
+                    if (questionnairePassed == null) questionnairePassed = value;
+                    upgraded[0] = true;
+                }
+                case "questionnaire_review_summary" -> {
+                    String value = string(reader);
+                    if (questionnaireReviewSummary == null) questionnaireReviewSummary = value;
+                    upgraded[0] = true;
+                }
+                case "questionnaire_scored_at" -> {
+                    Long value = longValue(reader);
+                    if (questionnaireScoredAt == null) questionnaireScoredAt = value;
+                    upgraded[0] = true;
+                }
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (regTime == null) {
+            regTime = System.currentTimeMillis();
+            upgraded[0] = true;
+        }
+        return new UserRecord(username, email, status, password, regTime, discordId,
+                questionnaireScore, questionnairePassed, questionnaireReviewSummary, questionnaireScoredAt,
+                status == null ? statusValue : null);
+    }
+
+    static void writeUser(JsonWriter writer, UserRecord user) throws IOException {
+        writer.beginObject();
+        if (user.username() != null) writer.name("username").value(user.username());
+        if (user.email() != null) writer.name("email").value(user.email());
+        if (user.status() != null) {
+            writer.name("status").value(user.status().value());
+        } else if (user.unknownStatus() != null) {
+            writer.name("status").value(user.unknownStatus());
+        }
+        if (user.password() != null) writer.name("password").value(user.password());
+        writer.name("regTime").value(user.regTime());
+        if (user.discordId() != null) writer.name("discordId").value(user.discordId());
+        if (user.questionnaireScore() != null) writer.name("questionnaireScore").value(user.questionnaireScore());
+        if (user.questionnairePassed() != null) writer.name("questionnairePassed").value(user.questionnairePassed());
+        if (user.questionnaireReviewSummary() != null) writer.name("questionnaireReviewSummary").value(user.questionnaireReviewSummary());
+        if (user.questionnaireScoredAt() != null) writer.name("questionnaireScoredAt").value(user.questionnaireScoredAt());
+        writer.endObject();
+    }
+
+    private static String string(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.BOOLEAN) {
+            return String.valueOf(reader.nextBoolean());
+        }
+        if (token == JsonToken.STRING || token == JsonToken.NUMBER) {
+            return reader.nextString();
+        }
+        reader.skipValue();
+        return null;
+    }
+
+    /**
+     * Accepts integral numbers in any notation (Gson used to write {@code regTime}
+     * as a double such as {@code 1.7E12}) and numeric strings; anything else is 0.
+     */
+    private static Long longValue(JsonReader reader) throws IOException {
+        String raw = string(reader);
+        if (raw == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(raw);
+        } catch (NumberFormatException e) {
+            try {
+                return (long) Double.parseDouble(raw);
+            } catch (NumberFormatException ignored) {
+                return 0L;
+            }
+        }
+    }
+
+    private static Integer intValue(JsonReader reader) throws IOException {
+        Long value = longValue(reader);
+        return value == null ? null : value.intValue();
+    }
+
+    private static Boolean booleanValue(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.BOOLEAN) {
+            return reader.nextBoolean();
+        }
+        if (token == JsonToken.NUMBER) {
+            return Double.parseDouble(reader.nextString()) != 0;
+        }
+        String raw = string(reader);
+        return raw == null ? null : Boolean.parseBoolean(raw);
+    }
+}
@@ -0,0 +1,42 @@
+package team.kitemc.verifymc.db;
+
+import java.util.Locale;
+
+/**
+ * Review state of a registered user. Stored and sent over the API as the
+ * lower-case {@link #value()}.
+ */
+public enum UserStatus {
+    PENDING,
+    APPROVED,
+    REJECTED,
+    BANNED;
+
+    private final String value = name().toLowerCase(Locale.ROOT);
+
+    public String value() {
+        return value;
+    }
+
+    /**
+     * @return the matching status (case-insensitive), or null for null or unknown values
+     */
+    public static UserStatus fromValue(String value) {
+        if (value == null) {
+            return null;
+        }
+        for (UserStatus status : values()) {
+            if (status.value.equalsIgnoreCase(value)) {
+                return status;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Lower-case value of a possibly-null status, for display and comparisons.
+     */
+    public static String toValue(UserStatus status) {
+        return status == null ? "" : status.value;
+    }
+}
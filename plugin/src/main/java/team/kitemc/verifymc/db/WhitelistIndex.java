@@ -0,0 +1,382 @@
+package team.kitemc.verifymc.db;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory username → status index used to answer whitelist checks without
+ * reading full user rows.
+ * <p>
+ * Built from {@link #getAllUsers()} once and kept current by re-reading the
+ * affected user after every call that can add, remove or change the status
+ * of a user. Re-reads of the same user are serialized, so a slower re-read can
+ * never replace the result of a later one. Writes made by other servers
+ * sharing a MySQL database are picked up by {@link #pollChanges()}, which
+ * re-reads the users the storage reports as written since the last poll.
+ * {@link #rebuild()} reloads everything as a safety net and is the only way
+ * a user deleted by another server disappears; writes that race a rebuild
+ * are re-applied once the new index is in place.
+ * <p>
+ * Every change to an entry after the initial build is numbered with a
+ * sequence that only grows within an {@link #epoch()} (a new epoch starts with
+ * each index instance, i.e. each server start), so replicas can bootstrap from
+ * {@link #snapshot()} and then follow {@link #changesSince}. Only the most
+ * recent {@code MAX_CHANGES} changes are kept; older positions need a new
+ * snapshot. {@link ChangeListener}s are told about each change as it is
+ * numbered, in sequence order.
+ */
+public class WhitelistIndex extends ForwardingUserDao {
+    /**
+     * Indexed view of a user. {@code status} is null for rows holding an
+     * unknown status value.
+     */
+    public record Entry(String username, UserStatus status) {
+        public String statusValue() {
+            return status != null ? status.value() : "unknown";
+        }
+    }
+
+    /** Approved usernames at {@code sequence}. */
+    public record Snapshot(String epoch, long sequence, List<String> approved) {
+    }
+
+    /** Users that became approved or stopped being approved after a given sequence. */
+    public record Delta(String epoch, long sequence, List<String> approved, List<String> revoked) {
+    }
+
+    private record Change(long sequence, String username) {
+    }
+
+    /**
+     * Called with the change lock held, so calls arrive in sequence order;
+     * implementations must not block.
+     */
+    public interface ChangeListener {
+        /**
+         * @param entry the user's new entry, or null if the user was removed
+         */
+        void onChange(String epoch, long sequence, String username, Entry entry);
+    }
+
+    private static final int MAX_CHANGES = 10_000;
+    private static final int REFRESH_STRIPES = 64;
+    // Writes still committing when a poll runs can carry an earlier timestamp.
+    private static final long CHANGE_OVERLAP_MS = 5_000L;
+
+    private volatile Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final String epoch = Long.toHexString(System.currentTimeMillis()) + "-"
+            + Integer.toHexString(ThreadLocalRandom.current().nextInt());
+    private final Object changeLock = new Object();
+    // Held across the delegate read and the index update of a refresh, per user key.
+    private final Object[] refreshLocks = new Object[REFRESH_STRIPES];
+    private final ArrayDeque<Change> changes = new ArrayDeque<>();
+    private long sequence;
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final Object rebuildLock = new Object();
+    private final Set<String> touched = ConcurrentHashMap.newKeySet();
+    private volatile boolean rebuilding;
+    // Storage clock of the last change scan, -1 until known; guarded by rebuildLock.
+    private long changesScannedAt = -1;
+
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong rebuilds = new AtomicLong();
+    private final AtomicLong polledChanges = new AtomicLong();
+    private volatile long lastRebuildMs;
+
+    public WhitelistIndex(UserDao delegate) {
+        super(delegate);
+        for (int i = 0; i < refreshLocks.length; i++) {
+            refreshLocks[i] = new Object();
+        }
+        rebuild();
+    }
+
+    /**
+     * Case-insensitive lookup, matching {@link UserDao#getUserByUsername}.
+     *
+     * @return the indexed user, or null if not registered
+     */
+    public Entry lookup(String username) {
+        if (username == null) {
+            return null;
+        }
+        lookups.incrementAndGet();
+        return entries.get(key(username));
+    }
+
+    public void addChangeListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public String epoch() {
+        return epoch;
+    }
+
+    public Snapshot snapshot() {
+        synchronized (changeLock) {
+            List<String> approved = new ArrayList<>();
+            for (Entry entry : entries.values()) {
+                if (entry.status() == UserStatus.APPROVED) {
+                    approved.add(entry.username());
+                }
+            }
+            return new Snapshot(epoch, sequence, approved);
+        }
+    }
+
+    /**
+     * Changes after {@code since}, reported as each user's current state.
+     *
+     * @return the delta, or null if {@code epoch} is not the current one or
+     *         {@code since} is no longer covered and a new snapshot is needed
+     */
+    public Delta changesSince(String epoch, long since) {
+        synchronized (changeLock) {
+            if (!this.epoch.equals(epoch) || since > sequence) {
+                return null;
+            }
+            long oldest = changes.isEmpty() ? sequence + 1 : changes.peekFirst().sequence();
+            if (since < oldest - 1) {
+                return null;
+            }
+            Set<String> keys = new LinkedHashSet<>();
+            Map<String, String> names = new HashMap<>();
+            for (Iterator<Change> it = changes.descendingIterator(); it.hasNext(); ) {
+                Change change = it.next();
+                if (change.sequence() <= since) {
+                    break;
+                }
+                String key = key(change.username());
+                keys.add(key);
+                names.putIfAbsent(key, change.username());
+            }
+            List<String> approved = new ArrayList<>();
+            List<String> revoked = new ArrayList<>();
+            for (String key : keys) {
+                Entry entry = entries.get(key);
+                if (entry != null && entry.status() == UserStatus.APPROVED) {
+                    approved.add(entry.username());
+                } else {
+                    revoked.add(entry != null ? entry.username() : names.get(key));
+                }
+            }
+            return new Delta(epoch, sequence, approved, revoked);
+        }
+    }
+
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            long start = System.nanoTime();
+            UserChanges clock = delegate.getUsersChangedSince(Long.MAX_VALUE);
+            touched.clear();
+            rebuilding = true;
+            Map<String, Entry> fresh = new ConcurrentHashMap<>();
+            try {
+                for (UserRecord user : delegate.getAllUsers()) {
+                    if (user.username() != null) {
+                        fresh.put(key(user.username()), new Entry(user.username(), user.status()));
+                    }
+                }
+                swap(fresh, rebuilds.get() > 0);
+            } finally {
+                rebuilding = false;
+            }
+            for (String username : touched) {
+                refresh(username);
+            }
+            touched.clear();
+            if (clock != null) {
+                changesScannedAt = clock.scannedAt();
+            }
+            rebuilds.incrementAndGet();
+            lastRebuildMs = (System.nanoTime() - start) / 1_000_000L;
+        }
+    }
+
+    /**
+     * Re-reads every user the storage reports as written since the previous
+     * poll or rebuild. Does nothing on storage that does not track write times.
+     */
+    public void pollChanges() {
+        synchronized (rebuildLock) {
+            long since = changesScannedAt;
+            UserChanges changes = delegate.getUsersChangedSince(since < 0 ? Long.MAX_VALUE : since - CHANGE_OVERLAP_MS);
+            if (changes == null) {
+                return;
+            }
+            for (String username : changes.usernames()) {
+                refresh(username);
+            }
+            polledChanges.addAndGet(changes.usernames().size());
+            changesScannedAt = Math.max(since, changes.scannedAt());
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", entries.size());
+        synchronized (changeLock) {
+            stats.put("sequence", sequence);
+        }
+        stats.put("lookups", lookups.get());
+        stats.put("rebuilds", rebuilds.get());
+        stats.put("polledChanges", polledChanges.get());
+        stats.put("lastRebuildMs", lastRebuildMs);
+        return stats;
+    }
+
+    @Override
+    public boolean registerUser(String username, String email, String status) {
+        try {
+            return delegate.registerUser(username, email, status);
+        } finally {
+            refresh(username);
+        }
+    }
+
+    @Override
+    public boolean registerUser(String username, String email, String status,
+                                Integer questionnaireScore, Boolean questionnairePassed,
+                                String questionnaireReviewSummary, Long questionnaireScoredAt) {
+        try {
+            return delegate.registerUser(username, email, status, questionnaireScore, questionnairePassed,
+                    questionnaireReviewSummary, questionnaireScoredAt);
+        } finally {
+            refresh(username);
+        }
+    }
+
+    @Override
+    public boolean registerUser(String username, String email, String status, String password) {
+        try {
+            return delegate.registerUser(username, email, status, password);
+        } finally {
+            refresh(username);
+        }
+    }
+
+    @Override
+    public boolean registerUser(String username, String email, String status, String password,
+                                Integer questionnaireScore, Boolean questionnairePassed,
+                                String questionnaireReviewSummary, Long questionnaireScoredAt) {
+        try {
+            return delegate.registerUser(username, email, status, password, questionnaireScore, questionnairePassed,
+                    questionnaireReviewSummary, questionnaireScoredAt);
+        } finally {
+            refresh(username);
+        }
+    }
+
+    @Override
+    public boolean updateUserStatus(String username, String status) {
+        try {
+            return delegate.updateUserStatus(username, status);
+        } finally {
+            refresh(username);
+        }
+    }
+
+    @Override
+    public boolean updateUserStatus(String username, String status, String operator) {
+        try {
+            return delegate.updateUserStatus(username, status, operator);
+        } finally {
+            refresh(username);
+        }
+    }
+
+    @Override
+    public boolean banUser(String username) {
+        try {
+            return delegate.banUser(username);
+        } finally {
+            refresh(username);
+        }
+    }
+
+    @Override
+    public boolean unbanUser(String username) {
+        try {
+            return delegate.unbanUser(username);
+        } finally {
+            refresh(username);
+        }
+    }
+
+    @Override
+    public boolean deleteUser(String username) {
+        try {
+            return delegate.deleteUser(username);
+        } finally {
+            refresh(username);
+        }
+    }
+
+    private void refresh(String username) {
+        if (username == null) {
+            return;
+        }
+        if (rebuilding) {
+            touched.add(username);
+        }
+        String key = key(username);
+        synchronized (refreshLocks[Math.floorMod(key.hashCode(), refreshLocks.length)]) {
+            UserRecord user = delegate.getUserByUsername(username);
+            synchronized (changeLock) {
+                Entry previous = user == null || user.username() == null
+                        ? entries.remove(key)
+                        : entries.put(key, new Entry(user.username(), user.status()));
+                Entry current = entries.get(key);
+                if (!Objects.equals(previous, current)) {
+                    record(current != null ? current.username() : username, current);
+                }
+            }
+        }
+    }
+
+    private void swap(Map<String, Entry> fresh, boolean track) {
+        synchronized (changeLock) {
+            if (track) {
+                Map<String, Entry> old = entries;
+                for (Map.Entry<String, Entry> entry : fresh.entrySet()) {
+                    if (!entry.getValue().equals(old.get(entry.getKey()))) {
+                        record(entry.getValue().username(), entry.getValue());
+                    }
+                }
+                for (Map.Entry<String, Entry> entry : old.entrySet()) {
+                    if (!fresh.containsKey(entry.getKey())) {
+                        record(entry.getValue().username(), null);
+                    }
+                }
+            }
+            entries = fresh;
+        }
+    }
+
+    private void record(String username, Entry entry) {
+        changes.addLast(new Change(++sequence, username));
+        if (changes.size() > MAX_CHANGES) {
+            changes.removeFirst();
+        }
+        for (ChangeListener listener : listeners) {
+            listener.onChange(epoch, sequence, username, entry);
+        }
+    }
+
+    private static String key(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+}
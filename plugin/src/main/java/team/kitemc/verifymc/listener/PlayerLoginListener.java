@@ -4,18 +4,52 @@ import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerLoginEvent;
 import team.kitemc.verifymc.core.PluginContext;
+import team.kitemc.verifymc.db.UserRecord;
+import team.kitemc.verifymc.db.UserStatus;
 
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Enforces the whitelist on join.
+ * <p>
+ * The user lookup runs in {@link AsyncPlayerPreLoginEvent} on the connection
+ * thread and is handed to {@link PlayerLoginEvent} by UUID, so the tick thread
+ * never waits on storage. The decision itself stays in the sync event where it
+ * always was. A handoff that is missing or older than {@link #LOOKUP_TTL_MS}
+ * (pre-login denied by another plugin, event skipped) falls back to a lookup
+ * on the main thread.
+ */
 public class PlayerLoginListener implements Listener {
+    private static final long LOOKUP_TTL_MS = 10_000L;
+
+    private record Lookup(String username, UserRecord user, long expiresAt) {
+    }
+
     private final PluginContext ctx;
+    private final Map<UUID, Lookup> lookups = new ConcurrentHashMap<>();
 
     public PlayerLoginListener(PluginContext ctx) {
         this.ctx = ctx;
     }
 
+    @EventHandler(priority = EventPriority.HIGHEST)
+    public void onAsyncPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        lookups.values().removeIf(lookup -> lookup.expiresAt() < now);
+
+        String username = event.getName();
+        UserRecord user = ctx.getUserDao().getUserByUsername(username);
+        lookups.put(event.getUniqueId(), new Lookup(username, user, now + LOOKUP_TTL_MS));
+    }
+
     @EventHandler(priority = EventPriority.HIGHEST)
     public void onPlayerLogin(PlayerLoginEvent event) {
         Player player = event.getPlayer();
@@ -26,7 +60,14 @@ public class PlayerLoginListener implements Listener {
         String whitelistMode = ctx.getConfigManager().getWhitelistMode();
         boolean isPluginMode = "plugin".equalsIgnoreCase(whitelistMode);
 
-        Map<String, Object> user = ctx.getUserDao().getUserByUsername(username);
+        UserRecord user;
+        Lookup lookup = lookups.remove(player.getUniqueId());
+        if (lookup != null && lookup.username().equals(username) && lookup.expiresAt() >= System.currentTimeMillis()) {
+            user = lookup.user();
+        } else {
+            ctx.debugLog("No pre-login lookup for " + username + ", querying on the main thread.");
+            user = ctx.getUserDao().getUserByUsername(username);
+        }
 
         if (user == null) {
             if (isPluginMode) {
@@ -41,30 +82,31 @@ public class PlayerLoginListener implements Listener {
             return;
         }
 
-        String status = (String) user.getOrDefault("status", "");
+        UserStatus status = user.status();
+        if (status == null) {
+            ctx.debugLog("User " + username + " has unknown status");
+            return;
+        }
 
         switch (status) {
-            case "approved" -> {
+            case APPROVED -> {
                 ctx.debugLog("User " + username + " is approved, allowing login.");
             }
-            case "pending" -> {
+            case PENDING -> {
                 String msg = ctx.getMessage("login.pending", ctx.getConfigManager().getLanguage());
                 event.disallow(PlayerLoginEvent.Result.KICK_OTHER, msg);
                 ctx.debugLog("User " + username + " is pending, kicking.");
             }
-            case "rejected" -> {
+            case REJECTED -> {
                 String msg = ctx.getMessage("login.rejected", ctx.getConfigManager().getLanguage());
                 event.disallow(PlayerLoginEvent.Result.KICK_OTHER, msg);
                 ctx.debugLog("User " + username + " is rejected, kicking.");
             }
-            case "banned" -> {
+            case BANNED -> {
                 String msg = ctx.getMessage("login.banned", ctx.getConfigManager().getLanguage());
                 event.disallow(PlayerLoginEvent.Result.KICK_BANNED, msg);
                 ctx.debugLog("User " + username + " is banned, kicking.");
             }
-            default -> {
-                ctx.debugLog("User " + username + " has unknown status: " + status);
-            }
         }
     }
 }
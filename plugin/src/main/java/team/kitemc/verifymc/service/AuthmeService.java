@@ -3,6 +3,8 @@ package team.kitemc.verifymc.service;
 import org.bukkit.Bukkit;
 import org.bukkit.plugin.Plugin;
 import team.kitemc.verifymc.db.UserDao;
+import team.kitemc.verifymc.db.UserRecord;
+import team.kitemc.verifymc.db.UserStatus;
 import team.kitemc.verifymc.util.PasswordUtil;
 
 import java.sql.Connection;
@@ -121,10 +123,10 @@ public class AuthmeService {
             return;
         }
         try {
-            List<Map<String, Object>> localUsers = userDao.getAllUsers();
-            Map<String, Map<String, Object>> localByLowerName = new HashMap<>();
-            for (Map<String, Object> u : localUsers) {
-                String username = (String) u.get("username");
+            List<UserRecord> localUsers = userDao.getAllUsers();
+            Map<String, UserRecord> localByLowerName = new HashMap<>();
+            for (UserRecord u : localUsers) {
+                String username = u.username();
                 if (username != null) {
                     localByLowerName.put(username.toLowerCase(), u);
                 }
@@ -136,12 +138,11 @@ public class AuthmeService {
                 authmeByLowerName.put(name.toLowerCase(), name);
             }
 
-            for (Map<String, Object> local : localUsers) {
-                String status = (String) local.get("status");
-                String username = (String) local.get("username");
-                String password = (String) local.get("password");
-                String email = (String) local.get("email");
-                if (username == null || !"approved".equals(status)) {
+            for (UserRecord local : localUsers) {
+                String username = local.username();
+                String password = local.password();
+                String email = local.email();
+                if (username == null || local.status() != UserStatus.APPROVED) {
                     continue;
                 }
                 String authName = authmeByLowerName.get(username.toLowerCase());
@@ -170,7 +171,7 @@ public class AuthmeService {
                 AuthmeProfile profile = entry.getValue();
                 String authPassword = profile != null ? profile.password : null;
                 String authEmail = profile != null ? profile.email : null;
-                Map<String, Object> local = localByLowerName.get(authName.toLowerCase());
+                UserRecord local = localByLowerName.get(authName.toLowerCase());
                 if (local == null) {
                     String localEmail = authEmail != null ? authEmail : "";
                     if (authPassword != null && !authPassword.trim().isEmpty()) {
@@ -182,22 +183,21 @@ public class AuthmeService {
                             Bukkit.dispatchCommand(Bukkit.getConsoleSender(), "whitelist add " + authName));
                     continue;
                 }
-                String status = (String) local.get("status");
-                if (!"approved".equals(status) && !"banned".equals(status)) {
+                if (local.status() != UserStatus.APPROVED && local.status() != UserStatus.BANNED) {
                     userDao.updateUserStatus(authName, "approved");
                     Bukkit.getScheduler().runTask(plugin, () ->
                             Bukkit.dispatchCommand(Bukkit.getConsoleSender(), "whitelist add " + authName));
                 }
 
                 if (authPassword != null && !authPassword.trim().isEmpty()) {
-                    String localPassword = (String) local.get("password");
+                    String localPassword = local.password();
                     if (localPassword == null || localPassword.trim().isEmpty() || !authPassword.equals(localPassword)) {
                         userDao.updateUserPassword(authName, authPassword);
                     }
                 }
 
                 if (authEmail != null && !authEmail.trim().isEmpty()) {
-                    String localEmail = (String) local.get("email");
+                    String localEmail = local.email();
                     if (localEmail == null || localEmail.trim().isEmpty() || !authEmail.equalsIgnoreCase(localEmail)) {
                         userDao.updateUserEmail(authName, authEmail);
                     }
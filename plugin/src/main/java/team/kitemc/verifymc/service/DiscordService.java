@@ -5,6 +5,7 @@ import org.bukkit.scheduler.BukkitRunnable;
 import org.json.JSONObject;
 import org.json.JSONArray;
 import team.kitemc.verifymc.db.UserDao;
+import team.kitemc.verifymc.db.UserRecord;
 
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
@@ -211,9 +212,9 @@ public class DiscordService {
             
             // Check if this Discord account is already linked to another user
             if (userDao != null && userDao.isDiscordIdLinked(user.id)) {
-                Map<String, Object> existingUser = userDao.getUserByDiscordId(user.id);
+                UserRecord existingUser = userDao.getUserByDiscordId(user.id);
                 if (existingUser != null) {
-                    String existingUsername = (String) existingUser.get("username");
+                    String existingUsername = existingUser.username();
                     if (!existingUsername.equalsIgnoreCase(username)) {
                         debugLog("Discord account already linked to: " + existingUsername);
                         return new DiscordCallbackResult(false, "This Discord account is already linked to another user", username, user);
@@ -429,15 +430,9 @@ public class DiscordService {
     public boolean isLinked(String username) {
         // First check database
         if (userDao != null) {
-            Map<String, Object> user = userDao.getUserByUsername(username);
-            if (user != null) {
-                Object discordId = user.get("discordId");
-                if (discordId == null) {
-                    discordId = user.get("discord_id");
-                }
-                if (discordId != null && !discordId.toString().isEmpty()) {
-                    return true;
-                }
+            UserRecord user = userDao.getUserByUsername(username);
+            if (user != null && user.discordId() != null && !user.discordId().isEmpty()) {
+                return true;
             }
         }
         
@@ -452,15 +447,9 @@ public class DiscordService {
      */
     public String getLinkedDiscordId(String username) {
         if (userDao != null) {
-            Map<String, Object> user = userDao.getUserByUsername(username);
-            if (user != null) {
-                Object discordId = user.get("discordId");
-                if (discordId == null) {
-                    discordId = user.get("discord_id");
-                }
-                if (discordId != null && !discordId.toString().isEmpty()) {
-                    return discordId.toString();
-                }
+            UserRecord user = userDao.getUserByUsername(username);
+            if (user != null && user.discordId() != null && !user.discordId().isEmpty()) {
+                return user.discordId();
             }
         }
         return null;
@@ -0,0 +1,199 @@
+package team.kitemc.verifymc.web;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Web server executor with a global in-flight limit.
+ * <p>
+ * {@code web_executor.mode} selects virtual threads ({@code virtual}, needs
+ * Java 21), a fixed pool with a bounded queue ({@code pool}), or virtual
+ * threads when the runtime has them and the pool otherwise ({@code auto}).
+ * <p>
+ * A request is in flight from the moment it is queued until its handler
+ * returns. The limit is checked when the server hands over the request, before
+ * it is queued: requests beyond {@code web_executor.max_in_flight} never enter
+ * the pool but run on a small separate executor, where {@link #filter()}
+ * answers them with {@code 503} and {@code Retry-After} without reaching their
+ * handler, so shedding load does not wait behind the load being shed. The
+ * pool's queue holds four times the limit; when it or the shedding queue is
+ * full the connection is dropped.
+ */
+public class AdmissionExecutor implements Executor {
+    private static final ThreadLocal<Boolean> ADMITTED = new ThreadLocal<>();
+    private static final int SHED_THREADS = 2;
+
+    private final ExecutorService delegate;
+    private final ThreadPoolExecutor pool;
+    // Sends the 503 for requests over the limit, off the pool and its queue
+    private final ThreadPoolExecutor shedder;
+    private final String mode;
+    private final int maxInFlight;
+    private final int retryAfterSeconds;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong shed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public AdmissionExecutor(String mode, int threads, int maxInFlight, int retryAfterSeconds, Logger log) {
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.retryAfterSeconds = Math.max(1, retryAfterSeconds);
+        ExecutorService virtual = "pool".equalsIgnoreCase(mode) ? null : newVirtualThreadExecutor();
+        if (virtual == null && "virtual".equalsIgnoreCase(mode)) {
+            log.warning("[VerifyMC] Virtual threads are not available on this Java version, using a thread pool");
+        }
+        if (virtual != null) {
+            this.delegate = virtual;
+            this.pool = null;
+            this.mode = "virtual";
+        } else {
+            int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors() * 2;
+            this.pool = new ThreadPoolExecutor(size, size, 60L, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(this.maxInFlight * 4), daemonThreads("VerifyMC-Web-"));
+            this.delegate = pool;
+            this.mode = "pool";
+        }
+        this.shedder = new ThreadPoolExecutor(SHED_THREADS, SHED_THREADS, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(this.maxInFlight), daemonThreads("VerifyMC-Web-Shed-"));
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        int current = inFlight.incrementAndGet();
+        if (current > maxInFlight) {
+            inFlight.decrementAndGet();
+            try {
+                shedder.execute(() -> run(task, false));
+            } catch (RejectedExecutionException e) {
+                rejected.incrementAndGet();
+                throw e;
+            }
+            return;
+        }
+        peakInFlight.accumulateAndGet(current, Math::max);
+        try {
+            delegate.execute(() -> {
+                try {
+                    run(task, true);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.decrementAndGet();
+            rejected.incrementAndGet();
+            throw e;
+        }
+    }
+
+    private static void run(Runnable task, boolean admitted) {
+        ADMITTED.set(admitted);
+        try {
+            task.run();
+        } finally {
+            ADMITTED.remove();
+        }
+    }
+
+    /**
+     * Whether requests run on the fixed pool, where a blocked request holds
+     * one of a limited number of threads.
+     */
+    public boolean isPooled() {
+        return pool != null;
+    }
+
+    /**
+     * Grows the pool to at least {@code threads}; no-op on virtual threads.
+     */
+    public void ensureThreads(int threads) {
+        if (pool != null && threads > pool.getMaximumPoolSize()) {
+            pool.setMaximumPoolSize(threads);
+            pool.setCorePoolSize(threads);
+        }
+    }
+
+    /**
+     * Sends {@code 503} for requests that arrived over the in-flight limit,
+     * i.e. those run by the shedding executor.
+     */
+    public Filter filter() {
+        return new Filter() {
+            @Override
+            public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+                if (Boolean.FALSE.equals(ADMITTED.get())) {
+                    shed.incrementAndGet();
+                    exchange.getResponseHeaders().set("Retry-After", String.valueOf(retryAfterSeconds));
+                    WebResponseHelper.sendJson(exchange, ApiResponseFactory.failure("Server busy, please retry"), 503);
+                    return;
+                }
+                accepted.incrementAndGet();
+                chain.doFilter(exchange);
+            }
+
+            @Override
+            public String description() {
+                return "Global in-flight limit";
+            }
+        };
+    }
+
+    public void shutdown() {
+        delegate.shutdown();
+        shedder.shutdown();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("mode", mode);
+        stats.put("threads", pool != null ? pool.getPoolSize() : "virtual");
+        stats.put("activeThreads", pool != null ? pool.getActiveCount() : inFlight.get());
+        stats.put("queueDepth", pool != null ? pool.getQueue().size() : 0);
+        stats.put("shedQueueDepth", shedder.getQueue().size());
+        stats.put("inFlight", inFlight.get());
+        stats.put("peakInFlight", peakInFlight.get());
+        stats.put("maxInFlight", maxInFlight);
+        stats.put("accepted", accepted.get());
+        stats.put("shed", shed.get());
+        stats.put("rejected", rejected.get());
+        return stats;
+    }
+
+    /**
+     * {@code Executors.newVirtualThreadPerTaskExecutor()} looked up at runtime,
+     * since the plugin is built for Java 17.
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -1,9 +1,14 @@
 package team.kitemc.verifymc.web;
 
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
 import team.kitemc.verifymc.core.PluginContext;
 import team.kitemc.verifymc.web.handler.*;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -14,10 +19,19 @@ import java.util.concurrent.ConcurrentHashMap;
  * <p>
  * Each endpoint group is now a dedicated handler class, making the
  * routing topology visible at a glance and each handler independently testable.
+ * <p>
+ * Routes are grouped into {@link Bulkhead}s (public reads, auth, expensive
+ * writes, admin, proxy) with their own concurrency limits, so a flood on one
+ * group does not degrade the others. On a thread pool the pool is grown to
+ * the sum of the limits and bulkheads reject at once instead of waiting, so
+ * one full group can never hold the threads another group needs.
  */
 public class ApiRouter {
     private final PluginContext ctx;
     private final ConcurrentHashMap<String, RegistrationProcessingHandler.QuestionnaireSubmissionRecord> questionnaireSubmissionStore;
+    private Filter admission;
+    private boolean pooled;
+    private final Map<String, Bulkhead> bulkheads = new LinkedHashMap<>();
 
     public ApiRouter(PluginContext ctx) {
         this.ctx = ctx;
@@ -26,24 +40,36 @@ public class ApiRouter {
 
     /**
      * Register all API routes on the given HttpServer.
+     *
+     * @param executor executor the server runs requests on; its admission
+     *                 filter is applied to every route before its handler
      */
-    public void registerRoutes(HttpServer server) {
+    public void registerRoutes(HttpServer server, AdmissionExecutor executor) {
+        this.admission = executor.filter();
+        this.pooled = executor.isPooled();
+        Bulkhead publicReads = bulkhead("public", 64, 1000);
+        Bulkhead auth = bulkhead("auth", 16, 1000);
+        Bulkhead writes = bulkhead("writes", 8, 500);
+        Bulkhead admin = bulkhead("admin", 8, 2000);
+        Bulkhead proxy = bulkhead("proxy", 32, 1000);
+        executor.ensureThreads(bulkheads.values().stream().mapToInt(Bulkhead::limit).sum());
+
         // --- Configuration endpoint ---
-        server.createContext("/api/config", new ConfigHandler(ctx));
+        route(server, publicReads, "/api/config", new ConfigHandler(ctx));
 
         // --- Captcha endpoints ---
-        server.createContext("/api/captcha/generate", new CaptchaHandler(ctx));
-        server.createContext("/api/captcha", new CaptchaHandler(ctx));
+        route(server, publicReads, "/api/captcha/generate", new CaptchaHandler(ctx));
+        route(server, publicReads, "/api/captcha", new CaptchaHandler(ctx));
 
         // --- Email verification ---
-        server.createContext("/api/verify/send", new VerifyCodeHandler(ctx));
+        route(server, writes, "/api/verify/send", new VerifyCodeHandler(ctx));
 
         // --- Questionnaire endpoints ---
-        server.createContext("/api/questionnaire/config", new QuestionnaireConfigHandler(ctx));
-        server.createContext("/api/questionnaire/submit", new QuestionnaireSubmitHandler(ctx, questionnaireSubmissionStore));
+        route(server, publicReads, "/api/questionnaire/config", new QuestionnaireConfigHandler(ctx));
+        route(server, writes, "/api/questionnaire/submit", new QuestionnaireSubmitHandler(ctx, questionnaireSubmissionStore));
 
         // --- Registration ---
-        server.createContext("/api/register", new RegistrationProcessingHandler(
+        route(server, writes, "/api/register", new RegistrationProcessingHandler(
                 ctx.getPlugin(),
                 ctx.getVerifyCodeService(),
                 ctx.getUserDao(),
@@ -65,48 +91,77 @@ public class ApiRouter {
         ));
 
         // --- Review status check ---
-        server.createContext("/api/review/status", new ReviewStatusHandler(ctx));
+        route(server, publicReads, "/api/review/status", new ReviewStatusHandler(ctx));
 
         // --- Login endpoints ---
-        server.createContext("/api/login", new LoginHandler(ctx, false));
-        server.createContext("/api/admin/login", new LoginHandler(ctx, true));
+        route(server, auth, "/api/login", new LoginHandler(ctx, false));
+        route(server, auth, "/api/admin/login", new LoginHandler(ctx, true));
 
         // --- Admin endpoints ---
-        server.createContext("/api/admin/verify", new AdminVerifyHandler(ctx));
-        server.createContext("/api/admin/users", new AdminUserListHandler(ctx));
-        server.createContext("/api/admin/user/approve", new AdminUserApproveHandler(ctx));
-        server.createContext("/api/admin/user/reject", new AdminUserRejectHandler(ctx));
-        server.createContext("/api/admin/user/delete", new AdminUserDeleteHandler(ctx));
-        server.createContext("/api/admin/user/ban", new AdminUserBanHandler(ctx));
-        server.createContext("/api/admin/user/unban", new AdminUserUnbanHandler(ctx));
-        server.createContext("/api/admin/user/password", new AdminUserPasswordHandler(ctx));
-        server.createContext("/api/admin/audits", new AdminAuditHandler(ctx));
-        server.createContext("/api/admin/sync", new AdminSyncHandler(ctx));
+        route(server, admin, "/api/admin/verify", new AdminVerifyHandler(ctx));
+        route(server, admin, "/api/admin/users", new AdminUserListHandler(ctx));
+        route(server, admin, "/api/admin/user/approve", new AdminUserApproveHandler(ctx));
+        route(server, admin, "/api/admin/user/reject", new AdminUserRejectHandler(ctx));
+        route(server, admin, "/api/admin/user/delete", new AdminUserDeleteHandler(ctx));
+        route(server, admin, "/api/admin/user/ban", new AdminUserBanHandler(ctx));
+        route(server, admin, "/api/admin/user/unban", new AdminUserUnbanHandler(ctx));
+        route(server, admin, "/api/admin/user/password", new AdminUserPasswordHandler(ctx));
+        route(server, admin, "/api/admin/audits", new AdminAuditHandler(ctx));
+        route(server, admin, "/api/admin/sync", new AdminSyncHandler(ctx));
+        route(server, admin, "/api/admin/stats", new AdminStatsHandler(ctx));
 
         // --- Discord endpoints ---
-        server.createContext("/api/discord/auth", new DiscordAuthHandler(ctx));
-        server.createContext("/api/discord/callback", new DiscordCallbackHandler(ctx));
-        server.createContext("/api/discord/status", new DiscordStatusHandler(ctx));
-        server.createContext("/api/discord/unlink", new DiscordUnlinkHandler(ctx));
+        route(server, auth, "/api/discord/auth", new DiscordAuthHandler(ctx));
+        route(server, auth, "/api/discord/callback", new DiscordCallbackHandler(ctx));
+        route(server, publicReads, "/api/discord/status", new DiscordStatusHandler(ctx));
+        route(server, writes, "/api/discord/unlink", new DiscordUnlinkHandler(ctx));
 
         // --- Version check ---
-        server.createContext("/api/version", new VersionHandler(ctx));
+        route(server, publicReads, "/api/version", new VersionHandler(ctx));
 
         // --- User status query ---
-        server.createContext("/api/user/status", new UserStatusHandler(ctx));
+        route(server, publicReads, "/api/user/status", new UserStatusHandler(ctx));
+
+        // --- Proxy whitelist check and replica feed ---
+        route(server, proxy, "/api/check-whitelist", new CheckWhitelistHandler(ctx));
+        route(server, proxy, "/api/whitelist/snapshot", new WhitelistSnapshotHandler(ctx));
+        route(server, proxy, "/api/whitelist/changes", new WhitelistChangesHandler(ctx));
 
         // --- Server status ---
-        server.createContext("/api/server/status", new ServerStatusHandler(ctx));
+        route(server, publicReads, "/api/server/status", new ServerStatusHandler(ctx));
 
         // --- Downloads ---
-        server.createContext("/api/downloads", new DownloadsHandler(ctx));
+        route(server, publicReads, "/api/downloads", new DownloadsHandler(ctx));
 
         // --- User profile management ---
-        server.createContext("/api/user/update", new UserUpdateHandler(ctx));
-        server.createContext("/api/user/password", new UserPasswordHandler(ctx));
+        route(server, writes, "/api/user/update", new UserUpdateHandler(ctx));
+        route(server, writes, "/api/user/password", new UserPasswordHandler(ctx));
 
         // --- Static files (front-end) ---
-        server.createContext("/", new StaticFileHandler(ctx));
+        route(server, publicReads, "/", new StaticFileHandler(ctx));
+    }
+
+    private void route(HttpServer server, Bulkhead bulkhead, String path, HttpHandler handler) {
+        List<Filter> filters = server.createContext(path, handler).getFilters();
+        filters.add(admission);
+        filters.add(bulkhead);
+    }
+
+    private Bulkhead bulkhead(String name, int defaultLimit, int defaultMaxWaitMs) {
+        var config = ctx.getConfigManager();
+        Bulkhead bulkhead = new Bulkhead(name,
+                config.getBulkheadMaxConcurrent(name, defaultLimit),
+                pooled ? 0 : config.getBulkheadMaxWaitMs(name, defaultMaxWaitMs),
+                config.getWebExecutorRetryAfterSeconds());
+        bulkheads.put(name, bulkhead);
+        return bulkhead;
+    }
+
+    /**
+     * Bulkheads created by {@link #registerRoutes}, by group name.
+     */
+    public Map<String, Bulkhead> getBulkheads() {
+        return bulkheads;
     }
 
     // --- Utility methods used by route wiring (delegated from WebServer) ---
@@ -132,7 +187,7 @@ public class ApiRouter {
         // If username is case-insensitive, check for case conflicts
         var existing = ctx.getUserDao().getUserByUsername(username);
         if (existing == null) return false;
-        String storedName = (String) existing.get("username");
+        String storedName = existing.username();
         return storedName != null && !storedName.equals(username) && storedName.equalsIgnoreCase(username);
     }
 
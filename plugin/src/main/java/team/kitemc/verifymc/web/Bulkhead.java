@@ -0,0 +1,107 @@
+package team.kitemc.verifymc.web;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrency limit for a group of routes, so a flood on one group (e.g.
+ * registrations or verification mails) cannot take the threads the others
+ * need.
+ * <p>
+ * A request waits up to {@code max_wait_ms} for a slot and is otherwise
+ * answered with {@code 503} and {@code Retry-After}. In thread pool mode a
+ * waiting request would hold a pool thread that another group needs, so
+ * {@link ApiRouter} creates the bulkheads without a wait there.
+ */
+public class Bulkhead extends Filter {
+    private final String name;
+    private final int limit;
+    private final long maxWaitMs;
+    private final int retryAfterSeconds;
+    private final Semaphore permits;
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger peakActive = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public Bulkhead(String name, int limit, long maxWaitMs, int retryAfterSeconds) {
+        this.name = name;
+        this.limit = Math.max(1, limit);
+        this.maxWaitMs = Math.max(0, maxWaitMs);
+        this.retryAfterSeconds = Math.max(1, retryAfterSeconds);
+        this.permits = new Semaphore(this.limit);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        if (!acquire()) {
+            rejected.incrementAndGet();
+            exchange.getResponseHeaders().set("Retry-After", String.valueOf(retryAfterSeconds));
+            WebResponseHelper.sendJson(exchange, ApiResponseFactory.failure("Server busy, please retry"), 503);
+            return;
+        }
+        peakActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+        try {
+            chain.doFilter(exchange);
+        } finally {
+            active.decrementAndGet();
+            completed.incrementAndGet();
+            permits.release();
+        }
+    }
+
+    private boolean acquire() {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        if (maxWaitMs == 0) {
+            return false;
+        }
+        waiting.incrementAndGet();
+        try {
+            return permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    @Override
+    public String description() {
+        return "Bulkhead " + name;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        int current = active.get();
+        stats.put("limit", limit);
+        stats.put("maxWaitMs", maxWaitMs);
+        stats.put("active", current);
+        stats.put("peakActive", peakActive.get());
+        stats.put("waiting", waiting.get());
+        stats.put("saturation", (double) current / limit);
+        stats.put("completed", completed.get());
+        stats.put("rejected", rejected.get());
+        return stats;
+    }
+}
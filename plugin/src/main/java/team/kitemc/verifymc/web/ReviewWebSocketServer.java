@@ -3,29 +3,40 @@ package team.kitemc.verifymc.web;
 import org.java_websocket.WebSocket;
 import org.java_websocket.handshake.ClientHandshake;
 import org.java_websocket.server.WebSocketServer;
+import org.json.JSONObject;
 import team.kitemc.verifymc.core.PluginContext;
+import team.kitemc.verifymc.db.WhitelistIndex;
 
 import java.net.InetSocketAddress;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
+/**
+ * Pushes review notifications to admin panels (authenticated by session
+ * token) and user status changes to proxies (authenticated by the
+ * {@code X-API-Key} header, matched against {@code proxy_api.api_key}).
+ */
 public class ReviewWebSocketServer extends WebSocketServer {
     private static final int MAX_CLIENTS = 50;
     private static final int CLOSE_CODE_POLICY_VIOLATION = 1008;
 
     private final Set<WebSocket> clients = Collections.synchronizedSet(new HashSet<>());
+    private final Set<WebSocket> proxies = Collections.synchronizedSet(new HashSet<>());
     private final boolean debug;
     private final org.bukkit.plugin.Plugin plugin;
     private final WebAuthHelper authHelper;
+    private final String proxyApiKey;
 
     public ReviewWebSocketServer(int port, PluginContext context) {
         super(new InetSocketAddress(port));
         this.plugin = context.getPlugin();
         this.debug = context.isDebug();
         this.authHelper = context.getWebAuthHelper();
+        this.proxyApiKey = context.getConfigManager().getProxyApiKey();
     }
 
     /**
@@ -38,6 +49,7 @@ public class ReviewWebSocketServer extends WebSocketServer {
         this.plugin = plugin;
         this.debug = plugin != null && plugin.getConfig().getBoolean("debug", false);
         this.authHelper = null;
+        this.proxyApiKey = null;
     }
 
     /**
@@ -50,6 +62,7 @@ public class ReviewWebSocketServer extends WebSocketServer {
         this.plugin = null;
         this.debug = false;
         this.authHelper = null;
+        this.proxyApiKey = null;
     }
 
     private void debugLog(String msg) {
@@ -63,12 +76,26 @@ public class ReviewWebSocketServer extends WebSocketServer {
         debugLog("WebSocket connection opened: " + conn.getRemoteSocketAddress());
 
         // Check max clients limit
-        if (clients.size() >= MAX_CLIENTS) {
+        if (clients.size() + proxies.size() >= MAX_CLIENTS) {
             debugLog("Connection rejected: max clients limit reached (" + MAX_CLIENTS + ")");
             conn.close(CLOSE_CODE_POLICY_VIOLATION, "Max clients limit reached");
             return;
         }
 
+        // Proxies subscribe to user status changes with their API key
+        String apiKey = handshake.getFieldValue("X-API-Key");
+        if (apiKey != null && !apiKey.isEmpty()) {
+            if (proxyApiKey == null || proxyApiKey.isEmpty() || !MessageDigest.isEqual(
+                    proxyApiKey.getBytes(StandardCharsets.UTF_8), apiKey.getBytes(StandardCharsets.UTF_8))) {
+                debugLog("Proxy connection rejected: invalid API key");
+                conn.close(CLOSE_CODE_POLICY_VIOLATION, "Invalid API key");
+                return;
+            }
+            proxies.add(conn);
+            debugLog("Proxy subscribed, total proxies: " + proxies.size());
+            return;
+        }
+
         // Authentication check
         if (authHelper != null) {
             String token = extractToken(handshake);
@@ -130,7 +157,8 @@ public class ReviewWebSocketServer extends WebSocketServer {
     public void onClose(WebSocket conn, int code, String reason, boolean remote) {
         debugLog("WebSocket connection closed: " + conn.getRemoteSocketAddress() + ", code: " + code + ", reason: " + reason);
         clients.remove(conn);
-        debugLog("Remaining clients: " + clients.size());
+        proxies.remove(conn);
+        debugLog("Remaining clients: " + clients.size() + ", proxies: " + proxies.size());
     }
 
     @Override
@@ -165,4 +193,31 @@ public class ReviewWebSocketServer extends WebSocketServer {
             debugLog("Message sent to " + sentCount + " clients");
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * Sends a user status change to subscribed proxies as
+     * {@code {"type":"user_status","epoch":..,"seq":N,"username":..,"status":..}},
+     * with a null status when the user was removed. Proxies use epoch and
+     * sequence to detect missed events and fall back to the changes feed.
+     */
+    public void publishUserChange(String epoch, long sequence, String username, WhitelistIndex.Entry entry) {
+        if (proxies.isEmpty()) {
+            return;
+        }
+        JSONObject event = new JSONObject();
+        event.put("type", "user_status");
+        event.put("epoch", epoch);
+        event.put("seq", sequence);
+        event.put("username", entry != null ? entry.username() : username);
+        event.put("status", entry != null ? entry.statusValue() : JSONObject.NULL);
+        String message = event.toString();
+        synchronized (proxies) {
+            for (WebSocket ws : proxies) {
+                if (ws.isOpen()) {
+                    ws.send(message);
+                }
+            }
+        }
+        debugLog("User status change pushed to " + proxies.size() + " proxies: " + message);
+    }
+}
@@ -0,0 +1,223 @@
+package team.kitemc.verifymc.web;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * In-memory copy of the front-end files, each stored with a gzip variant
+ * (for text types), a strong ETag and its Cache-Control policy.
+ * <p>
+ * Files are read on first request and kept until {@link #invalidate()} is
+ * called ({@code /vmc reload}) or a {@link WatchService} on the static
+ * directory reports a change. Files larger than {@code maxFileBytes} are not
+ * cached; {@code StaticFileHandler} streams them from disk instead. Brotli
+ * variants are not produced: the JDK has no Brotli encoder.
+ */
+public class StaticAssetCache {
+    /**
+     * A cached file. {@code gzip} is null when compression does not pay off.
+     */
+    public record Asset(byte[] data, byte[] gzip, String etag, long lastModified,
+                        String contentType, boolean immutable) {
+    }
+
+    // Vite build output: js/, css/, images/ and assets/ files named [name]-[hash][extname]
+    private static final Pattern FINGERPRINTED =
+            Pattern.compile("^(js|css|images|assets)/.+-[A-Za-z0-9_-]{8,}\\.[A-Za-z0-9]+$");
+    private static final int MIN_GZIP_BYTES = 256;
+
+    private final Logger log;
+    private final long maxFileBytes;
+    private final Map<Path, Asset> assets = new ConcurrentHashMap<>();
+    // Bumped by invalidate(), so a read that raced it is not cached
+    private final AtomicLong generation = new AtomicLong();
+    private WatchService watchService;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public StaticAssetCache(Logger log, long maxFileBytes) {
+        this.log = log;
+        this.maxFileBytes = maxFileBytes;
+    }
+
+    /**
+     * @param file     absolute, normalized path of an existing regular file
+     * @param relative path of the file inside the theme directory, with '/' separators
+     * @return the cached asset, or null if the file is too large to cache
+     */
+    public Asset get(Path file, String relative, String contentType) throws IOException {
+        Asset asset = assets.get(file);
+        if (asset != null) {
+            hits.incrementAndGet();
+            return asset;
+        }
+        misses.incrementAndGet();
+        long readGeneration = generation.get();
+        long size = Files.size(file);
+        if (size > maxFileBytes) {
+            return null;
+        }
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        byte[] data = Files.readAllBytes(file);
+        asset = new Asset(data, isCompressible(contentType) ? gzip(data) : null, etag(data), lastModified,
+                contentType, isFingerprinted(relative));
+        assets.put(file, asset);
+        if (generation.get() != readGeneration) {
+            // Invalidated while reading: serve this copy once, but do not keep it.
+            assets.remove(file, asset);
+        }
+        return asset;
+    }
+
+    /**
+     * Whether a theme-relative path is fingerprinted build output, safe to cache forever.
+     */
+    public static boolean isFingerprinted(String relative) {
+        return FINGERPRINTED.matcher(relative).matches();
+    }
+
+    public void recordNotModified() {
+        notModified.incrementAndGet();
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        assets.clear();
+        invalidations.incrementAndGet();
+    }
+
+    /**
+     * Invalidate the cache whenever anything under {@code root} changes.
+     */
+    public void watch(Path root) {
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            registerTree(root);
+        } catch (IOException e) {
+            log.warning("[VerifyMC] Static file watcher unavailable, changes apply on /vmc reload: " + e.getMessage());
+            return;
+        }
+        Thread thread = new Thread(this::watchLoop, "VerifyMC-StaticWatch");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void close() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long bytes = 0;
+        long gzipBytes = 0;
+        for (Asset asset : assets.values()) {
+            bytes += asset.data().length;
+            gzipBytes += asset.gzip() != null ? asset.gzip().length : 0;
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", assets.size());
+        stats.put("bytes", bytes);
+        stats.put("gzipBytes", gzipBytes);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("notModified", notModified.get());
+        stats.put("invalidations", invalidations.get());
+        stats.put("watching", watchService != null);
+        return stats;
+    }
+
+    private void watchLoop() {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            Path dir = (Path) key.watchable();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+                    Path created = dir.resolve((Path) event.context());
+                    if (Files.isDirectory(created)) {
+                        try {
+                            registerTree(created);
+                        } catch (IOException | ClosedWatchServiceException ignored) {
+                        }
+                    }
+                }
+            }
+            invalidate();
+            key.reset();
+        }
+    }
+
+    private void registerTree(Path root) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static boolean isCompressible(String contentType) {
+        return contentType.startsWith("text/")
+                || contentType.startsWith("application/javascript")
+                || contentType.startsWith("application/json")
+                || contentType.startsWith("image/svg+xml")
+                || contentType.startsWith("image/x-icon");
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        if (data.length < MIN_GZIP_BYTES) {
+            return null;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 3);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(data);
+        }
+        return out.size() < data.length ? out.toByteArray() : null;
+    }
+
+    private static String etag(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 22) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
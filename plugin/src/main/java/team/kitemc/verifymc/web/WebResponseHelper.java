@@ -6,15 +6,49 @@ import org.json.JSONObject;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Utility class for HTTP response handling.
  * Consolidates JSON read/write and method enforcement.
  * (Preserved from original for backward compatibility.)
+ * <p>
+ * JSON responses of at least {@code json_compression.min_bytes} are gzip-encoded
+ * when the client accepts it (see {@link #configureCompression}).
  */
 public final class WebResponseHelper {
     private WebResponseHelper() {}
 
+    // Smallest JSON body that is compressed; -1 disables compression
+    private static volatile int gzipMinBytes = -1;
+    private static final AtomicLong jsonResponses = new AtomicLong();
+    private static final AtomicLong gzipResponses = new AtomicLong();
+    private static final AtomicLong gzipBytesIn = new AtomicLong();
+    private static final AtomicLong gzipBytesOut = new AtomicLong();
+
+    /**
+     * @param minBytes smallest JSON body to compress, or a negative value to disable compression
+     */
+    public static void configureCompression(int minBytes) {
+        gzipMinBytes = minBytes;
+    }
+
+    public static Map<String, Object> compressionStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long in = gzipBytesIn.get();
+        long out = gzipBytesOut.get();
+        stats.put("minBytes", gzipMinBytes);
+        stats.put("responses", jsonResponses.get());
+        stats.put("compressed", gzipResponses.get());
+        stats.put("bytesBeforeGzip", in);
+        stats.put("bytesAfterGzip", out);
+        stats.put("ratio", in > 0 ? (double) out / in : 0.0);
+        return stats;
+    }
+
     /**
      * Read the request body as a JSONObject.
      * @param exchange the HTTP exchange
@@ -51,12 +85,137 @@ public final class WebResponseHelper {
     public static void sendJson(HttpExchange exchange, JSONObject json, int statusCode) throws IOException {
         byte[] bytes = json.toString().getBytes(StandardCharsets.UTF_8);
         exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        jsonResponses.incrementAndGet();
+        int minBytes = gzipMinBytes;
+        if (minBytes >= 0 && bytes.length >= minBytes) {
+            exchange.getResponseHeaders().add("Vary", "Accept-Encoding");
+            if (acceptsGzip(exchange)) {
+                sendGzip(exchange, bytes, statusCode);
+                return;
+            }
+        }
         exchange.sendResponseHeaders(statusCode, bytes.length);
         try (OutputStream os = exchange.getResponseBody()) {
             os.write(bytes);
         }
     }
 
+    /**
+     * Starts a streamed JSON response of unknown length with chunked transfer
+     * encoding. The returned stream is gzip-encoded whenever compression is
+     * enabled and the client accepts it, since the final size cannot be
+     * compared with {@code min_bytes}; it must be closed to finish the response.
+     */
+    public static OutputStream startJsonStream(HttpExchange exchange, int statusCode) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        jsonResponses.incrementAndGet();
+        if (gzipMinBytes >= 0) {
+            exchange.getResponseHeaders().add("Vary", "Accept-Encoding");
+            if (acceptsGzip(exchange)) {
+                exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+                exchange.sendResponseHeaders(statusCode, 0);
+                return new GzipCountingStream(exchange.getResponseBody());
+            }
+        }
+        exchange.sendResponseHeaders(statusCode, 0);
+        return exchange.getResponseBody();
+    }
+
+    /**
+     * Streams the body through gzip with chunked transfer encoding, since the
+     * compressed length is not known up front.
+     */
+    private static void sendGzip(HttpExchange exchange, byte[] bytes, int statusCode) throws IOException {
+        exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        exchange.sendResponseHeaders(statusCode, 0);
+        try (OutputStream gz = new GzipCountingStream(exchange.getResponseBody())) {
+            gz.write(bytes);
+        }
+    }
+
+    /**
+     * Gzips into {@code out} and adds the bytes before and after compression
+     * to the compression stats when closed.
+     */
+    private static final class GzipCountingStream extends FilterOutputStream {
+        private long bytesIn;
+        private long bytesOut;
+        private boolean closed;
+
+        GzipCountingStream(OutputStream target) throws IOException {
+            super(null);
+            OutputStream counting = new FilterOutputStream(target) {
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                    bytesOut += len;
+                }
+
+                @Override
+                public void write(int b) throws IOException {
+                    out.write(b);
+                    bytesOut++;
+                }
+            };
+            this.out = new GZIPOutputStream(counting, 8192);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            bytesIn += len;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            bytesIn++;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            out.close();
+            gzipResponses.incrementAndGet();
+            gzipBytesIn.addAndGet(bytesIn);
+            gzipBytesOut.addAndGet(bytesOut);
+        }
+    }
+
+    /**
+     * Whether the client accepts a gzip-encoded response ({@code Accept-Encoding}
+     * lists {@code gzip} or {@code *} with a non-zero quality).
+     */
+    public static boolean acceptsGzip(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (header == null) {
+            return false;
+        }
+        for (String part : header.split(",")) {
+            String[] params = part.split(";");
+            String coding = params[0].trim();
+            if (!"gzip".equalsIgnoreCase(coding) && !"*".equals(coding)) {
+                continue;
+            }
+            double q = 1.0;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            return q > 0;
+        }
+        return false;
+    }
+
     /**
      * Enforce the HTTP method. If the exchange does not match, sends 405 and returns false.
      */
@@ -5,18 +5,19 @@ import team.kitemc.verifymc.core.PluginContext;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
-import java.util.concurrent.Executors;
 
 /**
  * Lightweight web server wrapper. Reduced from 1862 lines to ~80 lines.
  * <p>
  * All routing logic is delegated to {@link ApiRouter}. This class is
  * responsible only for server lifecycle: start, stop, and thread pool setup.
+ * Requests run on an {@link AdmissionExecutor}.
  */
 public class WebServer {
     private final PluginContext ctx;
     private HttpServer server;
     private final ApiRouter router;
+    private AdmissionExecutor executor;
 
     public WebServer(PluginContext ctx) {
         this.ctx = ctx;
@@ -30,11 +31,20 @@ public class WebServer {
         int port = ctx.getConfigManager().getWebPort();
         try {
             server = HttpServer.create(new InetSocketAddress(port), 0);
-            server.setExecutor(Executors.newFixedThreadPool(
-                    Runtime.getRuntime().availableProcessors() * 2));
+            var config = ctx.getConfigManager();
+            executor = new AdmissionExecutor(config.getWebExecutorMode(), config.getWebExecutorThreads(),
+                    config.getWebExecutorMaxInFlight(), config.getWebExecutorRetryAfterSeconds(),
+                    ctx.getPlugin().getLogger());
+            server.setExecutor(executor);
+            ctx.getStatsRegistry().register("web_executor", executor::stats);
+            WebResponseHelper.configureCompression(config.isJsonCompressionEnabled()
+                    ? Math.max(0, config.getJsonCompressionMinBytes()) : -1);
+            ctx.getStatsRegistry().register("json_compression", WebResponseHelper::compressionStats);
 
             // Register all API routes via the router
-            router.registerRoutes(server);
+            router.registerRoutes(server, executor);
+            router.getBulkheads().forEach((name, bulkhead) ->
+                    ctx.getStatsRegistry().register("bulkhead_" + name, bulkhead::stats));
 
             server.start();
             ctx.getPlugin().getLogger().info("[VerifyMC] Web server started on port " + port);
@@ -51,6 +61,12 @@ public class WebServer {
             server.stop(0);
             ctx.getPlugin().getLogger().info("[VerifyMC] Web server stopped.");
         }
+        if (executor != null) {
+            executor.shutdown();
+            ctx.getStatsRegistry().unregister("web_executor");
+            ctx.getStatsRegistry().unregister("json_compression");
+            router.getBulkheads().keySet().forEach(name -> ctx.getStatsRegistry().unregister("bulkhead_" + name));
+        }
     }
 
     /**
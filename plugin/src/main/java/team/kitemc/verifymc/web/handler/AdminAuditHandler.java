@@ -2,20 +2,39 @@ package team.kitemc.verifymc.web.handler;
 
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
-import org.json.JSONArray;
 import org.json.JSONObject;
 import team.kitemc.verifymc.core.PluginContext;
+import team.kitemc.verifymc.db.AuditCursor;
+import team.kitemc.verifymc.db.AuditQuery;
 import team.kitemc.verifymc.db.AuditRecord;
 import team.kitemc.verifymc.web.ApiResponseFactory;
 import team.kitemc.verifymc.web.WebResponseHelper;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.logging.Level;
 
 /**
- * Returns the audit log.
+ * Returns the audit log, newest first.
+ * <p>
+ * Supports {@code from}/{@code to} (epoch millis), {@code action},
+ * {@code operator} and {@code target} filters plus keyset paging via
+ * {@code limit} and the {@code before} cursor returned as {@code nextCursor}.
+ * Pages hold {@value #DEFAULT_PAGE_SIZE} records unless {@code limit} says
+ * otherwise, and never more than {@value #MAX_PAGE_SIZE}. The page is read
+ * before the response starts, so a storage failure is still answered with
+ * {@code 500}; the records are then streamed (gzip-encoded when the client
+ * accepts it).
  */
 public class AdminAuditHandler implements HttpHandler {
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final PluginContext ctx;
 
     public AdminAuditHandler(PluginContext ctx) {
@@ -29,22 +48,80 @@ public class AdminAuditHandler implements HttpHandler {
         // Require admin privileges
         if (AdminAuthUtil.requireAdmin(exchange, ctx) == null) return;
 
-        List<AuditRecord> audits = ctx.getAuditDao().getAllAudits();
-        JSONArray arr = new JSONArray();
-        for (AuditRecord audit : audits) {
-            JSONObject obj = new JSONObject();
-            if (audit.id() != null) obj.put("id", audit.id());
-            obj.put("action", audit.action());
-            obj.put("operator", audit.operator());
-            obj.put("target", audit.target());
-            obj.put("detail", audit.detail());
-            obj.put("timestamp", audit.timestamp());
-            arr.put(obj);
+        // Parse query params
+        String query = exchange.getRequestURI().getQuery();
+        Long from = null, to = null;
+        String action = null, operator = null, target = null, before = null, language = "en";
+        int limit = DEFAULT_PAGE_SIZE;
+        if (query != null) {
+            for (String param : query.split("&")) {
+                String[] kv = param.split("=", 2);
+                if (kv.length != 2) continue;
+                String value = URLDecoder.decode(kv[1], StandardCharsets.UTF_8);
+                switch (kv[0]) {
+                    case "from" -> { try { from = Long.parseLong(value); } catch (NumberFormatException ignored) {} }
+                    case "to" -> { try { to = Long.parseLong(value); } catch (NumberFormatException ignored) {} }
+                    case "limit" -> { try { limit = Integer.parseInt(value); } catch (NumberFormatException ignored) {} }
+                    case "action" -> action = value;
+                    case "operator" -> operator = value;
+                    case "target" -> target = value;
+                    case "before" -> before = value;
+                    case "language" -> language = value;
+                }
+            }
+        }
+
+        AuditCursor cursor = null;
+        if (before != null && !before.isEmpty()) {
+            try {
+                cursor = AuditCursor.decode(before);
+            } catch (IllegalArgumentException e) {
+                WebResponseHelper.sendJson(exchange, ApiResponseFactory.failure(
+                        ctx.getMessage("admin.invalid_cursor", language)), 400);
+                return;
+            }
+        }
+        if (limit <= 0) limit = DEFAULT_PAGE_SIZE;
+        limit = Math.min(limit, MAX_PAGE_SIZE);
+
+        List<AuditRecord> audits;
+        try {
+            // One extra row tells whether another page exists.
+            audits = ctx.getAuditDao().queryAudits(
+                    new AuditQuery(from, to, action, operator, target, cursor, limit + 1));
+        } catch (RuntimeException e) {
+            ctx.getPlugin().getLogger().log(Level.WARNING, "Failed to query audits", e);
+            WebResponseHelper.sendJson(exchange, ApiResponseFactory.failure(
+                    ctx.getMessage("admin.audit_query_failed", language)), 500);
+            return;
+        }
+        boolean hasNext = audits.size() > limit;
+        int count = Math.min(audits.size(), limit);
+
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                WebResponseHelper.startJsonStream(exchange, 200), StandardCharsets.UTF_8))) {
+            out.write("{\"success\":true,\"audits\":[");
+            for (int i = 0; i < count; i++) {
+                if (i > 0) out.write(',');
+                out.write(toJson(audits.get(i)).toString());
+            }
+            out.write(']');
+            if (hasNext) {
+                out.write(",\"nextCursor\":");
+                out.write(JSONObject.quote(AuditCursor.of(audits.get(count - 1)).encode()));
+            }
+            out.write('}');
         }
+    }
 
-        JSONObject resp = new JSONObject();
-        resp.put("success", true);
-        resp.put("audits", arr);
-        WebResponseHelper.sendJson(exchange, resp);
+    private static JSONObject toJson(AuditRecord audit) {
+        JSONObject obj = new JSONObject();
+        if (audit.id() != null) obj.put("id", audit.id());
+        obj.put("action", audit.action());
+        obj.put("operator", audit.operator());
+        obj.put("target", audit.target());
+        obj.put("detail", audit.detail());
+        obj.put("timestamp", audit.timestamp());
+        return obj;
     }
 }
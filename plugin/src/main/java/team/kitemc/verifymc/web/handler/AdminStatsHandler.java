@@ -0,0 +1,39 @@
+package team.kitemc.verifymc.web.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.json.JSONObject;
+import team.kitemc.verifymc.core.PluginContext;
+import team.kitemc.verifymc.web.WebResponseHelper;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Returns runtime statistics registered in the {@link team.kitemc.verifymc.core.StatsRegistry}.
+ */
+public class AdminStatsHandler implements HttpHandler {
+    private final PluginContext ctx;
+
+    public AdminStatsHandler(PluginContext ctx) {
+        this.ctx = ctx;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!WebResponseHelper.requireMethod(exchange, "GET")) return;
+
+        // Require admin privileges
+        if (AdminAuthUtil.requireAdmin(exchange, ctx) == null) return;
+
+        JSONObject stats = new JSONObject();
+        for (Map.Entry<String, Map<String, Object>> entry : ctx.getStatsRegistry().snapshot().entrySet()) {
+            stats.put(entry.getKey(), new JSONObject(entry.getValue()));
+        }
+
+        JSONObject resp = new JSONObject();
+        resp.put("success", true);
+        resp.put("stats", stats);
+        WebResponseHelper.sendJson(exchange, resp);
+    }
+}
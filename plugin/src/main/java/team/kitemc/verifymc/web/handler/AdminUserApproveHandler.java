@@ -64,7 +64,7 @@ public class AdminUserApproveHandler implements HttpHandler {
             if (ctx.getAuthmeService() != null && ctx.getAuthmeService().isAuthmeEnabled()) {
                 var user = ctx.getUserDao().getUserByUsername(target);
                 if (user != null) {
-                    String storedPassword = (String) user.get("password");
+                    String storedPassword = user.password();
                     if (storedPassword != null && !storedPassword.isEmpty()) {
                         ctx.getAuthmeService().registerToAuthme(target, storedPassword);
                     }
@@ -73,7 +73,7 @@ public class AdminUserApproveHandler implements HttpHandler {
 
             var user = ctx.getUserDao().getUserByUsername(target);
             if (user != null) {
-                String email = (String) user.get("email");
+                String email = user.email();
                 if (email != null && !email.isEmpty()) {
                     ctx.getMailService().sendReviewResult(email, target, true,
                             ctx.getConfigManager().getLanguage());
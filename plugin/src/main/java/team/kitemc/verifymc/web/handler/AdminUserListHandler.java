@@ -5,22 +5,37 @@ import com.sun.net.httpserver.HttpHandler;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import team.kitemc.verifymc.core.PluginContext;
+import team.kitemc.verifymc.db.UserCursor;
+import team.kitemc.verifymc.db.UserRecord;
 import team.kitemc.verifymc.web.ApiResponseFactory;
 import team.kitemc.verifymc.web.WebResponseHelper;
 
 import java.io.IOException;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Handles admin user listing with pagination and search.
  * Extracted from WebServer.start() — the "/api/admin/users" context.
+ * <p>
+ * Passing {@code after} (empty for the first page) switches to keyset
+ * pagination: the response carries an opaque {@code nextCursor} instead of
+ * page numbers. Totals are cached briefly per filter and can be skipped
+ * entirely with {@code includeTotal=false}. Page sizes are capped at
+ * {@value #MAX_PAGE_SIZE}.
  */
 public class AdminUserListHandler implements HttpHandler {
+    private static final long TOTAL_CACHE_TTL_MS = 5000L;
+    private static final int TOTAL_CACHE_MAX_ENTRIES = 256;
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private record CachedTotal(int total, long expiresAt) {}
+
     private final PluginContext ctx;
+    private final Map<String, CachedTotal> totalCache = new ConcurrentHashMap<>();
 
     public AdminUserListHandler(PluginContext ctx) {
         this.ctx = ctx;
@@ -36,7 +51,8 @@ public class AdminUserListHandler implements HttpHandler {
         // Parse query params
         String query = exchange.getRequestURI().getQuery();
         int page = 1, size = 20;
-        String search = null, status = null;
+        String search = null, status = null, after = null, language = "en";
+        boolean includeTotal = true;
         if (query != null) {
             for (String param : query.split("&")) {
                 String[] kv = param.split("=", 2);
@@ -46,22 +62,27 @@ public class AdminUserListHandler implements HttpHandler {
                     case "size" -> { try { size = Integer.parseInt(kv[1]); } catch (NumberFormatException ignored) {} }
                     case "search" -> search = URLDecoder.decode(kv[1], StandardCharsets.UTF_8);
                     case "status" -> status = URLDecoder.decode(kv[1], StandardCharsets.UTF_8);
+                    case "after" -> after = URLDecoder.decode(kv[1], StandardCharsets.UTF_8);
+                    case "includeTotal" -> includeTotal = !"false".equalsIgnoreCase(kv[1]);
+                    case "language" -> language = URLDecoder.decode(kv[1], StandardCharsets.UTF_8);
                 }
             }
         }
 
-        List<Map<String, Object>> users = ctx.getUserDao().getUsers(page, size, search, status);
-        int total = ctx.getUserDao().getTotalUsers(search, status);
-        int totalPages = (int) Math.ceil((double) total / size);
+        if (size <= 0) size = 20;
+        size = Math.min(size, MAX_PAGE_SIZE);
 
-        JSONArray usersArray = new JSONArray();
-        for (Map<String, Object> user : users) {
-            // Security: create a copy and remove password field before sending to frontend
-            Map<String, Object> safeUser = new HashMap<>(user);
-            safeUser.remove("password");
-            usersArray.put(new JSONObject(safeUser));
+        if (after != null) {
+            handleCursorPage(exchange, after, size, search, status, includeTotal, language);
+            return;
         }
 
+        List<UserRecord> users = ctx.getUserDao().getUsers(page, size, search, status);
+        int total = getTotal(search, status);
+        int totalPages = (int) Math.ceil((double) total / size);
+
+        JSONArray usersArray = toSafeArray(users);
+
         JSONObject pagination = new JSONObject();
         pagination.put("currentPage", page);
         pagination.put("pageSize", size);
@@ -76,4 +97,80 @@ public class AdminUserListHandler implements HttpHandler {
         resp.put("pagination", pagination);
         WebResponseHelper.sendJson(exchange, resp);
     }
+
+    private void handleCursorPage(HttpExchange exchange, String after, int size, String search, String status,
+                                  boolean includeTotal, String language) throws IOException {
+        UserCursor cursor = null;
+        if (!after.isEmpty()) {
+            try {
+                cursor = UserCursor.decode(after);
+            } catch (IllegalArgumentException e) {
+                WebResponseHelper.sendJson(exchange, ApiResponseFactory.failure(
+                        ctx.getMessage("admin.invalid_cursor", language)), 400);
+                return;
+            }
+        }
+
+        // Fetch one extra row to learn whether another page exists without counting.
+        List<UserRecord> users = ctx.getUserDao().getUsersAfter(cursor, size + 1, search, status);
+        boolean hasNext = users.size() > size;
+        if (hasNext) {
+            users = users.subList(0, size);
+        }
+
+        JSONObject pagination = new JSONObject();
+        pagination.put("pageSize", size);
+        pagination.put("hasNext", hasNext);
+        pagination.put("hasPrev", cursor != null);
+        if (hasNext) {
+            pagination.put("nextCursor", UserCursor.of(users.get(users.size() - 1)).encode());
+        }
+        if (includeTotal) {
+            pagination.put("totalCount", getTotal(search, status));
+        }
+
+        JSONObject resp = new JSONObject();
+        resp.put("success", true);
+        resp.put("users", toSafeArray(users));
+        resp.put("pagination", pagination);
+        WebResponseHelper.sendJson(exchange, resp);
+    }
+
+    private JSONArray toSafeArray(List<UserRecord> users) {
+        JSONArray usersArray = new JSONArray();
+        for (UserRecord user : users) {
+            // Security: the password hash is never sent to the frontend
+            JSONObject json = new JSONObject();
+            json.put("username", user.username());
+            json.put("email", user.email());
+            json.put("status", user.status() != null ? user.status().value() : null);
+            json.put("regTime", user.regTime());
+            json.put("discordId", user.discordId());
+            json.put("questionnaireScore", user.questionnaireScore());
+            json.put("questionnairePassed", user.questionnairePassed());
+            json.put("questionnaireReviewSummary", user.questionnaireReviewSummary());
+            json.put("questionnaireScoredAt", user.questionnaireScoredAt());
+            usersArray.put(json);
+        }
+        return usersArray;
+    }
+
+    /**
+     * Totals for the same filter are reused for a few seconds so paging through
+     * a listing does not run a full COUNT for every page.
+     */
+    private int getTotal(String search, String status) {
+        String key = (status == null ? "" : status.toLowerCase()) + "\n" + (search == null ? "" : search.trim().toLowerCase());
+        long now = System.currentTimeMillis();
+        CachedTotal cached = totalCache.get(key);
+        if (cached != null && cached.expiresAt() > now) {
+            return cached.total();
+        }
+        int total = ctx.getUserDao().getTotalUsers(search, status);
+        if (totalCache.size() >= TOTAL_CACHE_MAX_ENTRIES) {
+            totalCache.clear();
+        }
+        totalCache.put(key, new CachedTotal(total, now + TOTAL_CACHE_TTL_MS));
+        return total;
+    }
 }
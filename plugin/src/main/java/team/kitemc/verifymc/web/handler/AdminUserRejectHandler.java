@@ -52,7 +52,7 @@ public class AdminUserRejectHandler implements HttpHandler {
         if (ok) {
             var user = ctx.getUserDao().getUserByUsername(target);
             if (user != null) {
-                String email = (String) user.get("email");
+                String email = user.email();
                 if (email != null && !email.isEmpty()) {
                     ctx.getMailService().sendReviewResult(email, target, false,
                             ctx.getConfigManager().getLanguage());
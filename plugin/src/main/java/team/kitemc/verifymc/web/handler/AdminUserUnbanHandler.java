@@ -54,7 +54,7 @@ public class AdminUserUnbanHandler implements HttpHandler {
             if (ctx.getAuthmeService() != null && ctx.getAuthmeService().isAuthmeEnabled()) {
                 var user = ctx.getUserDao().getUserByUsername(target);
                 if (user != null) {
-                    String storedPassword = (String) user.get("password");
+                    String storedPassword = user.password();
                     if (storedPassword != null && !storedPassword.isEmpty()) {
                         ctx.getAuthmeService().registerToAuthme(target, storedPassword);
                     }
@@ -0,0 +1,106 @@
+package team.kitemc.verifymc.web.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import team.kitemc.verifymc.core.PluginContext;
+import team.kitemc.verifymc.db.WhitelistIndex;
+import team.kitemc.verifymc.web.ApiResponseFactory;
+import team.kitemc.verifymc.web.WebResponseHelper;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Whitelist check for proxies, authenticated by the {@code X-API-Key} header.
+ * <p>
+ * {@code GET ?username=} answers one player:
+ * {@code {"success":true,"found":true,"status":"approved","username":"Steve"}}.
+ * {@code POST {"usernames":[...]}} answers up to {@code proxy_api.max_batch}
+ * players at once, keyed by the name as sent:
+ * {@code {"success":true,"statuses":{"Steve":"approved","alex":"not_registered"}}}.
+ * Both are served from the {@link WhitelistIndex} and carry a short
+ * {@code Cache-Control} max-age.
+ */
+public class CheckWhitelistHandler implements HttpHandler {
+    private static final String NOT_REGISTERED = "not_registered";
+
+    private final PluginContext ctx;
+
+    public CheckWhitelistHandler(PluginContext ctx) {
+        this.ctx = ctx;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        if (!"GET".equalsIgnoreCase(method) && !"POST".equalsIgnoreCase(method)) {
+            WebResponseHelper.requireMethod(exchange, "GET");
+            return;
+        }
+        if (!ProxyApiAuthUtil.requireApiKey(exchange, ctx)) return;
+
+        WhitelistIndex index = ctx.getWhitelistIndex();
+        JSONObject resp;
+        if ("GET".equalsIgnoreCase(method)) {
+            String username = queryParam(exchange, "username");
+            if (username == null || username.isBlank()) {
+                WebResponseHelper.sendJson(exchange, ApiResponseFactory.failure("Missing username"), 400);
+                return;
+            }
+            WhitelistIndex.Entry entry = index.lookup(username.trim());
+            resp = new JSONObject();
+            resp.put("success", true);
+            resp.put("found", entry != null);
+            resp.put("status", entry != null ? entry.statusValue() : NOT_REGISTERED);
+            resp.put("username", entry != null ? entry.username() : username.trim());
+        } else {
+            JSONArray usernames;
+            try {
+                usernames = WebResponseHelper.readJson(exchange).optJSONArray("usernames");
+            } catch (JSONException e) {
+                usernames = null;
+            }
+            if (usernames == null) {
+                WebResponseHelper.sendJson(exchange, ApiResponseFactory.failure("Missing usernames"), 400);
+                return;
+            }
+            if (usernames.length() > ctx.getConfigManager().getProxyApiMaxBatch()) {
+                WebResponseHelper.sendJson(exchange, ApiResponseFactory.failure("Too many usernames"), 413);
+                return;
+            }
+            JSONObject statuses = new JSONObject();
+            for (int i = 0; i < usernames.length(); i++) {
+                String username = usernames.optString(i, "").trim();
+                if (username.isEmpty()) continue;
+                WhitelistIndex.Entry entry = index.lookup(username);
+                statuses.put(username, entry != null ? entry.statusValue() : NOT_REGISTERED);
+            }
+            resp = new JSONObject();
+            resp.put("success", true);
+            resp.put("statuses", statuses);
+        }
+
+        exchange.getResponseHeaders().set("Cache-Control",
+                "private, max-age=" + Math.max(0, ctx.getConfigManager().getProxyApiMaxAgeSeconds()));
+        exchange.getResponseHeaders().set("Vary", "X-API-Key");
+        WebResponseHelper.sendJson(exchange, resp);
+    }
+
+    private static String queryParam(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String param : query.split("&")) {
+            String[] kv = param.split("=", 2);
+            if (kv.length == 2 && name.equals(kv[0])) {
+                return URLDecoder.decode(kv[1], StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+}
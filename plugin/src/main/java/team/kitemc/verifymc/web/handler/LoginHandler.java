@@ -8,6 +8,7 @@ import team.kitemc.verifymc.core.OpsManager;
 import team.kitemc.verifymc.core.PluginContext;
 import team.kitemc.verifymc.db.AuditRecord;
 import team.kitemc.verifymc.db.UserDao;
+import team.kitemc.verifymc.db.UserRecord;
 import team.kitemc.verifymc.service.AuthmeService;
 import team.kitemc.verifymc.util.PasswordUtil;
 import team.kitemc.verifymc.web.ApiResponseFactory;
@@ -15,7 +16,6 @@ import team.kitemc.verifymc.web.WebAuthHelper;
 import team.kitemc.verifymc.web.WebResponseHelper;
 
 import java.io.IOException;
-import java.util.Map;
 
 public class LoginHandler implements HttpHandler {
     private final PluginContext ctx;
@@ -54,7 +54,7 @@ public class LoginHandler implements HttpHandler {
         }
 
         UserDao userDao = ctx.getUserDao();
-        Map<String, Object> user = userDao.getUserByUsername(username);
+        UserRecord user = userDao.getUserByUsername(username);
         if (user == null) {
             user = userDao.getUserByEmail(username);
         }
@@ -65,7 +65,7 @@ public class LoginHandler implements HttpHandler {
             return;
         }
 
-        String actualUsername = (String) user.get("username");
+        String actualUsername = user.username();
         if (actualUsername == null || actualUsername.isEmpty()) {
             WebResponseHelper.sendJson(exchange, ApiResponseFactory.failure(
                     ctx.getMessage("login.user_not_found", language)));
@@ -81,7 +81,7 @@ public class LoginHandler implements HttpHandler {
             }
         }
 
-        String storedPassword = (String) user.get("password");
+        String storedPassword = user.password();
         AuthmeService authmeService = ctx.getAuthmeService();
         boolean passwordValid = false;
 
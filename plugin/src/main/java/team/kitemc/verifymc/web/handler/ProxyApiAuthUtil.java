@@ -0,0 +1,39 @@
+package team.kitemc.verifymc.web.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+import team.kitemc.verifymc.core.PluginContext;
+import team.kitemc.verifymc.web.ApiResponseFactory;
+import team.kitemc.verifymc.web.WebResponseHelper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Shared authentication for endpoints called by the proxy plugin.
+ * Checks the {@code X-API-Key} header against {@code proxy_api.api_key}.
+ */
+public final class ProxyApiAuthUtil {
+    private ProxyApiAuthUtil() {}
+
+    /**
+     * Sends 403 when no key is configured and 401 when the header does not
+     * match; the comparison does not leak the key through timing.
+     *
+     * @return true if the request may proceed
+     */
+    public static boolean requireApiKey(HttpExchange exchange, PluginContext ctx) throws IOException {
+        String configured = ctx.getConfigManager().getProxyApiKey();
+        if (configured == null || configured.isEmpty()) {
+            WebResponseHelper.sendJson(exchange, ApiResponseFactory.failure("Proxy API disabled"), 403);
+            return false;
+        }
+        String provided = exchange.getRequestHeaders().getFirst("X-API-Key");
+        if (provided == null || !MessageDigest.isEqual(
+                configured.getBytes(StandardCharsets.UTF_8), provided.getBytes(StandardCharsets.UTF_8))) {
+            WebResponseHelper.sendJson(exchange, ApiResponseFactory.failure("Unauthorized"), 401);
+            return false;
+        }
+        return true;
+    }
+}
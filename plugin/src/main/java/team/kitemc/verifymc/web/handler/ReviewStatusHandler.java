@@ -4,10 +4,10 @@ import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import org.json.JSONObject;
 import team.kitemc.verifymc.core.PluginContext;
+import team.kitemc.verifymc.db.UserRecord;
 import team.kitemc.verifymc.web.WebResponseHelper;
 
 import java.io.IOException;
-import java.util.Map;
 
 public class ReviewStatusHandler implements HttpHandler {
     private final PluginContext ctx;
@@ -36,7 +36,7 @@ public class ReviewStatusHandler implements HttpHandler {
             }
         }
 
-        Map<String, Object> user = null;
+        UserRecord user = null;
         if (username != null && !username.isBlank()) {
             user = ctx.getUserDao().getUserByUsername(username);
         }
@@ -44,8 +44,8 @@ public class ReviewStatusHandler implements HttpHandler {
         JSONObject resp = new JSONObject();
         if (user != null) {
             resp.put("success", true);
-            resp.put("status", user.getOrDefault("status", "unknown"));
-            resp.put("username", user.getOrDefault("username", ""));
+            resp.put("status", user.status() != null ? user.status().value() : "unknown");
+            resp.put("username", user.username() != null ? user.username() : "");
         } else {
             resp.put("success", false);
             resp.put("message", ctx.getMessage("error.user_not_found", language));
@@ -1,19 +1,42 @@
 package team.kitemc.verifymc.web.handler;
 
+import com.sun.net.httpserver.Headers;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import team.kitemc.verifymc.core.PluginContext;
+import team.kitemc.verifymc.web.StaticAssetCache;
+import team.kitemc.verifymc.web.WebResponseHelper;
 
 import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 
 /**
  * Serves static files (front-end HTML/CSS/JS) from the plugin data directory.
  * This replaces the inline StaticHandler class from the original WebServer.
+ * <p>
+ * Files come from the {@link StaticAssetCache} when one is configured and are
+ * sent with ETag, Last-Modified and Cache-Control headers (fingerprinted build
+ * output is immutable, everything else is revalidated), gzip-encoded when the
+ * client accepts it, and answered with 304 when the client's copy is current.
+ * Files that are not cached (larger than {@code static_cache.max_file_kb}, or
+ * with the cache disabled) are streamed from disk with single-range
+ * {@code Range} support, so large downloads neither fill the heap nor have to
+ * restart from the beginning.
  */
 public class StaticFileHandler implements HttpHandler {
+    private static final DateTimeFormatter HTTP_DATE = DateTimeFormatter.RFC_1123_DATE_TIME;
+
     private final PluginContext ctx;
 
     public StaticFileHandler(PluginContext ctx) {
@@ -52,7 +75,7 @@ public class StaticFileHandler implements HttpHandler {
             }
             File indexFile = indexPath.toFile();
             if (indexFile.exists()) {
-                serveFile(exchange, indexFile);
+                serveFile(exchange, indexPath, "index.html");
             } else {
                 String msg = "404 Not Found";
                 byte[] bytes = msg.getBytes(StandardCharsets.UTF_8);
@@ -64,7 +87,7 @@ public class StaticFileHandler implements HttpHandler {
             return;
         }
 
-        serveFile(exchange, file);
+        serveFile(exchange, requestPath, themeDirPath.relativize(requestPath).toString().replace(File.separatorChar, '/'));
     }
 
     static String toRelativePath(String uriPath) {
@@ -86,15 +109,196 @@ public class StaticFileHandler implements HttpHandler {
         return candidate;
     }
 
-    private void serveFile(HttpExchange exchange, File file) throws IOException {
-        String contentType = determineContentType(file.getName());
-        exchange.getResponseHeaders().set("Content-Type", contentType);
+    private void serveFile(HttpExchange exchange, Path file, String relativePath) throws IOException {
+        String contentType = determineContentType(file.getFileName().toString());
+        StaticAssetCache cache = ctx.getStaticAssetCache();
+        StaticAssetCache.Asset asset = cache != null ? cache.get(file, relativePath, contentType) : null;
+        if (asset == null) {
+            streamFile(exchange, file, relativePath, contentType);
+            return;
+        }
 
-        byte[] data = Files.readAllBytes(file.toPath());
-        exchange.sendResponseHeaders(200, data.length);
+        boolean gzip = asset.gzip() != null && WebResponseHelper.acceptsGzip(exchange);
+        // Each encoding is a separate representation and needs its own strong ETag
+        String etag = gzip ? asset.etag().substring(0, asset.etag().length() - 1) + "-gz\"" : asset.etag();
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", contentType);
+        headers.set("ETag", etag);
+        headers.set("Last-Modified", HTTP_DATE.format(Instant.ofEpochMilli(asset.lastModified()).atZone(ZoneOffset.UTC)));
+        headers.set("Cache-Control", asset.immutable() ? "public, max-age=31536000, immutable" : "no-cache");
+        if (asset.gzip() != null) {
+            headers.set("Vary", "Accept-Encoding");
+        }
+
+        if (isNotModified(exchange, asset.etag(), asset.lastModified())) {
+            cache.recordNotModified();
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+
+        byte[] body = gzip ? asset.gzip() : asset.data();
+        if (gzip) {
+            headers.set("Content-Encoding", "gzip");
+        }
+        if ("HEAD".equalsIgnoreCase(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+            return;
+        }
+        exchange.sendResponseHeaders(200, body.length);
         try (OutputStream os = exchange.getResponseBody()) {
-            os.write(data);
+            os.write(body);
+        }
+    }
+
+    /**
+     * Streams a file through a {@link FileChannel}, whole or the requested range,
+     * without loading it into memory.
+     */
+    private void streamFile(HttpExchange exchange, Path file, String relativePath, String contentType) throws IOException {
+        long size = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        String etag = "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", contentType);
+        headers.set("ETag", etag);
+        headers.set("Last-Modified", HTTP_DATE.format(Instant.ofEpochMilli(lastModified).atZone(ZoneOffset.UTC)));
+        headers.set("Cache-Control", StaticAssetCache.isFingerprinted(relativePath)
+                ? "public, max-age=31536000, immutable" : "no-cache");
+        headers.set("Accept-Ranges", "bytes");
+
+        if (isNotModified(exchange, etag, lastModified)) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+
+        long start = 0;
+        long length = size;
+        int status = 200;
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        if (range != null && size > 0 && ifRangeMatches(exchange.getRequestHeaders().getFirst("If-Range"), etag, lastModified)) {
+            long[] bounds = parseRange(range, size);
+            if (bounds != null && bounds.length == 0) {
+                headers.set("Content-Range", "bytes */" + size);
+                exchange.sendResponseHeaders(416, -1);
+                exchange.close();
+                return;
+            }
+            if (bounds != null) {
+                start = bounds[0];
+                length = bounds[1] - bounds[0] + 1;
+                status = 206;
+                headers.set("Content-Range", "bytes " + bounds[0] + "-" + bounds[1] + "/" + size);
+            }
+        }
+
+        if (length == 0 || "HEAD".equalsIgnoreCase(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+            return;
+        }
+        exchange.sendResponseHeaders(status, length);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             OutputStream os = exchange.getResponseBody()) {
+            WritableByteChannel out = Channels.newChannel(os);
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    throw new EOFException("File shrank while sending: " + file.getFileName());
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    /**
+     * Parses a single {@code bytes=} range. Multiple ranges are not supported
+     * and, like malformed headers, are ignored (the whole file is sent).
+     *
+     * @return {start, end} inclusive, an empty array if unsatisfiable, or null to ignore the header
+     */
+    static long[] parseRange(String header, long size) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = header.substring(6).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        String first = spec.substring(0, dash).trim();
+        String last = spec.substring(dash + 1).trim();
+        try {
+            if (first.isEmpty()) {
+                if (last.isEmpty()) {
+                    return null;
+                }
+                long suffix = Long.parseLong(last);
+                return suffix <= 0 ? new long[0] : new long[]{Math.max(0, size - suffix), size - 1};
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+            if (start >= size) {
+                return new long[0];
+            }
+            return end < start ? null : new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * A range only applies if the client's copy (If-Range) is still current.
+     */
+    static boolean ifRangeMatches(String ifRange, String etag, long lastModified) {
+        if (ifRange == null) {
+            return true;
+        }
+        ifRange = ifRange.trim();
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            return ZonedDateTime.parse(ifRange, HTTP_DATE).toInstant().getEpochSecond() == lastModified / 1000;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * If-None-Match takes precedence; If-Modified-Since is only checked without it.
+     * {@code etag} also matches its gzip variant.
+     */
+    private static boolean isNotModified(HttpExchange exchange, String etag, long lastModified) {
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch != null) {
+            String opaque = etag.substring(1, etag.length() - 1);
+            for (String tag : ifNoneMatch.split(",")) {
+                tag = tag.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if ("*".equals(tag) || tag.equals(etag) || tag.equals("\"" + opaque + "-gz\"")) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        String ifModifiedSince = exchange.getRequestHeaders().getFirst("If-Modified-Since");
+        if (ifModifiedSince != null) {
+            try {
+                long since = ZonedDateTime.parse(ifModifiedSince, HTTP_DATE).toInstant().getEpochSecond();
+                return lastModified / 1000 <= since;
+            } catch (DateTimeParseException e) {
+                return false;
+            }
         }
+        return false;
     }
 
     private String determineContentType(String fileName) {
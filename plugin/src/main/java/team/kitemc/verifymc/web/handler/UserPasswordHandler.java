@@ -6,12 +6,12 @@ import org.json.JSONException;
 import org.json.JSONObject;
 import team.kitemc.verifymc.core.PluginContext;
 import team.kitemc.verifymc.db.AuditRecord;
+import team.kitemc.verifymc.db.UserRecord;
 import team.kitemc.verifymc.util.PasswordUtil;
 import team.kitemc.verifymc.web.ApiResponseFactory;
 import team.kitemc.verifymc.web.WebResponseHelper;
 
 import java.io.IOException;
-import java.util.Map;
 
 public class UserPasswordHandler implements HttpHandler {
     private final PluginContext ctx;
@@ -53,14 +53,14 @@ public class UserPasswordHandler implements HttpHandler {
             return;
         }
 
-        Map<String, Object> user = ctx.getUserDao().getUserByUsername(username);
+        UserRecord user = ctx.getUserDao().getUserByUsername(username);
         if (user == null) {
             WebResponseHelper.sendJson(exchange, ApiResponseFactory.failure(
                     ctx.getMessage("error.user_not_found", language)));
             return;
         }
 
-        String storedPassword = (String) user.get("password");
+        String storedPassword = user.password();
         if (storedPassword == null || storedPassword.isBlank()) {
             WebResponseHelper.sendJson(exchange, ApiResponseFactory.failure(
                     ctx.getMessage("user.password_not_set", language)));
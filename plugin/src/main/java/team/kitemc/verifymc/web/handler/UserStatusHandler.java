@@ -4,10 +4,10 @@ import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import org.json.JSONObject;
 import team.kitemc.verifymc.core.PluginContext;
+import team.kitemc.verifymc.db.UserRecord;
 import team.kitemc.verifymc.web.WebResponseHelper;
 
 import java.io.IOException;
-import java.util.Map;
 
 public class UserStatusHandler implements HttpHandler {
     private final PluginContext ctx;
@@ -38,13 +38,13 @@ public class UserStatusHandler implements HttpHandler {
 
         JSONObject resp = new JSONObject();
         if (username != null && !username.isBlank()) {
-            Map<String, Object> user = ctx.getUserDao().getUserByUsername(username);
+            UserRecord user = ctx.getUserDao().getUserByUsername(username);
             if (user != null) {
                 resp.put("success", true);
                 JSONObject data = new JSONObject();
-                data.put("status", user.getOrDefault("status", "unknown"));
+                data.put("status", user.status() != null ? user.status().value() : "unknown");
                 data.put("registered", true);
-                data.put("username", user.getOrDefault("username", ""));
+                data.put("username", user.username() != null ? user.username() : "");
                 resp.put("data", data);
             } else {
                 resp.put("success", true);
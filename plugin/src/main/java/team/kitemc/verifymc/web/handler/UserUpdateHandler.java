@@ -6,12 +6,12 @@ import org.json.JSONException;
 import org.json.JSONObject;
 import team.kitemc.verifymc.core.PluginContext;
 import team.kitemc.verifymc.db.AuditRecord;
+import team.kitemc.verifymc.db.UserRecord;
 import team.kitemc.verifymc.web.ApiResponseFactory;
 import team.kitemc.verifymc.web.WebResponseHelper;
 
 import java.io.IOException;
 import java.util.List;
-import java.util.Map;
 
 public class UserUpdateHandler implements HttpHandler {
     private final PluginContext ctx;
@@ -51,14 +51,14 @@ public class UserUpdateHandler implements HttpHandler {
             return;
         }
 
-        Map<String, Object> user = ctx.getUserDao().getUserByUsername(username);
+        UserRecord user = ctx.getUserDao().getUserByUsername(username);
         if (user == null) {
             WebResponseHelper.sendJson(exchange, ApiResponseFactory.failure(
                     ctx.getMessage("error.user_not_found", language)));
             return;
         }
 
-        String currentEmail = (String) user.get("email");
+        String currentEmail = user.email();
         if (newEmail.equalsIgnoreCase(currentEmail)) {
             WebResponseHelper.sendJson(exchange, ApiResponseFactory.success(
                     ctx.getMessage("user.update_success", language)));
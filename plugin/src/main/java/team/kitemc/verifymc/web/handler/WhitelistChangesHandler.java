@@ -0,0 +1,79 @@
+package team.kitemc.verifymc.web.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import team.kitemc.verifymc.core.PluginContext;
+import team.kitemc.verifymc.db.WhitelistIndex;
+import team.kitemc.verifymc.web.ApiResponseFactory;
+import team.kitemc.verifymc.web.WebResponseHelper;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Approved-set changes after a sequence, for proxy replicas.
+ * <p>
+ * {@code GET ?epoch=&since=} returns
+ * {@code {"success":true,"epoch":"...","seq":45,"reset":false,"approved":[...],"revoked":[...]}},
+ * where each listed user is reported with its current state. {@code reset:true}
+ * means the epoch changed (server restart) or {@code since} is too old, and the
+ * replica must reload {@code /api/whitelist/snapshot}.
+ */
+public class WhitelistChangesHandler implements HttpHandler {
+    private final PluginContext ctx;
+
+    public WhitelistChangesHandler(PluginContext ctx) {
+        this.ctx = ctx;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!WebResponseHelper.requireMethod(exchange, "GET")) return;
+        if (!ProxyApiAuthUtil.requireApiKey(exchange, ctx)) return;
+
+        String query = exchange.getRequestURI().getRawQuery();
+        String epoch = null;
+        long since = -1;
+        if (query != null) {
+            for (String param : query.split("&")) {
+                String[] kv = param.split("=", 2);
+                if (kv.length != 2) continue;
+                String value = URLDecoder.decode(kv[1], StandardCharsets.UTF_8);
+                switch (kv[0]) {
+                    case "epoch" -> epoch = value;
+                    case "since" -> {
+                        try {
+                            since = Long.parseLong(value);
+                        } catch (NumberFormatException ignored) {
+                            // treated as missing
+                        }
+                    }
+                }
+            }
+        }
+        if (epoch == null || since < 0) {
+            WebResponseHelper.sendJson(exchange, ApiResponseFactory.failure("Missing epoch or since"), 400);
+            return;
+        }
+
+        WhitelistIndex index = ctx.getWhitelistIndex();
+        WhitelistIndex.Delta delta = index.changesSince(epoch, since);
+        JSONObject resp = new JSONObject();
+        resp.put("success", true);
+        if (delta == null) {
+            resp.put("epoch", index.epoch());
+            resp.put("reset", true);
+        } else {
+            resp.put("epoch", delta.epoch());
+            resp.put("seq", delta.sequence());
+            resp.put("reset", false);
+            resp.put("approved", new JSONArray(delta.approved()));
+            resp.put("revoked", new JSONArray(delta.revoked()));
+        }
+        exchange.getResponseHeaders().set("Cache-Control", "no-store");
+        WebResponseHelper.sendJson(exchange, resp);
+    }
+}
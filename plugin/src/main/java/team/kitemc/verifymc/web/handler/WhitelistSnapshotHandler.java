@@ -0,0 +1,39 @@
+package team.kitemc.verifymc.web.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import team.kitemc.verifymc.core.PluginContext;
+import team.kitemc.verifymc.db.WhitelistIndex;
+import team.kitemc.verifymc.web.WebResponseHelper;
+
+import java.io.IOException;
+
+/**
+ * Full approved-username set for proxy replicas:
+ * {@code {"success":true,"epoch":"...","seq":42,"approved":["Steve",...]}}.
+ * Replicas follow up with {@code /api/whitelist/changes?epoch=&since=seq}.
+ */
+public class WhitelistSnapshotHandler implements HttpHandler {
+    private final PluginContext ctx;
+
+    public WhitelistSnapshotHandler(PluginContext ctx) {
+        this.ctx = ctx;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!WebResponseHelper.requireMethod(exchange, "GET")) return;
+        if (!ProxyApiAuthUtil.requireApiKey(exchange, ctx)) return;
+
+        WhitelistIndex.Snapshot snapshot = ctx.getWhitelistIndex().snapshot();
+        JSONObject resp = new JSONObject();
+        resp.put("success", true);
+        resp.put("epoch", snapshot.epoch());
+        resp.put("seq", snapshot.sequence());
+        resp.put("approved", new JSONArray(snapshot.approved()));
+        exchange.getResponseHeaders().set("Cache-Control", "no-store");
+        WebResponseHelper.sendJson(exchange, resp);
+    }
+}
@@ -0,0 +1,89 @@
+package team.kitemc.verifymc.db;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AsyncAuditDaoTest {
+    private static final Logger LOGGER = Logger.getLogger(AsyncAuditDaoTest.class.getName());
+
+    /** Fails the next {@code failures} writes, then stores batches in memory. */
+    private static class FlakyAuditDao implements AuditDao {
+        final List<AuditRecord> stored = new ArrayList<>();
+        volatile int failures;
+
+        FlakyAuditDao(int failures) {
+            this.failures = failures;
+        }
+
+        @Override
+        public synchronized void addAudit(AuditRecord audit) {
+            addAudits(List.of(audit));
+        }
+
+        @Override
+        public synchronized void addAudits(List<AuditRecord> audits) {
+            if (failures > 0) {
+                failures--;
+                throw new IllegalStateException("database unavailable");
+            }
+            stored.addAll(audits);
+        }
+
+        @Override
+        public synchronized List<AuditRecord> getAllAudits() {
+            return new ArrayList<>(stored);
+        }
+
+        @Override
+        public void save() {
+        }
+    }
+
+    private static AuditRecord audit(int i) {
+        return new AuditRecord("action" + i, "admin", "user" + i, "", 1000L + i);
+    }
+
+    @Test
+    void failedBatchIsRetriedBeforeLaterRecords() {
+        FlakyAuditDao delegate = new FlakyAuditDao(2);
+        AsyncAuditDao audits = new AsyncAuditDao(delegate, 10, 60_000L, 100, LOGGER);
+        for (int i = 0; i < 3; i++) {
+            audits.addAudit(audit(i));
+        }
+        audits.close();
+
+        assertEquals(3, delegate.stored.size());
+        assertEquals("action0", delegate.stored.get(0).action());
+        assertEquals(Long.valueOf(2), audits.stats().get("retries"));
+        assertEquals(Long.valueOf(0), audits.stats().get("dropped"));
+    }
+
+    @Test
+    void recordsAreCountedWhenRetriesRunOut() {
+        FlakyAuditDao delegate = new FlakyAuditDao(Integer.MAX_VALUE);
+        AsyncAuditDao audits = new AsyncAuditDao(delegate, 2, 60_000L, 100, LOGGER);
+        for (int i = 0; i < 5; i++) {
+            audits.addAudit(audit(i));
+        }
+        audits.close();
+
+        assertEquals(0, delegate.stored.size());
+        assertEquals(Long.valueOf(5), audits.stats().get("dropped"));
+    }
+
+    @Test
+    void recordsAfterCloseAreDroppedNotWritten() {
+        FlakyAuditDao delegate = new FlakyAuditDao(0);
+        AsyncAuditDao audits = new AsyncAuditDao(delegate, 10, 60_000L, 100, LOGGER);
+        audits.close();
+        audits.addAudit(audit(1));
+
+        assertEquals(0, delegate.stored.size());
+        assertEquals(Long.valueOf(1), audits.stats().get("dropped"));
+    }
+}
@@ -0,0 +1,89 @@
+package team.kitemc.verifymc.db;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class FileUserDaoTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysJournalAfterCrash() throws IOException {
+        FileUserDao dao = new FileUserDao(usersFile(), plugin());
+        dao.registerUser("Alice", "alice@example.com", "pending");
+        dao.registerUser("Bob", "bob@example.com", "pending");
+        dao.updateUserStatus("Alice", "approved");
+        dao.deleteUser("Bob");
+        dao.save();
+        // Crash: no close(), so users.json was never rewritten; leave a torn entry behind too.
+        Files.writeString(journal(), "{\"op\":\"put\",\"key\":\"car", StandardOpenOption.APPEND);
+
+        FileUserDao reopened = new FileUserDao(usersFile(), plugin());
+        UserRecord alice = reopened.getUserByUsername("alice");
+        assertNotNull(alice, "journaled registration survives the crash");
+        assertEquals(UserStatus.APPROVED, alice.status());
+        assertNull(reopened.getUserByUsername("bob"), "journaled delete survives the crash");
+        assertEquals(0L, Files.size(journal()), "replayed journal is compacted away");
+        reopened.close();
+    }
+
+    @Test
+    void failedJournalCommitIsRepairedByCompaction() throws IOException {
+        UserJournalTest.FailingJournal[] failing = new UserJournalTest.FailingJournal[1];
+        FileUserDao dao = new FileUserDao(usersFile(), plugin()) {
+            @Override
+            UserJournal openJournal(Path path, long commitIntervalMs) throws IOException {
+                failing[0] = new UserJournalTest.FailingJournal(path);
+                return failing[0];
+            }
+        };
+        failing[0].failNext = true;
+        dao.registerUser("Alice", "alice@example.com", "approved");
+        dao.save();
+        assertEquals(0L, Files.size(journal()), "the failed batch is not left in the journal");
+
+        dao.compact();
+        // Crash after the compaction: only users.json is left to recover from.
+        FileUserDao reopened = new FileUserDao(usersFile(), plugin());
+        assertNotNull(reopened.getUserByUsername("alice"), "compaction wrote the mutation the journal lost");
+        reopened.close();
+    }
+
+    private File usersFile() {
+        return dir.resolve("users.json").toFile();
+    }
+
+    private Path journal() {
+        return dir.resolve("users.json.journal");
+    }
+
+    private Plugin plugin() {
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("file_storage.commit_interval_ms", 0);
+        config.set("file_storage.compact_interval_seconds", 0);
+        Logger logger = Logger.getLogger(FileUserDaoTest.class.getName());
+        File dataFolder = dir.toFile();
+        return (Plugin) Proxy.newProxyInstance(Plugin.class.getClassLoader(), new Class<?>[]{Plugin.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getConfig" -> config;
+                    case "getDataFolder" -> dataFolder;
+                    case "getLogger" -> logger;
+                    case "toString" -> "TestPlugin";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,105 @@
+package team.kitemc.verifymc.db;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class UserJournalTest {
+    private static final Logger LOGGER = Logger.getLogger(UserJournalTest.class.getName());
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysCommittedLinesAfterCrash() throws IOException {
+        Path path = dir.resolve("users.json.journal");
+        UserJournal journal = new UserJournal(path, 0L, LOGGER);
+        journal.append("one");
+        journal.append("two");
+        journal.flush();
+        // Simulate a crash in the middle of the next write: no close(), half a line on disk.
+        Files.write(path, "thr".getBytes(StandardCharsets.UTF_8), java.nio.file.StandardOpenOption.APPEND);
+
+        UserJournal reopened = new UserJournal(path, 0L, LOGGER);
+        reopened.append("four");
+        reopened.close();
+
+        assertEquals(List.of("one", "two", "thr", "four"), replay(path));
+    }
+
+    @Test
+    void failedCommitLeavesNoTornLine() throws IOException {
+        Path path = dir.resolve("users.json.journal");
+        FailingJournal journal = new FailingJournal(path);
+        journal.append("one");
+        journal.flush();
+        long size = journal.size();
+
+        journal.failNext = true;
+        journal.append("lost");
+        journal.flush();
+        assertEquals(size, journal.size(), "journal size after failed commit");
+        assertEquals(size, Files.size(path), "file size after failed commit");
+
+        journal.append("two");
+        journal.close();
+        assertEquals(List.of("one", "two"), replay(path));
+    }
+
+    @Test
+    void rotateAppendsToUnfinishedCompaction() throws IOException {
+        Path path = dir.resolve("users.json.journal");
+        Path compacting = dir.resolve("users.json.journal.compacting");
+        Files.writeString(compacting, "old\n");
+        UserJournal journal = new UserJournal(path, 0L, LOGGER);
+        journal.append("new");
+        journal.rotate(compacting);
+
+        assertEquals(0L, journal.size());
+        assertEquals(List.of("old", "new"), replay(compacting));
+        journal.append("next");
+        journal.close();
+        assertEquals(List.of("next"), replay(path));
+    }
+
+    private static List<String> replay(Path path) throws IOException {
+        List<String> lines = new ArrayList<>();
+        UserJournal.replay(path, lines::add);
+        return lines;
+    }
+
+    /**
+     * Writes half of the next batch, then fails like a full disk.
+     */
+    static class FailingJournal extends UserJournal {
+        volatile boolean failNext;
+
+        FailingJournal(Path path) throws IOException {
+            super(path, 0L, LOGGER);
+        }
+
+        @Override
+        int write(FileChannel channel, ByteBuffer buffer) throws IOException {
+            if (failNext) {
+                failNext = false;
+                ByteBuffer half = buffer.slice();
+                half.limit(Math.max(1, half.remaining() / 2));
+                int written = channel.write(half);
+                buffer.position(buffer.position() + written);
+                throw new IOException("No space left on device");
+            }
+            return super.write(channel, buffer);
+        }
+    }
+}
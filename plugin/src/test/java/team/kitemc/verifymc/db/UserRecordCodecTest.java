@@ -0,0 +1,80 @@
+package team.kitemc.verifymc.db;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserRecordCodecTest {
+    @Test
+    void readsLegacySnakeCaseFields() throws IOException {
+        Map<String, UserRecord> users = new HashMap<>();
+        boolean upgraded = UserRecordCodec.readSnapshot(new StringReader("""
+                {"steve": {"username": "Steve", "email": "steve@example.com", "status": "approved",
+                  "regTime": 1700000000000, "discord_id": "42", "questionnaire_score": 85,
+                  "questionnaire_passed": true, "questionnaire_review_summary": "ok",
+                  "questionnaire_scored_at": 1700000001000}}
+                """), users::put);
+
+        assertTrue(upgraded, "legacy names are reported so the file is rewritten");
+        UserRecord steve = users.get("steve");
+        assertEquals("Steve", steve.username());
+        assertEquals(UserStatus.APPROVED, steve.status());
+        assertEquals("42", steve.discordId());
+        assertEquals(Integer.valueOf(85), steve.questionnaireScore());
+        assertEquals(Boolean.TRUE, steve.questionnairePassed());
+        assertEquals("ok", steve.questionnaireReviewSummary());
+        assertEquals(Long.valueOf(1700000001000L), steve.questionnaireScoredAt());
+    }
+
+    @Test
+    void camelCaseWinsOverLegacyName() throws IOException {
+        Map<String, UserRecord> users = new HashMap<>();
+        UserRecordCodec.readSnapshot(new StringReader("""
+                {"alex": {"username": "Alex", "regTime": 1, "discordId": "new", "discord_id": "old"}}
+                """), users::put);
+
+        assertEquals("new", users.get("alex").discordId());
+    }
+
+    @Test
+    void currentFormatIsNotReportedAsUpgraded() throws IOException {
+        Map<String, UserRecord> users = new HashMap<>();
+        boolean upgraded = UserRecordCodec.readSnapshot(new StringReader("""
+                {"alex": {"username": "Alex", "status": "pending", "regTime": 1}}
+                """), users::put);
+
+        assertFalse(upgraded);
+        assertEquals(UserStatus.PENDING, users.get("alex").status());
+    }
+
+    @Test
+    void keepsUnknownStatusThroughJournalRoundTrip() throws IOException {
+        Map<String, UserRecord> users = new HashMap<>();
+        UserRecordCodec.readSnapshot(new StringReader("""
+                {"alex": {"username": "Alex", "status": "frozen", "regTime": 1}}
+                """), users::put);
+        UserRecord alex = users.get("alex");
+        assertNull(alex.status());
+
+        UserRecord[] replayed = new UserRecord[1];
+        UserRecordCodec.readJournalEntry(UserRecordCodec.journalPut("alex", alex), new UserRecordCodec.JournalSink() {
+            @Override
+            public void put(String key, UserRecord user) {
+                replayed[0] = user;
+            }
+
+            @Override
+            public void delete(String key) {
+            }
+        });
+        assertEquals("frozen", replayed[0].unknownStatus());
+    }
+}
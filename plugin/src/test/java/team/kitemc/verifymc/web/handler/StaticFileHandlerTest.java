@@ -0,0 +1,89 @@
+package team.kitemc.verifymc.web.handler;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StaticFileHandlerTest {
+    private static final long[] UNSATISFIABLE = new long[0];
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void parsesClosedAndOpenRanges() {
+        assertArrayEquals(new long[]{0, 99}, StaticFileHandler.parseRange("bytes=0-99", 1000));
+        assertArrayEquals(new long[]{500, 999}, StaticFileHandler.parseRange("bytes=500-", 1000));
+        assertArrayEquals(new long[]{900, 999}, StaticFileHandler.parseRange("bytes=900-5000", 1000));
+    }
+
+    @Test
+    void parsesSuffixRanges() {
+        assertArrayEquals(new long[]{800, 999}, StaticFileHandler.parseRange("bytes=-200", 1000));
+        assertArrayEquals(new long[]{0, 999}, StaticFileHandler.parseRange("bytes=-5000", 1000));
+        assertArrayEquals(UNSATISFIABLE, StaticFileHandler.parseRange("bytes=-0", 1000));
+    }
+
+    @Test
+    void startPastEndIsUnsatisfiable() {
+        assertArrayEquals(UNSATISFIABLE, StaticFileHandler.parseRange("bytes=1000-", 1000));
+        assertArrayEquals(UNSATISFIABLE, StaticFileHandler.parseRange("bytes=2000-3000", 1000));
+    }
+
+    @Test
+    void ignoresMultipleAndMalformedRanges() {
+        assertNull(StaticFileHandler.parseRange("bytes=0-1,5-6", 1000));
+        assertNull(StaticFileHandler.parseRange("items=0-1", 1000));
+        assertNull(StaticFileHandler.parseRange("bytes=abc-", 1000));
+        assertNull(StaticFileHandler.parseRange("bytes=-", 1000));
+        assertNull(StaticFileHandler.parseRange("bytes=50-10", 1000));
+    }
+
+    @Test
+    void ifRangeMustMatchCurrentRepresentation() {
+        long lastModified = 1_700_000_000_123L;
+        String date = DateTimeFormatter.RFC_1123_DATE_TIME
+                .format(Instant.ofEpochMilli(lastModified).atOffset(ZoneOffset.UTC));
+        String older = DateTimeFormatter.RFC_1123_DATE_TIME
+                .format(Instant.ofEpochMilli(lastModified - 60_000L).atOffset(ZoneOffset.UTC));
+
+        assertTrue(StaticFileHandler.ifRangeMatches(null, "\"abc\"", lastModified));
+        assertTrue(StaticFileHandler.ifRangeMatches("\"abc\"", "\"abc\"", lastModified));
+        assertFalse(StaticFileHandler.ifRangeMatches("\"old\"", "\"abc\"", lastModified));
+        assertFalse(StaticFileHandler.ifRangeMatches("\"abc\"", "\"abc-gz\"", lastModified));
+        assertTrue(StaticFileHandler.ifRangeMatches(date, "\"abc\"", lastModified));
+        assertFalse(StaticFileHandler.ifRangeMatches(older, "\"abc\"", lastModified));
+        assertFalse(StaticFileHandler.ifRangeMatches("not a date", "\"abc\"", lastModified));
+    }
+
+    @Test
+    void mapsRequestPathsToRelativePaths() {
+        assertEquals("index.html", StaticFileHandler.toRelativePath(null));
+        assertEquals("index.html", StaticFileHandler.toRelativePath("/"));
+        assertEquals("index.html", StaticFileHandler.toRelativePath("//"));
+        assertEquals("assets/app.js", StaticFileHandler.toRelativePath("/assets/app.js"));
+        assertEquals("assets/app.js", StaticFileHandler.toRelativePath("///assets/app.js"));
+    }
+
+    @Test
+    void rejectsPathsOutsideBase() {
+        Path base = dir.resolve("theme").toAbsolutePath().normalize();
+
+        assertEquals(base.resolve("assets/app.js"), StaticFileHandler.resolveWithinBase(base, "assets/app.js"));
+        assertEquals(base.resolve("b.js"), StaticFileHandler.resolveWithinBase(base, "a/../b.js"));
+        assertNull(StaticFileHandler.resolveWithinBase(base, "../secret.yml"));
+        assertNull(StaticFileHandler.resolveWithinBase(base, "assets/../../secret.yml"));
+        assertNull(StaticFileHandler.resolveWithinBase(base, "../theme-other/index.html"));
+        assertNull(StaticFileHandler.resolveWithinBase(base, dir.resolve("secret.yml").toAbsolutePath().toString()));
+    }
+}